@@ -4,6 +4,10 @@
  * Agent de choix du mode de transport via argumentation (Tweety).
  * Utilise la mesure scr(d) = (pros - 0.5 * cons) / (pros + cons) + mini-prior,
  * puis normalise pour obtenir des pourcentages.
+ *
+ * Le graphe ne dépend que de (pluie ?, santé, heure de pointe, tranche de distance <= 50 / <= 70 / > 70),
+ * soit 2 x 2 x 2 x 3 = 24 contextes : scores et décisions sont calculés une seule fois pour tous
+ * (DecisionTable, au premier usage), une décision n'est ensuite qu'une lecture de tableau.
  */
 package org.example.ArgumentationDM;
 
@@ -31,6 +35,33 @@ public class TransportationAgent {
             "CAR", "PUBLIC_TRANSPORT", "WALK", "BIKE"
     );
 
+    // ===== Cartographie des arguments pros/cons par mode =====
+    private static final Map<String, String> POS_ARGS = Map.ofEntries(
+            // Arguments favorables
+            Map.entry("A13", "CAR"), Map.entry("A18", "CAR"),
+            Map.entry("A28", "CAR"), Map.entry("A30", "CAR"),
+            Map.entry("A60", "CAR"), Map.entry("A61", "CAR"),
+            Map.entry("A62", "CAR"), Map.entry("A63", "CAR"), Map.entry("A64", "CAR"),
+            Map.entry("A3", "PUBLIC_TRANSPORT"),
+            Map.entry("A22", "PUBLIC_TRANSPORT"), Map.entry("A25", "PUBLIC_TRANSPORT"),
+            Map.entry("A5", "WALK"), Map.entry("A11", "WALK"),
+            Map.entry("A14", "WALK"), Map.entry("A19", "WALK"),
+            Map.entry("A7", "BIKE"), Map.entry("A12", "BIKE"),
+            Map.entry("A21", "BIKE"), Map.entry("A23", "BIKE")
+    );
+    private static final Map<String, String> NEG_ARGS = Map.ofEntries(
+            // Arguments défavorables
+            Map.entry("A1", "CAR"), Map.entry("A24", "CAR"), Map.entry("A9", "CAR"),
+            Map.entry("A4", "PUBLIC_TRANSPORT"), Map.entry("A26", "PUBLIC_TRANSPORT"),
+            Map.entry("A31", "PUBLIC_TRANSPORT"), Map.entry("A40", "PUBLIC_TRANSPORT"),
+            Map.entry("A6", "WALK"), Map.entry("A50", "WALK"),
+            Map.entry("A8", "BIKE"), Map.entry("A35", "BIKE"), Map.entry("A36", "BIKE"),Map.entry("A37", "BIKE") // Nouvel argument (ex: risque d'accident)
+    );
+
+    // ===== Contextes =====
+    private static final int DISTANCE_BANDS = 3; // <= 50, ]50, 70], > 70
+    private static final int CONTEXT_COUNT = 2 * 2 * 2 * DISTANCE_BANDS;
+
     /**
      * Initialisation de l'agent avec son contexte.
      */
@@ -49,11 +80,74 @@ public class TransportationAgent {
     }
 
     /**
-     * Décide du meilleur mode selon la méthode SCR-based.
+     * Décide du meilleur mode selon la méthode SCR-based (lecture dans la table précalculée).
      * @return le nom du mode sélectionné.
      */
     public String decideTransportationMode() {
-        return getModeScoresScr().entrySet().stream()
+        return DecisionTable.DECISIONS[contextIndex()];
+    }
+
+    /**
+     * Scores SCR de chaque mode pour le contexte de l'agent (copie de la table précalculée).
+     * @return Map<Mode, Pourcentage>
+     */
+    public Map<String, Double> getModeScoresScr() {
+        return new LinkedHashMap<>(DecisionTable.SCORES.get(contextIndex()));
+    }
+
+    /**
+     * Force le calcul de la table des décisions (par ex. au démarrage, avant une simulation de masse).
+     */
+    public static void precomputeDecisionTable() {
+        System.out.println("🧮 Table de décision : " + DecisionTable.DECISIONS.length + " contextes précalculés");
+    }
+
+    private int contextIndex() {
+        return contextIndex(isRainy(), isHealthy, isRushHour, distanceBand());
+    }
+
+    private static int contextIndex(boolean rainy, boolean healthy, boolean rushHour, int distanceBand) {
+        return (((rainy ? 1 : 0) * 2 + (healthy ? 1 : 0)) * 2 + (rushHour ? 1 : 0)) * DISTANCE_BANDS + distanceBand;
+    }
+
+    private boolean isRainy() {
+        return weather.equalsIgnoreCase("Rainy");
+    }
+
+    private int distanceBand() {
+        double distance = start.distanceTo(destination);
+        return distance > 70 ? 2 : distance > 50 ? 1 : 0;
+    }
+
+    /*
+    Table calculée une fois (chargement de la classe interne, au premier usage) : pour chaque contexte,
+    construction du graphe et passage des 4 raisonneurs, comme le faisait chaque appel auparavant.
+     */
+    private static final class DecisionTable {
+        static final String[] DECISIONS = new String[CONTEXT_COUNT];
+        static final List<Map<String, Double>> SCORES;
+
+        static {
+            List<Map<String, Double>> table = new ArrayList<>(Collections.nCopies(CONTEXT_COUNT, null));
+            for (int rainy = 0; rainy < 2; rainy++) {
+                for (int healthy = 0; healthy < 2; healthy++) {
+                    for (int rush = 0; rush < 2; rush++) {
+                        for (int band = 0; band < DISTANCE_BANDS; band++) {
+                            int index = contextIndex(rainy == 1, healthy == 1, rush == 1, band);
+                            Map<String, Double> scores = computeScoresScr(
+                                    buildFramework(rainy == 1, healthy == 1, rush == 1, band));
+                            table.set(index, Collections.unmodifiableMap(scores));
+                            DECISIONS[index] = bestMode(scores);
+                        }
+                    }
+                }
+            }
+            SCORES = List.copyOf(table);
+        }
+    }
+
+    private static String bestMode(Map<String, Double> scores) {
+        return scores.entrySet().stream()
                 .max(Map.Entry.comparingByValue())
                 .map(Map.Entry::getKey)
                 .orElse("CAR");
@@ -62,36 +156,9 @@ public class TransportationAgent {
     /**
      * Calcule pour chaque mode un score SCR, puis ajoute un mini-prior
      * et normalise pour renvoyer un pourcentage.
-     * @return Map<Mode, Pourcentage>
      */
-    public Map<String, Double> getModeScoresScr() {
-        // 1) Construction du cadre argumentatif
-        DungTheory framework = buildFramework();
-
-        // 2) Cartographie des arguments pros/cons par mode
-        Map<String, String> posArgs = Map.ofEntries(
-                // Arguments favorables
-                Map.entry("A13", "CAR"), Map.entry("A18", "CAR"),
-                Map.entry("A28", "CAR"), Map.entry("A30", "CAR"),
-                Map.entry("A60", "CAR"), Map.entry("A61", "CAR"),
-                Map.entry("A62", "CAR"), Map.entry("A63", "CAR"), Map.entry("A64", "CAR"),
-                Map.entry("A3", "PUBLIC_TRANSPORT"),
-                Map.entry("A22", "PUBLIC_TRANSPORT"), Map.entry("A25", "PUBLIC_TRANSPORT"),
-                Map.entry("A5", "WALK"), Map.entry("A11", "WALK"),
-                Map.entry("A14", "WALK"), Map.entry("A19", "WALK"),
-                Map.entry("A7", "BIKE"), Map.entry("A12", "BIKE"),
-                Map.entry("A21", "BIKE"), Map.entry("A23", "BIKE")
-        );
-        Map<String, String> negArgs = Map.ofEntries(
-                // Arguments défavorables
-                Map.entry("A1", "CAR"), Map.entry("A24", "CAR"), Map.entry("A9", "CAR"),
-                Map.entry("A4", "PUBLIC_TRANSPORT"), Map.entry("A26", "PUBLIC_TRANSPORT"),
-                Map.entry("A31", "PUBLIC_TRANSPORT"), Map.entry("A40", "PUBLIC_TRANSPORT"),
-                Map.entry("A6", "WALK"), Map.entry("A50", "WALK"),
-                Map.entry("A8", "BIKE"), Map.entry("A35", "BIKE"), Map.entry("A36", "BIKE"),Map.entry("A37", "BIKE") // Nouvel argument (ex: risque d'accident)
-        );
-
-        // 3) Préparation des raisonners (4 sémantiques)
+    static Map<String, Double> computeScoresScr(DungTheory framework) {
+        // 1) Préparation des raisonners (4 sémantiques)
         List<AbstractExtensionReasoner> reasoners = List.of(
                 new SimpleGroundedReasoner(),
                 new SimplePreferredReasoner(),
@@ -99,13 +166,13 @@ public class TransportationAgent {
                 new SimpleStableReasoner()
         );
 
-        // 4) Accumulation des scores raw
+        // 2) Accumulation des scores raw
         Map<String, Double> raw = MODES.stream()
                 .collect(Collectors.toMap(Function.identity(), m -> 0.0));
         for (AbstractExtensionReasoner r : reasoners) {
             Extension ext = r.getModel(framework);
-            Map<String, Long> pros = countAccepted(ext, posArgs);
-            Map<String, Long> cons = countAccepted(ext, negArgs);
+            Map<String, Long> pros = countAccepted(ext, POS_ARGS);
+            Map<String, Long> cons = countAccepted(ext, NEG_ARGS);
             for (String mode : MODES) {
                 long p = pros.getOrDefault(mode, 0L);
                 long c = cons.getOrDefault(mode, 0L);
@@ -117,10 +184,10 @@ public class TransportationAgent {
             }
         }
 
-        // 5) Moyenne sur les 4 sémantiques
+        // 3) Moyenne sur les 4 sémantiques
         int n = reasoners.size();
 
-        // 6) Ajout d'un mini-prior pour débloquer modes
+        // 4) Ajout d'un mini-prior pour débloquer modes
         Map<String, Double> prior = Map.of(
                 "CAR", 0.40,          // Augmenté de 30% à 40%
                 "PUBLIC_TRANSPORT", 0.20, // Réduit de 25% à 15%
@@ -128,7 +195,7 @@ public class TransportationAgent {
                 "BIKE", 0.08
         );
 
-        // 7) Combinaison et normalisation en %
+        // 5) Combinaison et normalisation en %
         Map<String, Double> combined = new LinkedHashMap<>();
         double total = 0.0;
         for (String mode : MODES) {
@@ -149,6 +216,10 @@ public class TransportationAgent {
      */
     /* ======= Graphe ======= */
     public DungTheory buildFramework() {
+        return buildFramework(isRainy(), isHealthy, isRushHour, distanceBand());
+    }
+
+    private static DungTheory buildFramework(boolean rainy, boolean isHealthy, boolean isRushHour, int distanceBand) {
         DungTheory th = new DungTheory();
         Map<String, Argument> A = new HashMap<>();
         Function<String, Argument> arg = n -> A.computeIfAbsent(n, x -> {
@@ -183,9 +254,9 @@ public class TransportationAgent {
         th.addAttack(arg.apply("A14"), arg.apply("A6"));     // Relaxant
         if (!isHealthy)
             th.addAttack(arg.apply("A33"), arg.apply("A5")); // Marche trop fatigante si santé faible
-        if (start.distanceTo(destination) > 50)
+        if (distanceBand >= 1)
             th.addAttack(arg.apply("A6"), arg.apply("A5"));  // Trop long
-        if (start.distanceTo(destination) > 70)
+        if (distanceBand >= 2)
             th.addAttack(arg.apply("A50"), arg.apply("A5")); // Encore plus trop long
 
         // --- BIKE ---
@@ -208,7 +279,7 @@ public class TransportationAgent {
             th.addAttack(arg.apply("A41"), arg.apply("A25"));    // Réseau saturé
         }
 
-        if (weather.equalsIgnoreCase("Rainy")) {
+        if (rainy) {
             // 🌧️ Pluie affecte les transports publics et vélo
             th.addAttack(arg.apply("A31"), arg.apply("A3"));     // Moins fiable
             th.addAttack(arg.apply("A60"), arg.apply("A31"));    // Voiture au sec
@@ -4,7 +4,9 @@ import org.example.ArgumentationDM.DungGraphPanel;
 import org.example.ArgumentationDM.TransportationAgent;
 import org.example.agent.Vehicle;
 import org.example.environment.Environment;
+import org.example.environment.NetworkImporter;
 import org.example.environment.Obstacle;
+import org.example.environment.PolicyStore;
 import org.example.environment.Road;
 import org.example.environment.TrafficLight;
 import org.example.agent.Position;
@@ -15,6 +17,8 @@ import org.tweetyproject.arg.dung.syntax.DungTheory;
 
 import javax.swing.*;
 import javax.swing.Timer;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 import static org.example.environment.TrafficLight.LightColor.GREEN;
@@ -27,6 +31,7 @@ public class Main {
         //runScenario1();
         //runScenario2();
         // runScenario3();
+        // runImportedNetwork("network.txt");
         runScenario4();
         runBatchSimulation();
     }
@@ -46,7 +51,6 @@ public class Main {
 
         TrafficLight light = new TrafficLight("R1", GREEN);
         road.addTrafficLight(light, new Position(80, 1));
-        road.trainTrafficLights();
         road.enableMDP(true);
         road.setMDPDecisionInterval(3);
 
@@ -59,6 +63,7 @@ public class Main {
 
         env.getRoads().add(road);
         env.buildGlobalGraph();
+        prepareSignalPolicies(env, "scenario1.policies");
 
         for (int i = 0; i < 30; i++) {
             System.out.printf("\n⏱️ Étape %02d\n", i + 1);
@@ -73,6 +78,7 @@ public class Main {
             for (Vehicle v : new ArrayList<>(lane1.getVehicles())) {
                 v.bdiCycle(lane1, road);
             }
+            env.endTick();
             lane1.removeArrivedVehicles();
             displayLaneVehicles(lane1);
 
@@ -118,7 +124,6 @@ public class Main {
         TrafficLight crossLight2 = new TrafficLight("V1", GREEN);
         horizontal.addTrafficLight(crossLight, new Position(50, 1));
         vertical.addTrafficLight(crossLight2, new Position(50, 1));
-        horizontal.trainTrafficLights();
         horizontal.enableMDP(true);
 
         // Véhicules
@@ -132,6 +137,7 @@ public class Main {
         env.getRoads().add(horizontal);
         env.getRoads().add(vertical);
         env.buildGlobalGraph();
+        prepareSignalPolicies(env, "scenario2.policies");
 
         for (int i = 0; i < 30; i++) {
             System.out.printf("\n⏱️ Étape %02d\n", i + 1);
@@ -148,6 +154,7 @@ public class Main {
             for (Vehicle v : new ArrayList<>(vLane1.getVehicles())) {
                 v.bdiCycle(vLane1, vertical);
             }
+            env.endTick();
 
             hLane1.removeArrivedVehicles();
             vLane1.removeArrivedVehicles();
@@ -176,7 +183,6 @@ public class Main {
 
         TrafficLight trafficLight = new TrafficLight("R1", GREEN);
         road.addTrafficLight(trafficLight, new Position(90, 1));
-        road.trainTrafficLights();
         road.enableMDP(true);
         road.setMDPDecisionInterval(3);
 
@@ -194,6 +200,7 @@ public class Main {
 
         env.getRoads().add(road);
         env.buildGlobalGraph();
+        prepareSignalPolicies(env, "scenario3.policies");
 
         for (int i = 0; i < 40; i++) {
             System.out.printf("\n⏱️ Étape %02d\n", i + 1);
@@ -207,6 +214,7 @@ public class Main {
             for (Vehicle v : new ArrayList<>(lane1.getVehicles())) {
                 v.bdiCycle(lane1, road);
             }
+            env.endTick();
             lane1.removeArrivedVehicles();
 
             displayLaneVehicles(lane1);
@@ -226,6 +234,40 @@ public class Main {
         displayMetrics(vehicles);
     }
 
+    /**
+     * Scénario 5 : Chargement d'un réseau externe (format NetworkImporter) et mesure du temps de construction
+     */
+    public static void runImportedNetwork(String networkFile) {
+        System.out.println("\n=== SCÉNARIO 5 : Réseau importé depuis " + networkFile + " ===");
+
+        Environment env = new Environment();
+        try {
+            NetworkImporter.Stats stats = NetworkImporter.importInto(Path.of(networkFile), env);
+            System.out.println("📥 Import : " + stats);
+        } catch (IOException e) {
+            System.out.println("❌ Erreur d'import : " + e.getMessage());
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        env.buildGlobalGraphParallel();
+        System.out.printf("⏱️ Graphe global prêt en %d ms%n", System.currentTimeMillis() - start);
+
+        prepareSignalPolicies(env, Path.of(networkFile).getFileName() + ".policies");
+    }
+
+    /**
+     * Politiques des feux : entraînées une fois hors ligne, puis rechargées aux démarrages suivants depuis le fichier
+     * policyFile du répertoire des politiques (PolicyStore.fileFor)
+     */
+    private static void prepareSignalPolicies(Environment env, String policyFile) {
+        try {
+            env.prepareSignalPolicies(PolicyStore.fileFor(policyFile));
+        } catch (IOException e) {
+            System.out.println("❌ Erreur de chargement des politiques : " + e.getMessage());
+        }
+    }
+
     public static void runScenario4() {
         System.out.println("\n=== SCÉNARIO 4 : Choix du mode de transport via argumentation ===");
 
@@ -294,6 +336,7 @@ public class Main {
 
     public static void runBatchSimulation() {
         System.out.println("\n=== SIMULATION MASSIVE (100 décisions - SCR based) ===");
+        TransportationAgent.precomputeDecisionTable(); // 24 contextes, ensuite une lecture de tableau par décision
 
         Map<String, Integer> counts = new LinkedHashMap<>();
         for (String mode : List.of("CAR", "PUBLIC_TRANSPORT", "WALK", "BIKE"))
@@ -313,7 +356,7 @@ public class Main {
             boolean isRush = rand.nextBoolean();
 
             TransportationAgent agent = new TransportationAgent(startPos, destPos, weather, isHealthy, isRush);
-            String decision = agent.decideTransportationMode();  // utilise getModeScoresScr()
+            String decision = agent.decideTransportationMode();  // table précalculée (SCR)
 
             counts.put(decision, counts.getOrDefault(decision, 0) + 1);
         }
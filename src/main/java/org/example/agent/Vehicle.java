@@ -2,11 +2,18 @@ package org.example.agent;
 
 import org.example.environment.*;
 import org.example.logic.*;
+import org.example.planning.AllPairsTable;
+import org.example.planning.AltSearch;
+import org.example.planning.AsyncRoutePlanner;
 import org.example.planning.DijkstraAlgorithm;
 import org.example.planning.Graph;
 import org.example.planning.GraphNode;
+import org.example.planning.LandmarkIndex;
+import org.example.planning.PlanningScheduler;
+import org.example.planning.RouteBatcher;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * Vehicle agent class using a BDI (Belief-Desire-Intention) architecture to navigate a traffic simulation.
@@ -46,6 +53,16 @@ public class Vehicle {
     private static final long PLAN_COOLDOWN_MS = 1000;
     private long lastLaneChangeTime = 0;
     private static final long LANE_CHANGE_COOLDOWN_MS = 100;
+    private static final double URGENCY_PATH_EXHAUSTED = 0.0;
+    private static final double URGENCY_LANE_CHANGE = 1.0;
+    private static final double URGENCY_TRAFFIC_JAM = 1000.0;
+    // Obstacle signalé mais pas dans la voie courante (ou trop loin) : urgence finie, toujours devant l'embouteillage
+    private static final double URGENCY_OBSTACLE_ELSEWHERE = URGENCY_TRAFFIC_JAM - 1.0;
+    // Échecs de planification : distance max de recalage sur un nœud, puis attente doublée à chaque échec
+    private static final double MAX_SNAP_DISTANCE = 50.0;
+    private static final long MAX_PLAN_BACKOFF_MS = 30_000;
+    private int consecutivePlanFailures = 0;
+    private long nextPlanAllowedTime = 0;
 
     // Metrics
     private long startTime;
@@ -149,16 +166,48 @@ public class Vehicle {
     private void planIfNeeded() {
         if (beliefs.contains("AtDestination", true)) return;
 
-        boolean needsPlan = (path == null || path.isEmpty())
-                || (nextWaypointIdx >= path.size())
-                || beliefs.contains("ObstacleAhead", true)
+        boolean pathExhausted = (path == null || path.isEmpty())
+                || (nextWaypointIdx >= path.size());
+        boolean obstacleAhead = beliefs.contains("ObstacleAhead", true);
+        boolean needsPlan = pathExhausted
+                || obstacleAhead
                 || (beliefs.contains("InTrafficJam", true) && (System.currentTimeMillis() - lastPlanTime > 5000));
 
         long now = System.currentTimeMillis();
-        if (needsPlan && (now - lastPlanTime > PLAN_COOLDOWN_MS)) {
-            plan();
-            lastPlanTime = now;
+        if (needsPlan && (now - lastPlanTime > PLAN_COOLDOWN_MS) && now >= nextPlanAllowedTime) {
+            double distanceToObstacle = obstacleAhead ? currentLane.distanceToObstacleAhead(this) : Double.MAX_VALUE;
+            requestPlan(planUrgency(pathExhausted, obstacleAhead, distanceToObstacle), () -> {
+                plan();
+                lastPlanTime = System.currentTimeMillis();
+            });
+        }
+    }
+
+    // Urgence : chemin épuisé d'abord, puis obstacle le plus proche, puis embouteillage
+    static double planUrgency(boolean pathExhausted, boolean obstacleAhead, double distanceToObstacle) {
+        if (pathExhausted) return URGENCY_PATH_EXHAUSTED;
+        if (obstacleAhead) return Math.min(distanceToObstacle, URGENCY_OBSTACLE_ELSEWHERE);
+        return URGENCY_TRAFFIC_JAM;
+    }
+
+    // Appelé par la voie quand le véhicule quitte la simulation (arrivée, retrait) : son chemin n'est plus suivi
+    public void onRemoved() {
+        if (environment != null) environment.getRouteIndex().untrack(this);
+    }
+
+    /**
+     * Planifie tout de suite, ou dépose la demande auprès du planificateur à budget de l'environnement :
+     * dans ce cas le véhicule continue sur son chemin actuel jusqu'à ce que la demande soit servie.
+     */
+    private void requestPlan(double urgency, Runnable planning) {
+        PlanningScheduler scheduler = environment != null ? environment.getPlanningScheduler() : null;
+        if (scheduler == null) {
+            planning.run();
+            return;
         }
+        scheduler.submit(this, urgency, () -> {
+            if (!beliefs.contains("AtDestination", true)) planning.run();
+        });
     }
 
     private void plan() {
@@ -170,27 +219,76 @@ public class Vehicle {
 
         int snappedX = Math.round((float) position.getX() / 10) * 10;
         int startY = currentLane.getCenterYInt();
+        int goalX = Math.round((float) destination.getX() / 10) * 10;
         int goalY = destination.getY();
 
-        Position snappedStart = new Position(snappedX, startY);
-        Position snappedGoal = new Position(Math.round((float) destination.getX() / 10) * 10, goalY);
-
         System.out.println("🧠 V" + id + " planning:");
         System.out.println("   position actuelle = " + position + ", lane Y = " + currentLane.getCenterYInt());
-        System.out.println("   snappedStart = " + snappedStart);
         System.out.println("   destination = " + destination);
-        System.out.println("   snappedGoal = " + snappedGoal);
 
-        GraphNode startNode = roadGraph.getNode(snappedStart);
-        GraphNode goalNode = roadGraph.getNode(snappedGoal);
+        // Nœud exact si possible, sinon le nœud relié le plus proche (voie hors grille, nœud isolé par un obstacle...)
+        GraphNode startNode = roadGraph.findNearestNode(snappedX, startY, MAX_SNAP_DISTANCE);
+        GraphNode goalNode = roadGraph.findNearestNode(goalX, goalY, MAX_SNAP_DISTANCE);
 
         if (startNode == null || goalNode == null) {
             System.out.println("❌ StartNode ou GoalNode introuvable dans le graphe !");
+            planFailed();
+            return;
+        }
+
+        Position snappedStart = startNode.getPosition();
+        Position snappedGoal = goalNode.getPosition();
+        System.out.println("   snappedStart = " + snappedStart);
+        System.out.println("   snappedGoal = " + snappedGoal);
+
+        // Petit réseau : le chemin est une marche dans les tables toutes paires, rien à calculer ni à regrouper
+        AllPairsTable allPairs = (environment != null && roadGraph == environment.getGlobalGraph()
+                && !environment.isHierarchicalRouting()) ? environment.getAllPairsTable() : null;
+        if (allPairs != null) {
+            installPath(allPairs.computePath(snappedStart, snappedGoal));
             return;
         }
 
-        List<Position> path = DijkstraAlgorithm.computePath(roadGraph, snappedStart, snappedGoal);
+        // Mode regroupé : la demande est dédoublonnée avec celles des autres véhicules et servie à endTick()
+        RouteBatcher batcher = environment != null ? environment.getRouteBatcher() : null;
+        if (batcher != null && !environment.isHierarchicalRouting()) {
+            batcher.submit(this, roadGraph, snappedStart, snappedGoal, this::installPath);
+            return;
+        }
 
+        Supplier<List<Position>> route;
+        if (environment != null && environment.isHierarchicalRouting()) {
+            // Graphe des routes pour le long terme, graphe des voies seulement sur la route courante et la suivante
+            HierarchicalRouter router = environment.getHierarchicalRouter();
+            Road currentRoad = road;
+            route = () -> router.computePath(currentRoad, snappedStart, snappedGoal);
+        } else {
+            LandmarkIndex landmarks = (environment != null && roadGraph == environment.getGlobalGraph())
+                    ? environment.getLandmarkIndex()
+                    : null;
+            if (landmarks != null) {
+                route = () -> AltSearch.forCurrentThread().computePath(roadGraph, landmarks, snappedStart, snappedGoal);
+            } else {
+                route = () -> DijkstraAlgorithm.computePathBidirectional(roadGraph, snappedStart, snappedGoal);
+            }
+        }
+
+        // Mode asynchrone : le calcul part sur l'exécuteur, le chemin actuel reste suivi jusqu'à la fin du tick
+        AsyncRoutePlanner asyncPlanner = environment != null ? environment.getAsyncRoutePlanner() : null;
+        if (asyncPlanner != null) {
+            asyncPlanner.submit(this, route, this::installPath);
+        } else {
+            installPath(route.get());
+        }
+    }
+
+    private void installPath(List<Position> path) {
+        if (path.isEmpty()) {
+            planFailed(); // l'ancien chemin (et son entrée dans l'index des routes) reste en place
+            return;
+        }
+        consecutivePlanFailures = 0;
+        nextPlanAllowedTime = 0;
         System.out.println("📍 Chemin trouvé pour V" + id + ":");
         for (int i = 0; i < path.size(); i++) {
             System.out.println("   ➤ Waypoint " + i + ": " + path.get(i));
@@ -198,6 +296,32 @@ public class Vehicle {
 
         this.path = path;
         this.nextWaypointIdx = 0;
+        if (environment != null) {
+            environment.getRouteIndex().track(this, path);
+        }
+    }
+
+    /**
+     * Appelé par l'environnement quand un nœud du chemin devient inaccessible : le véhicule replanifie sans
+     * attendre de percevoir l'obstacle, si ce nœud est encore devant lui.
+     */
+    public void onRouteBlocked(Position node) {
+        if (currentLane == null || beliefs.contains("AtDestination", true)) return;
+        if (nextWaypointIdx >= path.size() || !path.subList(nextWaypointIdx, path.size()).contains(node)) return;
+
+        requestPlan(position.distanceTo(node), () -> {
+            plan();
+            lastPlanTime = System.currentTimeMillis();
+        });
+    }
+
+    // Pas de nouvel essai toutes les secondes : 2 s, 4 s, 8 s... jusqu'à MAX_PLAN_BACKOFF_MS
+    private void planFailed() {
+        consecutivePlanFailures++;
+        long backoff = Math.min(MAX_PLAN_BACKOFF_MS, PLAN_COOLDOWN_MS << Math.min(consecutivePlanFailures, 5));
+        nextPlanAllowedTime = System.currentTimeMillis() + backoff;
+        System.out.println("⏳ V" + id + " : échec de planification n°" + consecutivePlanFailures
+                + ", nouvel essai dans " + backoff + " ms");
     }
 
 
@@ -343,7 +467,10 @@ public class Vehicle {
         }
 
         if (beliefs.contains("AtDestination", true)) {
-            if (endTime == null) endTime = System.currentTimeMillis();
+            if (endTime == null) {
+                endTime = System.currentTimeMillis();
+                if (environment != null) environment.getRouteIndex().untrack(this);
+            }
             System.out.println("✅ Véhicule arrivé à destination");
             return;
         }
@@ -364,13 +491,13 @@ public class Vehicle {
                     return;
                 }
                 preciseX += 1.0 * speedFactor * directionFactor;
-                position = new Position((int) Math.round(preciseX), position.getY());
+                moveTo(new Position((int) Math.round(preciseX), position.getY()));
                 System.out.println("🚗 [" + mode + "] Accélère vers " + position);
             }
 
             case SLOW_DOWN -> {
                 preciseX += 0.5 * speedFactor * directionFactor;
-                position = new Position((int) Math.round(preciseX), position.getY());
+                moveTo(new Position((int) Math.round(preciseX), position.getY()));
                 System.out.println("🐢 [" + mode + "] Ralentit vers " + position);
             }
 
@@ -412,11 +539,10 @@ public class Vehicle {
 
                 if (safe) {
                     System.out.println("   ✅ Changement de voie autorisé");
-                    currentLane.removeVehicle(this);
+                    currentLane.transferVehicle(this, targetLane);
                     currentLane = targetLane;
-                    targetLane.addVehicle(this);
-                    position = new Position(position.getX(), targetLane.getCenterYInt());
-                    this.plan();
+                    moveTo(new Position(position.getX(), targetLane.getCenterYInt()));
+                    requestPlan(URGENCY_LANE_CHANGE, this::plan);
                     System.out.println("↔️ V" + id + " a changé " + (toLeft ? "à gauche" : "à droite") + " vers " + targetLane.getId());
                 } else {
                     System.out.println("⛔ V" + id + " trop proche d'un véhicule pour changer de voie !");
@@ -426,7 +552,7 @@ public class Vehicle {
 
             case CHANGE_LANE -> {
                 int newY = (position.getY() > 0) ? -Math.abs(position.getY()) : Math.abs(position.getY());
-                position = new Position(position.getX(), newY);
+                moveTo(new Position(position.getX(), newY));
                 System.out.println("➡️ Changement de voie brut vers Y=" + newY);
             }
 
@@ -437,6 +563,13 @@ public class Vehicle {
     }
 
 
+    // Déplacement sur la voie courante : la voie prévient la route (zones de détection des feux)
+    private void moveTo(Position newPosition) {
+        Position previous = position;
+        position = newPosition;
+        currentLane.vehicleMoved(previous, newPosition);
+    }
+
     private void updatePostActionBeliefs() {
         this.previousPosition = new Position(position.getX(), position.getY());
     }
@@ -2,67 +2,764 @@ package org.example.environment;
 
 import org.example.agent.Position;
 import org.example.agent.Vehicle;
+import org.example.planning.AllPairsTable;
+import org.example.planning.AsyncRoutePlanner;
 import org.example.planning.Graph;
 import org.example.planning.GraphNode;
+import org.example.planning.LandmarkIndex;
+import org.example.planning.PlanningScheduler;
+import org.example.planning.PositionIndex;
+import org.example.planning.RouteBatcher;
+import org.example.planning.RouteIndex;
+import org.example.planning.SpatialHashGrid;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 
 /*
 the basic environment, which will then include roads, which in turn will include vehicles, etc. etc.
 
 NOTE: we'll use grid later to create a 2d interface for the moment we're content with the text output,
 giving priority to the functional over the superficial.
+
+The global graph is maintained incrementally: each road contributes its local graph, and junctions between
+roads are found through a spatial index of entry points, so adding, closing or re-obstructing one road only
+patches the part of the graph it touches.
  */
 
 public class Environment {
+    private static final int SEGMENT_LENGTH = 10;
+    private static final double JUNCTION_RADIUS = 15.0;
+    static final double JUNCTION_COST = 5;
+    private static final long DEFAULT_ALL_PAIRS_BUDGET_BYTES = 64L * 1024 * 1024; // ~2 900 nœuds
+
     private Graph globalGraph = new Graph();
     private List<Road> roads;
     //private List<In> intersections;
+
+    // Qui a contribué chaque nœud du graphe global, indexé par id de nœud (une entrée par contribution,
+    // doublons permis ; null pour un id libre)
+    private final List<List<Road>> nodeOwners = new ArrayList<>();
+    private final Map<Road, List<Junction>> junctionsByRoad = new HashMap<>();
+    private final SpatialHashGrid<EntryPoint> entryIndex = new SpatialHashGrid<>((int) JUNCTION_RADIUS);
+    // Nœud -> véhicules dont le chemin courant y passe (pour ne prévenir que ceux touchés par un obstacle)
+    private final RouteIndex<Vehicle> routeIndex = new RouteIndex<>();
+
+    // Routage hiérarchique (graphe des routes + raffinement local), reconstruit quand la topologie change
+    private boolean hierarchicalRouting = false;
+    private HierarchicalRouter hierarchicalRouter;
+
+    // Replanifications différées avec budget par tick (null = les véhicules planifient immédiatement)
+    private PlanningScheduler planningScheduler;
+    // Calcul d'itinéraires sur un exécuteur dédié (null = calcul synchrone dans le cycle BDI)
+    private AsyncRoutePlanner asyncRoutePlanner;
+    // Demandes d'itinéraire regroupées et dédoublonnées par tick (null = chaque véhicule calcule son chemin)
+    private RouteBatcher routeBatcher;
+    // Repères ALT sur le graphe global (0 = désactivé), reconstruits quand la structure du graphe change.
+    // Poser un obstacle ne fait que retirer des arêtes : les bornes calculées avant restent admissibles. Seule la
+    // libération d'un nœud qui était sous un obstacle au calcul rend des arêtes que l'index n'a jamais vues.
+    private int landmarkCount = 0;
+    private LandmarkIndex landmarkIndex;
+    private long structuralVersion = 0; // incrémentée à chaque route greffée ou retirée
+    private long landmarkStructuralVersion = -1;
+    private Set<Position> landmarkObstructedNodes = Set.of(); // nœuds sous obstacle au calcul de l'index
+    // Tables toutes paires (0 = désactivé) : utilisées seulement si le graphe global tient dans le budget
+    private long allPairsBudgetBytes = 0;
+    private AllPairsTable allPairsTable;
+    private CompletableFuture<AllPairsTable> allPairsBuild; // calcul en cours, hors du thread de simulation
+    private long allPairsBuildStart;
+    private ReplayLearner replayLearner;
+
+    private record EntryPoint(Road road, Position position) {}
+
+    record Junction(Road roadA, Position a, Road roadB, Position b) {}
+
     public Environment(){
         this.roads = new ArrayList<>();
     }
 
     public void buildGlobalGraph() {
         globalGraph = new Graph();
-        int segmentLength = 10;
+        hierarchicalRouter = null;
+        nodeOwners.clear();
+        junctionsByRoad.clear();
+        entryIndex.clear();
 
         for (Road road : roads) {
-            road.initGraphForPathfinding(); // chaque route initialise son graphe local
-            Graph localGraph = road.getGraph();
+            attachRoad(road);
+        }
 
-            // Intégrer les noeuds dans le graphe global
-            for (GraphNode node : localGraph.getAllNodes()) {
+        System.out.println("🌐 Graphe GLOBAL construit avec " + globalGraph.getAllNodes().size() + " nœuds.");
+    }
+
+    /**
+     * Même résultat que buildGlobalGraph(), mais les graphes locaux sont générés en parallèle sur le pool
+     * fork-join, puis les arêtes sont fusionnées par partitions de nœuds : chaque nœud global n'est écrit
+     * que par une seule tâche, donc aucune synchronisation n'est nécessaire.
+     */
+    public void buildGlobalGraphParallel() {
+        globalGraph = new Graph();
+        hierarchicalRouter = null;
+        structuralVersion++;
+        nodeOwners.clear();
+        junctionsByRoad.clear();
+        entryIndex.clear();
+
+        // 1. Graphes locaux : indépendants d'une route à l'autre
+        roads.parallelStream().forEach(Road::initGraphForPathfinding);
+
+        // 2. Création des nœuds globaux et répartition des nœuds locaux par partition
+        int partitionCount = ForkJoinPool.getCommonPoolParallelism() * 4;
+        List<List<GraphNode>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (Road road : roads) {
+            for (GraphNode node : road.getGraph().getAllNodes()) {
                 globalGraph.getOrCreateNode(node.getPosition());
+                acquire(node.getPosition(), road);
+                Position position = node.getPosition();
+                int hash = PositionIndex.mix(PositionIndex.pack(position.getX(), position.getY()));
+                partitions.get(Math.floorMod(hash, partitionCount)).add(node);
+            }
+        }
+
+        // 3. Fusion des arêtes : une partition = un ensemble disjoint de nœuds globaux
+        partitions.parallelStream().forEach(partition -> {
+            for (GraphNode node : partition) {
+                copyLocalEdges(node);
+            }
+        });
+
+        // 4. Jonctions (index spatial, coût négligeable)
+        for (Road road : roads) {
+            linkJunctions(road);
+        }
+
+        System.out.println("🌐 Graphe GLOBAL construit (parallèle) avec " + globalGraph.getAllNodes().size() + " nœuds.");
+    }
+
+    /**
+     * Ajoute une route et ne greffe que son sous-graphe (et ses jonctions) au graphe global.
+     */
+    public void addRoad(Road road) {
+        roads.add(road);
+        attachRoad(road);
+    }
+
+    /**
+     * Ferme une route : ses nœuds, arêtes et jonctions sont retirés sans reconstruire le reste du graphe.
+     */
+    public boolean removeRoad(Road road) {
+        if (!roads.remove(road)) return false;
+        detachRoad(road);
+        return true;
+    }
+
+    /**
+     * À appeler après avoir ajouté/déplacé des obstacles sur une route : seul son sous-graphe est régénéré.
+     */
+    public void updateObstacles(Road road) {
+        if (!junctionsByRoad.containsKey(road)) return;
+        detachRoad(road);
+        attachRoad(road);
+    }
+
+    /**
+     * Pose un obstacle : seul le nœud recouvert est isolé (graphe local et global), et seuls les véhicules
+     * dont le chemin restant passe par ce nœud sont invités à replanifier.
+     */
+    public void addObstacle(Road road, Lane lane, Obstacle obstacle) {
+        lane.addObstacle(obstacle);
+        obstacleNodesChanged(road, List.of(obstacle.getPosition().snapToGrid(SEGMENT_LENGTH)));
+    }
+
+    public void moveObstacle(Road road, Obstacle obstacle, Position newPosition) {
+        Position before = obstacle.getPosition().snapToGrid(SEGMENT_LENGTH);
+        obstacle.setPosition(newPosition);
+        obstacleNodesChanged(road, List.of(before, newPosition.snapToGrid(SEGMENT_LENGTH)));
+    }
+
+    public boolean removeObstacle(Road road, Lane lane, Obstacle obstacle) {
+        if (!lane.removeObstacle(obstacle)) return false;
+        obstacleNodesChanged(road, List.of(obstacle.getPosition().snapToGrid(SEGMENT_LENGTH)));
+        return true;
+    }
+
+    public RouteIndex<Vehicle> getRouteIndex() {
+        return routeIndex;
+    }
+
+    private void obstacleNodesChanged(Road road, List<Position> nodes) {
+        Graph localGraph = road.getGraph();
+        if (localGraph == null) return; // pris en compte à la génération du graphe
+
+        boolean attached = junctionsByRoad.containsKey(road);
+        if (attached) {
+            // Arêtes que la route apportait à ces nœuds avant le changement
+            for (Position position : nodes) {
+                GraphNode node = localGraph.getNode(position);
+                if (node == null) continue;
+                for (GraphNode neighbor : new ArrayList<>(node.getNeighbors().keySet())) {
+                    globalGraph.disconnect(position, neighbor.getPosition());
+                }
             }
+        }
+
+        road.refreshObstacleNodes(nodes);
+
+        if (attached) {
+            // Chaque route qui porte ces nœuds (celle-ci comprise) remet ses arêtes et ses jonctions
+            for (Position position : nodes) {
+                relink(position);
+                if (!road.isObstructed(position) && landmarkObstructedNodes.contains(position)) {
+                    landmarkIndex = null; // arêtes absentes au calcul des repères : les bornes pourraient surestimer
+                }
+            }
+            globalGraph.markModified();
+        }
+
+        for (Position position : nodes) {
+            if (!road.isObstructed(position)) continue;
+            List<Vehicle> affected = routeIndex.routesThrough(position);
+            if (affected.isEmpty()) continue;
+            System.out.println("🚧 Obstacle en " + position + " : " + affected.size() + " véhicule(s) à replanifier");
+            for (Vehicle vehicle : affected) {
+                vehicle.onRouteBlocked(position);
+            }
+        }
+    }
 
-            // Intégrer les connexions (bonds locaux)
+    private void attachRoad(Road road) {
+        hierarchicalRouter = null;
+        structuralVersion++;
+        road.initGraphForPathfinding(); // chaque route initialise son graphe local
+        Graph localGraph = road.getGraph();
+
+        // Intégrer les noeuds dans le graphe global
+        for (GraphNode node : localGraph.getAllNodes()) {
+            globalGraph.getOrCreateNode(node.getPosition());
+            acquire(node.getPosition(), road);
+        }
+
+        // Intégrer les connexions (bonds locaux) ; le graphe local est symétrique
+        for (GraphNode node : localGraph.getAllNodes()) {
+            copyLocalEdges(node);
+        }
+        // Sur un nœud partagé, une arête locale ne doit pas écraser une jonction déjà posée
+        for (GraphNode node : localGraph.getAllNodes()) {
+            List<Road> owners = roadsAt(node.getPosition());
+            if (owners.size() > 1) {
+                relinkJunctions(new LinkedHashSet<>(owners), node.getPosition());
+            }
+        }
+
+        linkJunctions(road);
+        globalGraph.markModified();
+    }
+
+    // 🔁 Connexion avec les routes voisines via l'index spatial des entryPoints
+    private void linkJunctions(Road road) {
+        List<Junction> junctions = junctionsByRoad.computeIfAbsent(road, r -> new ArrayList<>());
+        for (Position entry : road.getEntryPoints()) {
+            for (EntryPoint other : entryIndex.queryRadius(entry.getX(), entry.getY(), JUNCTION_RADIUS)) {
+                if (other.road() == road) continue;
+                Junction junction = new Junction(road, entry.snapToGrid(SEGMENT_LENGTH),
+                        other.road(), other.position().snapToGrid(SEGMENT_LENGTH));
+                linkJunction(junction);
+                junctions.add(junction);
+                junctionsByRoad.get(other.road()).add(junction);
+            }
+        }
+        for (Position entry : road.getEntryPoints()) {
+            entryIndex.insert(entry.getX(), entry.getY(), new EntryPoint(road, entry));
+        }
+    }
+
+    private void detachRoad(Road road) {
+        hierarchicalRouter = null;
+        structuralVersion++;
+        Set<Position> affected = new LinkedHashSet<>();
+
+        // 1. Jonctions de la route
+        List<Junction> junctions = junctionsByRoad.remove(road);
+        if (junctions != null) {
+            for (Junction junction : junctions) {
+                Road other = junction.roadA() == road ? junction.roadB() : junction.roadA();
+                List<Junction> otherJunctions = junctionsByRoad.get(other);
+                if (otherJunctions != null) otherJunctions.remove(junction);
+
+                globalGraph.disconnect(junction.a(), junction.b());
+                affected.add(junction.a());
+                affected.add(junction.b());
+            }
+        }
+
+        // 2. Arêtes locales de la route
+        Graph localGraph = road.getGraph();
+        if (localGraph != null) {
             for (GraphNode node : localGraph.getAllNodes()) {
                 GraphNode globalNode = globalGraph.getNode(node.getPosition());
-                for (Map.Entry<GraphNode, Double> entry : node.getNeighbors().entrySet()) {
-                    globalGraph.connect(globalNode.getPosition(), entry.getKey().getPosition(), entry.getValue());
+                if (globalNode != null) {
+                    for (GraphNode neighbor : node.getNeighbors().keySet()) {
+                        GraphNode globalNeighbor = globalGraph.getNode(neighbor.getPosition());
+                        if (globalNeighbor != null) globalNode.getNeighbors().remove(globalNeighbor);
+                    }
                 }
+                affected.add(node.getPosition());
             }
         }
 
-        // 🔁 Connexion entre routes via leurs entryPoints
-        for (int i = 0; i < roads.size(); i++) {
-            Road roadA = roads.get(i);
-            for (int j = i + 1; j < roads.size(); j++) {
-                Road roadB = roads.get(j);
+        // 3. Libération des nœuds (supprimés quand plus aucune route ne les porte)
+        if (localGraph != null) {
+            for (GraphNode node : localGraph.getAllNodes()) {
+                release(node.getPosition(), road);
+            }
+        }
+        if (junctions != null) {
+            for (Junction junction : junctions) {
+                releaseJunction(junction);
+            }
+        }
 
-                for (Position endA : roadA.getEntryPoints()) {
-                    for (Position startB : roadB.getEntryPoints()) {
-                        if (endA.distanceTo(startB) < 15.0) {
-                            globalGraph.connect(endA.snapToGrid(segmentLength), startB.snapToGrid(segmentLength), 5);
-                        }
-                    }
+        for (Position entry : road.getEntryPoints()) {
+            entryIndex.remove(entry.getX(), entry.getY(), new EntryPoint(road, entry));
+        }
+
+        // 4. Les routes qui partagent ces nœuds retrouvent leurs arêtes
+        for (Position position : affected) {
+            relink(position);
+        }
+        globalGraph.markModified();
+    }
+
+    private void copyLocalEdges(GraphNode localNode) {
+        GraphNode globalNode = globalGraph.getNode(localNode.getPosition());
+        for (Map.Entry<GraphNode, Double> entry : localNode.getNeighbors().entrySet()) {
+            globalNode.addNeighbor(globalGraph.getNode(entry.getKey().getPosition()), entry.getValue());
+        }
+    }
+
+    // Arêtes locales de toutes les routes du nœud d'abord, puis les jonctions (comme buildGlobalGraphParallel) :
+    // le résultat ne dépend pas de l'ordre des routes
+    private void relink(Position position) {
+        Set<Road> owners = new LinkedHashSet<>(roadsAt(position));
+        for (Road owner : owners) {
+            Graph localGraph = owner.getGraph();
+            GraphNode localNode = localGraph != null ? localGraph.getNode(position) : null;
+            if (localNode == null) continue;
+            for (Map.Entry<GraphNode, Double> entry : localNode.getNeighbors().entrySet()) {
+                globalGraph.connect(position, entry.getKey().getPosition(), entry.getValue());
+            }
+        }
+        relinkJunctions(owners, position);
+    }
+
+    private void relinkJunctions(Collection<Road> owners, Position position) {
+        for (Road owner : owners) {
+            for (Junction junction : junctionsByRoad.getOrDefault(owner, List.of())) {
+                if (junction.a().equals(position) || junction.b().equals(position)) {
+                    globalGraph.connect(junction.a(), junction.b(), JUNCTION_COST);
                 }
             }
         }
+    }
 
-        System.out.println("🌐 Graphe GLOBAL construit avec " + globalGraph.getAllNodes().size() + " nœuds.");
+    private void linkJunction(Junction junction) {
+        globalGraph.connect(junction.a(), junction.b(), JUNCTION_COST);
+        acquire(junction.a(), junction.roadA());
+        acquire(junction.a(), junction.roadB());
+        acquire(junction.b(), junction.roadA());
+        acquire(junction.b(), junction.roadB());
+    }
+
+    private void releaseJunction(Junction junction) {
+        release(junction.a(), junction.roadA());
+        release(junction.a(), junction.roadB());
+        release(junction.b(), junction.roadA());
+        release(junction.b(), junction.roadB());
+    }
+
+    // Le nœud doit déjà exister dans le graphe global
+    private void acquire(Position position, Road road) {
+        int id = globalGraph.getNode(position).getId();
+        while (nodeOwners.size() <= id) {
+            nodeOwners.add(null);
+        }
+        List<Road> owners = nodeOwners.get(id);
+        if (owners == null) {
+            owners = new ArrayList<>(1);
+            nodeOwners.set(id, owners);
+        }
+        owners.add(road);
+    }
+
+    private void release(Position position, Road road) {
+        GraphNode node = globalGraph.getNode(position);
+        if (node == null || node.getId() >= nodeOwners.size()) return;
+        List<Road> owners = nodeOwners.get(node.getId());
+        if (owners == null) return;
+        owners.remove(road);
+        if (owners.isEmpty()) {
+            nodeOwners.set(node.getId(), null);
+            globalGraph.removeNode(position);
+        }
+    }
+
+    // Jonctions de la route dans le graphe global (liste vide si la route n'y est pas)
+    List<Junction> junctionsOf(Road road) {
+        return List.copyOf(junctionsByRoad.getOrDefault(road, List.of()));
+    }
+
+    // Routes qui portent le nœud global à cette position (liste vide si aucun)
+    List<Road> roadsAt(Position position) {
+        GraphNode node = globalGraph.getNode(position);
+        if (node == null || node.getId() >= nodeOwners.size()) return List.of();
+        List<Road> owners = nodeOwners.get(node.getId());
+        return owners != null ? owners : List.of();
+    }
+
+    /**
+     * Limite le nombre de plans (et/ou le temps en µs) exécutés par tick ; <= 0 pour ne pas limiter.
+     */
+    public void enablePlanningBudget(int maxPlansPerTick, long maxMicrosPerTick) {
+        if (planningScheduler == null) {
+            planningScheduler = new PlanningScheduler(maxPlansPerTick, maxMicrosPerTick);
+        } else {
+            planningScheduler.setBudget(maxPlansPerTick, maxMicrosPerTick);
+        }
+    }
+
+    public PlanningScheduler getPlanningScheduler() {
+        return planningScheduler;
+    }
+
+    /**
+     * Active le calcul asynchrone des itinéraires sur threads threads ; les chemins sont installés à endTick().
+     * Ne pas modifier le graphe (addRoad, removeRoad, updateObstacles) pendant un tick dans ce mode.
+     */
+    public void enableAsyncPlanning(int threads) {
+        if (asyncRoutePlanner != null) {
+            asyncRoutePlanner.close();
+        }
+        asyncRoutePlanner = new AsyncRoutePlanner(threads);
+    }
+
+    public void disableAsyncPlanning() {
+        if (asyncRoutePlanner != null) {
+            asyncRoutePlanner.installCompleted();
+            asyncRoutePlanner.close();
+            asyncRoutePlanner = null;
+        }
+    }
+
+    public AsyncRoutePlanner getAsyncRoutePlanner() {
+        return asyncRoutePlanner;
+    }
+
+    /**
+     * Les véhicules déposent leurs demandes d'itinéraire, résolues ensemble à endTick() : une recherche par
+     * départ distinct au lieu d'une par véhicule. Prioritaire sur le calcul asynchrone.
+     */
+    public void enableRouteBatching() {
+        if (routeBatcher == null) {
+            routeBatcher = new RouteBatcher();
+        }
+    }
+
+    public void disableRouteBatching() {
+        if (routeBatcher != null) {
+            routeBatcher.flush();
+            routeBatcher = null;
+        }
+    }
+
+    public RouteBatcher getRouteBatcher() {
+        return routeBatcher;
+    }
+
+    /**
+     * Frontière de tick : à appeler une fois que tous les véhicules ont fait leur cycle BDI.
+     */
+    public void endTick() {
+        if (planningScheduler != null) {
+            planningScheduler.runTick();
+        }
+        if (routeBatcher != null) {
+            routeBatcher.flush();
+        }
+        if (asyncRoutePlanner != null) {
+            asyncRoutePlanner.installCompleted();
+        }
+        refreshAllPairsTable();
+    }
+
+    /**
+     * Active A* avec repères sur le graphe global ; le prétraitement coûte landmarkCount Dijkstra complets
+     * et est refait à la première requête qui suit l'ajout ou le retrait d'une route (ou la libération d'un
+     * nœud qui était sous un obstacle lors du calcul). Poser un obstacle ne le déclenche pas.
+     */
+    public void enableLandmarkRouting(int landmarkCount) {
+        this.landmarkCount = landmarkCount;
+        this.landmarkIndex = null;
+    }
+
+    /**
+     * @return l'index de repères à jour, ou null si le routage ALT n'est pas activé
+     */
+    public LandmarkIndex getLandmarkIndex() {
+        if (landmarkCount <= 0) return null;
+        if (landmarkIndex == null || landmarkStructuralVersion != structuralVersion) {
+            long start = System.currentTimeMillis();
+            landmarkIndex = LandmarkIndex.build(globalGraph, landmarkCount);
+            landmarkStructuralVersion = structuralVersion;
+            landmarkObstructedNodes = obstructedNodes();
+            System.out.println("🧭 " + landmarkIndex + " calculé en " + (System.currentTimeMillis() - start) + " ms");
+        }
+        return landmarkIndex;
+    }
+
+    // Nœuds de la grille sous un obstacle, sur les routes greffées au graphe global
+    private Set<Position> obstructedNodes() {
+        Set<Position> obstructed = new HashSet<>();
+        for (Road road : junctionsByRoad.keySet()) {
+            for (Lane lane : road.getLanes()) {
+                for (Obstacle obstacle : lane.getObstacles()) {
+                    obstructed.add(obstacle.getPosition().snapToGrid(SEGMENT_LENGTH));
+                }
+            }
+        }
+        return obstructed;
+    }
+
+    /**
+     * Active les tables de plus courts chemins toutes paires sur le graphe global, tant qu'elles tiennent dans
+     * memoryBudgetBytes ; au-delà, les véhicules reviennent à la recherche à la demande.
+     * Les tables sont calculées en arrière-plan (lancé ici puis à endTick() après chaque modification du graphe) :
+     * tant qu'elles ne sont pas prêtes pour la version courante, les véhicules utilisent la recherche habituelle.
+     */
+    public void enableAllPairsRouting(long memoryBudgetBytes) {
+        this.allPairsBudgetBytes = memoryBudgetBytes;
+        this.allPairsTable = null;
+        refreshAllPairsTable();
+    }
+
+    public void enableAllPairsRouting() {
+        enableAllPairsRouting(DEFAULT_ALL_PAIRS_BUDGET_BYTES);
+    }
+
+    /**
+     * @return les tables de la version courante du graphe, ou null (mode désactivé, graphe hors budget, ou
+     * tables en cours de calcul) : ne calcule jamais rien sur le thread appelant
+     */
+    public AllPairsTable getAllPairsTable() {
+        AllPairsTable table = allPairsTable;
+        return table != null && table.isValidFor(globalGraph) ? table : null;
+    }
+
+    // Frontière de tick : récupère un calcul terminé, en relance un si le graphe a changé depuis
+    private void refreshAllPairsTable() {
+        if (allPairsBuild != null && allPairsBuild.isDone()) {
+            AllPairsTable built = allPairsBuild.join();
+            allPairsBuild = null;
+            if (allPairsBudgetBytes > 0) {
+                allPairsTable = built;
+                System.out.println("🗺️ " + built + " calculé en " + (System.currentTimeMillis() - allPairsBuildStart)
+                        + " ms (arrière-plan)");
+            }
+        }
+        if (allPairsBudgetBytes <= 0 || !AllPairsTable.fits(globalGraph, allPairsBudgetBytes)) {
+            allPairsTable = null;
+            return;
+        }
+        if (allPairsBuild == null && (allPairsTable == null || !allPairsTable.isValidFor(globalGraph))) {
+            allPairsTable = null; // libère l'ancienne table avant d'allouer la nouvelle
+            allPairsBuildStart = System.currentTimeMillis();
+            allPairsBuild = AllPairsTable.buildAsync(globalGraph); // copie des arêtes ici, calcul ailleurs
+        }
+    }
+
+    /** Attend la fin du calcul des tables toutes paires en cours (démarrage d'un scénario, tests). */
+    public AllPairsTable awaitAllPairsTable() {
+        if (allPairsBuild != null) {
+            allPairsBuild.join();
+        }
+        refreshAllPairsTable();
+        return getAllPairsTable();
+    }
+
+    public void setHierarchicalRouting(boolean enabled) {
+        this.hierarchicalRouting = enabled;
+    }
+
+    public boolean isHierarchicalRouting() {
+        return hierarchicalRouting;
+    }
+
+    public HierarchicalRouter getHierarchicalRouter() {
+        if (hierarchicalRouter == null) {
+            hierarchicalRouter = new HierarchicalRouter(roads, junctionsByRoad, this::roadsAt);
+        }
+        return hierarchicalRouter;
+    }
+
+    /**
+     * Politiques des feux au démarrage : reprises du fichier s'il existe ; les feux absents du fichier (ou dont le
+     * modèle a changé) sont entraînés hors ligne, puis le fichier est réécrit.
+     */
+    public void prepareSignalPolicies(Path file, long stepsPerLight, long seed) throws IOException {
+        List<TrafficLight> toTrain = Files.exists(file) ? loadSignalPolicies(file) : getAllTrafficLights();
+        if (!toTrain.isEmpty()) {
+            trainSignalPolicies(toTrain, stepsPerLight, seed);
+            saveSignalPolicies(file);
+        }
+    }
+
+    public void prepareSignalPolicies(Path file) throws IOException {
+        prepareSignalPolicies(file, SignalPolicyTrainer.DEFAULT_STEPS_PER_LIGHT, SignalPolicyTrainer.DEFAULT_SEED);
+    }
+
+    /** @return les feux dont la politique n'a pas pu être reprise du fichier */
+    public List<TrafficLight> loadSignalPolicies(Path file) throws IOException {
+        long start = System.currentTimeMillis();
+        Map<String, TrafficLight.LearnedPolicy> stored = PolicyStore.load(file);
+        List<TrafficLight> missing = new ArrayList<>();
+        int loaded = 0;
+        for (Road road : roads) {
+            for (TrafficLight light : road.getTrafficLights()) {
+                TrafficLight.LearnedPolicy learned = stored.get(PolicyStore.key(road, light));
+                if (learned != null && light.setLearnedPolicy(learned)) {
+                    loaded++;
+                } else {
+                    missing.add(light);
+                }
+            }
+        }
+        System.out.println("💾 " + loaded + " politiques de feux chargées en " + (System.currentTimeMillis() - start)
+                + " ms (" + missing.size() + " à entraîner)");
+        return missing;
+    }
+
+    public SignalPolicyTrainer.Stats trainSignalPolicies(List<TrafficLight> lights, long stepsPerLight, long seed) {
+        SignalPolicyTrainer.Stats stats = SignalPolicyTrainer.train(lights, stepsPerLight, seed);
+        System.out.println("🎓 " + stats);
+        return stats;
+    }
+
+    public void saveSignalPolicies(Path file) throws IOException {
+        Map<String, TrafficLight.LearnedPolicy> policies = new LinkedHashMap<>();
+        for (Road road : roads) {
+            for (TrafficLight light : road.getTrafficLights()) {
+                light.updatePolicy();
+                policies.put(PolicyStore.key(road, light), light.getLearnedPolicy());
+            }
+        }
+        PolicyStore.save(file, policies);
+        System.out.println("💾 " + policies.size() + " politiques de feux sauvegardées dans " + file);
+    }
+
+    /**
+     * Renseigne les mouvements des feux de controller pour le max-pressure : amont = voies de la route qui mènent au
+     * feu (Road.getApproachingLanes()), aval = voies des routes raccordées (jonctions) à la position du feu.
+     * À rappeler si des jonctions sont ajoutées ensuite.
+     */
+    public void configureMaxPressure(MaxPressureController controller) {
+        Map<TrafficLight, Road> roadByLight = new IdentityHashMap<>();
+        for (Road road : roads) {
+            for (TrafficLight light : road.getTrafficLights()) {
+                roadByLight.putIfAbsent(light, road);
+            }
+        }
+        for (int i = 0; i < controller.getLightCount(); i++) {
+            TrafficLight light = controller.getLight(i);
+            Road road = roadByLight.get(light);
+            if (road != null) {
+                controller.setMovement(light, road.getApproachingLanes(light), downstreamLanes(road, light));
+            }
+        }
+    }
+
+    // Même chose pour le contrôleur de chaque route (Road.SignalPolicy.MAX_PRESSURE), qui garde ses voies aval
+    // quand des voies ou des feux sont ajoutés à la route
+    public void configureMaxPressure() {
+        for (Road road : roads) {
+            for (TrafficLight light : road.getTrafficLights()) {
+                road.setDownstreamLanes(light, downstreamLanes(road, light));
+            }
+        }
+    }
+
+    private List<Lane> downstreamLanes(Road road, TrafficLight light) {
+        Position lightPosition = road.getTrafficLightPosition(light);
+        if (lightPosition == null) return List.of();
+        Position point = lightPosition.snapToGrid(SEGMENT_LENGTH);
+        List<Lane> downstream = new ArrayList<>();
+        for (Junction junction : junctionsByRoad.getOrDefault(road, List.of())) {
+            Road other = null;
+            if (junction.roadA() == road && junction.a().equals(point)) other = junction.roadB();
+            else if (junction.roadB() == road && junction.b().equals(point)) other = junction.roadA();
+            if (other == null || other == road) continue;
+            for (Lane lane : other.getLanes()) {
+                if (!downstream.contains(lane)) downstream.add(lane);
+            }
+        }
+        return downstream;
+    }
+
+    /**
+     * Q-learning déporté pour tous les feux : une mémoire de transitions partagée et une table Q commune, apprise
+     * par mini-lots sur un thread dédié (workers tâches par mini-lot).
+     */
+    public ReplayLearner enableReplayLearning(int capacity, int batchSize, int workers) {
+        disableReplayLearning();
+        replayLearner = new ReplayLearner(new ExperienceReplay(capacity), batchSize, 0.1, 0.9, workers);
+        for (TrafficLight light : getAllTrafficLights()) {
+            light.attachLearner(replayLearner);
+        }
+        replayLearner.start();
+        return replayLearner;
+    }
+
+    public void disableReplayLearning() {
+        if (replayLearner == null) return;
+        replayLearner.close();
+        for (TrafficLight light : getAllTrafficLights()) {
+            light.detachLearner();
+        }
+        System.out.println("🧠 " + replayLearner);
+        replayLearner = null;
+    }
+
+    public ReplayLearner getReplayLearner() {
+        return replayLearner;
+    }
+
+    /** Chaque feu apprend son modèle de transition du trafic observé (voir TransitionEstimator). */
+    public void enableTransitionLearning(int publishInterval) {
+        for (TrafficLight light : getAllTrafficLights()) {
+            light.enableTransitionLearning(publishInterval);
+        }
+    }
+
+    public List<TrafficLight> getAllTrafficLights() {
+        List<TrafficLight> lights = new ArrayList<>();
+        for (Road road : roads) {
+            lights.addAll(road.getTrafficLights());
+        }
+        return lights;
     }
 
     public Graph getGlobalGraph() {
@@ -0,0 +1,90 @@
+package org.example.environment;
+
+import java.lang.invoke.VarHandle;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+Mémoire de transitions (état, case d'action, récompense, état suivant) partagée par les feux, en tableaux
+primitifs circulaires : les plus anciennes transitions sont écrasées une fois la capacité atteinte.
+L'écriture ne bloque jamais (un compteur atomique attribue les cases) ; chaque case porte un tampon, négatif
+pendant l'écriture, qui permet au lecteur (ReplayLearner, sur un autre thread) d'ignorer une case en cours de
+réécriture au lieu d'attendre.
+ */
+public final class ExperienceReplay {
+
+    private final int mask;
+    private final int[] states;
+    private final byte[] slots;
+    private final double[] rewards;
+    private final int[] nextStates;
+    private final AtomicLongArray stamps; // 0 : jamais écrite, -1 : écriture en cours, sinon numéro d'écriture + 1
+    private final AtomicLong written = new AtomicLong();
+
+    public ExperienceReplay(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacité invalide : " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1; // puissance de 2 >= capacity
+        if (capacity == 1) size = 1;
+        this.mask = size - 1;
+        this.states = new int[size];
+        this.slots = new byte[size];
+        this.rewards = new double[size];
+        this.nextStates = new int[size];
+        this.stamps = new AtomicLongArray(size);
+    }
+
+    public void add(int state, int slot, double reward, int nextState) {
+        long sequence = written.getAndIncrement();
+        int index = (int) (sequence & mask);
+        stamps.set(index, -1);
+        VarHandle.storeStoreFence();
+        states[index] = state;
+        slots[index] = (byte) slot;
+        rewards[index] = reward;
+        nextStates[index] = nextState;
+        stamps.set(index, sequence + 1);
+    }
+
+    /**
+     * Tire jusqu'à count transitions au hasard (avec remise) dans les cases déjà écrites, rangées à partir de 0 dans
+     * les tableaux de sortie. Renvoie le nombre de transitions tirées (les cases en cours d'écriture sont sautées).
+     */
+    public int sample(SplittableRandom random, int count, int[] outStates, int[] outSlots, double[] outRewards,
+                      int[] outNextStates) {
+        long available = Math.min(written.get(), (long) mask + 1);
+        if (available == 0) return 0;
+        int filled = 0;
+        for (int i = 0; i < count; i++) {
+            int index = random.nextInt((int) available);
+            long before = stamps.get(index);
+            if (before <= 0) continue;
+            int state = states[index];
+            int slot = slots[index];
+            double reward = rewards[index];
+            int nextState = nextStates[index];
+            VarHandle.loadLoadFence();
+            if (stamps.get(index) != before) continue;
+            outStates[filled] = state;
+            outSlots[filled] = slot;
+            outRewards[filled] = reward;
+            outNextStates[filled] = nextState;
+            filled++;
+        }
+        return filled;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long size() {
+        return Math.min(written.get(), (long) mask + 1);
+    }
+}
@@ -0,0 +1,320 @@
+package org.example.environment;
+
+import org.example.agent.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/*
+Recherche d'une "onde verte" le long d'un corridor de feux (distances croissantes depuis l'entrée du corridor,
+dans le sens de circulation) : pour un cycle commun, un décalage et une durée de vert par feu.
+
+Chaque plan candidat est évalué par une courte simulation sans affichage du corridor : arrivées aléatoires mais
+identiques pour tous les candidats (même graine), véhicules à vitesse constante, espacement minimal VEHICLE_GAP,
+arrêt à la ligne du feu quand il n'est pas vert. Le score est le retard total (ticks perdus par rapport à la
+vitesse libre, attente d'entrée comprise). Ce retard ne fait que croître pendant la simulation : un candidat est
+abandonné dès qu'il dépasse le meilleur score connu (élagage), ce qui coupe court à la plupart des évaluations.
+
+La recherche part de l'onde verte théorique (décalage = temps de parcours jusqu'au feu), puis améliore feu par feu
+(tous les décalages et partages du feu, évalués en parallèle, les autres feux fixés) jusqu'à stabilité, pour
+chaque cycle essayé.
+ */
+public class GreenWaveOptimizer {
+
+    public record Plan(int cycle, int[] offsets, int[] greenTicks, double delayPerVehicle) {
+        @Override
+        public String toString() {
+            return String.format("cycle %d ticks, décalages %s, verts %s : %.2f ticks de retard par véhicule",
+                    cycle, Arrays.toString(offsets), Arrays.toString(greenTicks), delayPerVehicle);
+        }
+    }
+
+    public record Stats(long evaluations, long pruned, long elapsedMs) {
+        @Override
+        public String toString() {
+            return String.format("%d simulations dont %d élaguées, %d ms", evaluations, pruned, elapsedMs);
+        }
+    }
+
+    private static final double VEHICLE_GAP = 7.0;
+    private static final double EXIT_DISTANCE = 20.0;
+    private static final double[] SPLITS = {0.3, 0.4, 0.5, 0.6, 0.7}; // part de vert dans le cycle
+    private static final int OFFSET_STEPS = 20; // décalages essayés par cycle
+    private static final int MAX_ROUNDS = 4;
+
+    private final List<TrafficLight> lights;
+    private final double[] positions;
+    private final double speed;
+    private Road road; // route du corridor, passée en FIXED_TIME par apply()
+
+    private int[] cycles = {40, 60, 90};
+    private double arrivalRate = 0.1; // véhicules par tick (une voie en écoule au plus speed / VEHICLE_GAP)
+    private int horizon = 600;
+    private long seed = 42;
+
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong pruned = new AtomicLong();
+    private Stats lastStats;
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    /**
+     * @param positions distance de chaque feu depuis l'entrée du corridor, croissante
+     * @param speed     vitesse libre des véhicules (unités par tick)
+     */
+    public GreenWaveOptimizer(List<TrafficLight> lights, double[] positions, double speed) {
+        if (lights.isEmpty() || lights.size() != positions.length) {
+            throw new IllegalArgumentException("il faut une position par feu, et au moins un feu");
+        }
+        for (int i = 1; i < positions.length; i++) {
+            if (positions[i] < positions[i - 1]) {
+                throw new IllegalArgumentException("positions des feux non croissantes");
+            }
+        }
+        if (speed <= 0) {
+            throw new IllegalArgumentException("vitesse invalide : " + speed);
+        }
+        this.lights = List.copyOf(lights);
+        this.positions = positions.clone();
+        this.speed = speed;
+    }
+
+    /**
+     * Corridor formé par les feux d'une route, dans le sens de circulation de leurs voies (x croissants pour
+     * Lane.DIRECTION_RIGHT, décroissants pour Lane.DIRECTION_LEFT). Les positions sont mesurées depuis l'entrée de
+     * la route en amont du premier feu (à défaut, depuis le premier feu).
+     */
+    public static GreenWaveOptimizer forRoad(Road road, double speed) {
+        int sign = corridorSign(road);
+        List<TrafficLight> ordered = new ArrayList<>(road.getTrafficLights());
+        ordered.sort(Comparator.comparingInt(light -> sign * road.getTrafficLightPosition(light).getX()));
+        if (ordered.isEmpty()) {
+            throw new IllegalArgumentException("la route " + road.getId() + " n'a pas de feu");
+        }
+
+        double first = sign * road.getTrafficLightPosition(ordered.get(0)).getX();
+        double entry = Double.NEGATIVE_INFINITY;
+        for (Position point : road.getEntryPoints()) {
+            double along = sign * point.getX();
+            if (along <= first) entry = Math.max(entry, along);
+        }
+        double origin = entry == Double.NEGATIVE_INFINITY ? first : entry;
+        double[] positions = ordered.stream()
+                .mapToDouble(light -> sign * road.getTrafficLightPosition(light).getX() - origin)
+                .toArray();
+        GreenWaveOptimizer optimizer = new GreenWaveOptimizer(ordered, positions, speed);
+        optimizer.road = road;
+        return optimizer;
+    }
+
+    // +1 si les voies des feux vont vers les x croissants, -1 sinon ; les feux d'un corridor vont tous dans le même sens
+    private static int corridorSign(Road road) {
+        int sign = 0;
+        for (TrafficLight light : road.getTrafficLights()) {
+            for (Lane lane : road.getApproachingLanes(light)) {
+                int laneSign = lane.getDirection() == Lane.DIRECTION_LEFT ? -1 : 1;
+                if (sign != 0 && laneSign != sign) {
+                    throw new IllegalArgumentException("feux de sens opposés sur la route " + road.getId());
+                }
+                sign = laneSign;
+            }
+        }
+        return sign == 0 ? 1 : sign;
+    }
+
+    public GreenWaveOptimizer setCycles(int... cycles) {
+        this.cycles = cycles.clone();
+        return this;
+    }
+
+    public GreenWaveOptimizer setArrivalRate(double arrivalRate) {
+        this.arrivalRate = arrivalRate;
+        return this;
+    }
+
+    public GreenWaveOptimizer setHorizon(int horizon) {
+        this.horizon = horizon;
+        return this;
+    }
+
+    public GreenWaveOptimizer setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public Plan optimize() {
+        long start = System.currentTimeMillis();
+        evaluations.set(0);
+        pruned.set(0);
+        int[] arrivals = arrivalTicks();
+
+        Plan best = null;
+        for (int cycle : cycles) {
+            Plan plan = optimizeCycle(cycle, arrivals);
+            if (best == null || plan.delayPerVehicle() < best.delayPerVehicle()) {
+                best = plan;
+            }
+        }
+        lastStats = new Stats(evaluations.get(), pruned.get(), System.currentTimeMillis() - start);
+        System.out.println("🌊 Onde verte : " + best + " (" + lastStats + ")");
+        return best;
+    }
+
+    // Applique le plan aux feux (même tick pour tous, pour respecter les décalages)
+    public void apply(Plan plan) {
+        for (int i = 0; i < lights.size(); i++) {
+            lights.get(i).setFixedTimePlan(plan.cycle(), plan.greenTicks()[i], plan.offsets()[i]);
+        }
+        if (road != null) {
+            road.setSignalPolicy(Road.SignalPolicy.FIXED_TIME);
+        }
+    }
+
+    // Feux du corridor, dans l'ordre des décalages et verts des plans
+    public List<TrafficLight> getLights() {
+        return lights;
+    }
+
+    public double[] getPositions() {
+        return positions.clone();
+    }
+
+    public Stats getLastStats() {
+        return lastStats;
+    }
+
+    private Plan optimizeCycle(int cycle, int[] arrivals) {
+        int n = lights.size();
+        int[] offsets = new int[n];
+        int[] greens = new int[n];
+        for (int i = 0; i < n; i++) {
+            offsets[i] = Math.floorMod((int) Math.round(positions[i] / speed), cycle);
+            greens[i] = greenTicks(cycle, 0.5);
+        }
+        double best = simulate(cycle, offsets, greens, arrivals, Double.POSITIVE_INFINITY);
+
+        int step = Math.max(1, cycle / OFFSET_STEPS);
+        int offsetCount = (cycle + step - 1) / step;
+        int candidates = offsetCount * SPLITS.length;
+        double[] scores = new double[candidates];
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            boolean improved = false;
+            for (int i = 0; i < n; i++) {
+                final int light = i;
+                // Borne d'élagage partagée : les retards sont positifs, leurs bits se comparent comme des long
+                AtomicLong bound = new AtomicLong(Double.doubleToLongBits(best));
+                IntStream.range(0, candidates).parallel().forEach(c -> {
+                    int[] candidateOffsets = offsets.clone();
+                    int[] candidateGreens = greens.clone();
+                    candidateOffsets[light] = (c / SPLITS.length) * step;
+                    candidateGreens[light] = greenTicks(cycle, SPLITS[c % SPLITS.length]);
+                    double score = simulate(cycle, candidateOffsets, candidateGreens, arrivals,
+                            Double.longBitsToDouble(bound.get()));
+                    scores[c] = score;
+                    if (score < Double.POSITIVE_INFINITY) {
+                        bound.accumulateAndGet(Double.doubleToLongBits(score), Math::min);
+                    }
+                });
+
+                // Meilleur candidat strictement meilleur (le premier en cas d'égalité : résultat déterministe)
+                int bestCandidate = -1;
+                for (int c = 0; c < candidates; c++) {
+                    if (scores[c] < best) {
+                        best = scores[c];
+                        bestCandidate = c;
+                    }
+                }
+                if (bestCandidate >= 0) {
+                    offsets[i] = (bestCandidate / SPLITS.length) * step;
+                    greens[i] = greenTicks(cycle, SPLITS[bestCandidate % SPLITS.length]);
+                    improved = true;
+                }
+            }
+            if (!improved) break;
+        }
+        return new Plan(cycle, offsets, greens, best / Math.max(1, arrivals.length));
+    }
+
+    private static int greenTicks(int cycle, double split) {
+        return (int) Math.max(1, Math.min(cycle, Math.round(cycle * split)));
+    }
+
+    // Ticks d'arrivée des véhicules, communs à toutes les évaluations
+    private int[] arrivalTicks() {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] ticks = new int[horizon];
+        int count = 0;
+        for (int t = 0; t < horizon; t++) {
+            if (random.nextDouble() < arrivalRate) ticks[count++] = t;
+        }
+        return Arrays.copyOf(ticks, count);
+    }
+
+    /**
+     * Retard total du plan sur l'horizon, ou +infini dès qu'il dépasse bound.
+     * Les véhicules présents sur le corridor sont [head, tail) dans l'ordre (pas de dépassement).
+     */
+    private double simulate(int cycle, int[] offsets, int[] greens, int[] arrivals, double bound) {
+        evaluations.incrementAndGet();
+        Workspace workspace = workspaces.get();
+        workspace.ensureCapacity(arrivals.length);
+        double[] position = workspace.positions;
+        int[] nextLight = workspace.nextLight;
+
+        int n = positions.length;
+        double exit = positions[n - 1] + EXIT_DISTANCE;
+        int head = 0;
+        int tail = 0;
+        int arrived = 0;
+        double delay = 0.0;
+        for (int t = 0; t < horizon; t++) {
+            while (arrived < arrivals.length && arrivals[arrived] <= t) arrived++;
+            // Entrée d'un véhicule en attente si la place est libre
+            if (tail < arrived && (tail == head || position[tail - 1] >= VEHICLE_GAP)) {
+                position[tail] = 0.0;
+                nextLight[tail] = 0;
+                tail++;
+            }
+
+            for (int v = head; v < tail; v++) {
+                double limit = position[v] + speed;
+                if (v > head) limit = Math.min(limit, position[v - 1] - VEHICLE_GAP);
+                for (int k = nextLight[v]; k < n && positions[k] < limit; k++) {
+                    if (Math.floorMod(t - offsets[k], cycle) >= greens[k]) { // pas vert : arrêt à la ligne
+                        limit = positions[k];
+                        break;
+                    }
+                }
+                double newPosition = Math.max(position[v], limit);
+                delay += (speed - (newPosition - position[v])) / speed;
+                position[v] = newPosition;
+                while (nextLight[v] < n && positions[nextLight[v]] < newPosition) nextLight[v]++;
+            }
+            while (head < tail && position[head] >= exit) head++;
+
+            delay += arrived - tail; // véhicules bloqués à l'entrée
+            if (delay > bound) {
+                pruned.incrementAndGet();
+                return Double.POSITIVE_INFINITY;
+            }
+        }
+        return delay;
+    }
+
+    // Tableaux de simulation réutilisés par thread
+    private static final class Workspace {
+        double[] positions = new double[0];
+        int[] nextLight = new int[0];
+
+        void ensureCapacity(int vehicles) {
+            if (positions.length < vehicles) {
+                positions = new double[vehicles];
+                nextLight = new int[vehicles];
+            }
+        }
+    }
+}
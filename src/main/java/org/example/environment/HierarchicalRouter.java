@@ -0,0 +1,197 @@
+package org.example.environment;
+
+import org.example.agent.Position;
+import org.example.planning.DijkstraAlgorithm;
+import org.example.planning.Graph;
+import org.example.planning.GraphNode;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/*
+Two-level routing:
+ - a coarse graph whose nodes are roads and whose edges are the junctions found by Environment, used for the
+   long-range part of the route (cost grows with the number of junctions, not with meters of lane);
+ - a lane-level refinement with the existing per-road Graph, limited to the current road and the next one.
+The vehicle gets a path up to the exit of the next road and replans from there when it has consumed it.
+The merged graph of two roads is kept per junction and rebuilt only when one of the two road graphs changes.
+ */
+public class HierarchicalRouter {
+
+    private record Link(int target, Environment.Junction junction, double cost) {}
+
+    // Graphe local fusionné d'une jonction et versions des graphes de route dont il a été tiré
+    private record LocalGraph(Graph graph, long versionA, long versionB) {}
+
+    private final List<Road> roads;
+    private final Map<Road, Integer> indexOf = new HashMap<>();
+    private final List<List<Link>> links = new ArrayList<>();
+    private final Function<Position, List<Road>> roadsAt;
+    // Les recherches peuvent tourner sur l'exécuteur du planificateur asynchrone
+    private final Map<Environment.Junction, LocalGraph> localGraphs = new ConcurrentHashMap<>();
+
+    HierarchicalRouter(List<Road> roads, Map<Road, List<Environment.Junction>> junctionsByRoad,
+                       Function<Position, List<Road>> roadsAt) {
+        this.roads = new ArrayList<>(roads);
+        this.roadsAt = roadsAt;
+
+        for (int i = 0; i < this.roads.size(); i++) {
+            indexOf.put(this.roads.get(i), i);
+            links.add(new ArrayList<>());
+        }
+        for (int i = 0; i < this.roads.size(); i++) {
+            Road road = this.roads.get(i);
+            for (Environment.Junction junction : junctionsByRoad.getOrDefault(road, List.of())) {
+                Road other = junction.roadA() == road ? junction.roadB() : junction.roadA();
+                Integer target = indexOf.get(other);
+                if (target == null) continue;
+                // Coût approché : on traverse la moitié de chaque route + la jonction
+                double cost = (road.getLength() + other.getLength()) / 2 + Environment.JUNCTION_COST;
+                links.get(i).add(new Link(target, junction, cost));
+            }
+        }
+    }
+
+    public int getRoadCount() {
+        return roads.size();
+    }
+
+    /**
+     * Calcule le chemin fin (au niveau des voies) depuis start sur la route courante, jusqu'au but s'il est
+     * sur la route courante ou la suivante, sinon jusqu'à la sortie de la route suivante.
+     */
+    public List<Position> computePath(Road current, Position start, Position goal) {
+        Graph currentGraph = current.getGraph();
+        if (currentGraph == null || currentGraph.getNode(start) == null) {
+            return Collections.emptyList();
+        }
+        if (currentGraph.getNode(goal) != null) {
+            return DijkstraAlgorithm.computePathBidirectional(currentGraph, start, goal);
+        }
+
+        List<Link> route = roadRoute(current, goalRoads(goal));
+        if (route.isEmpty()) {
+            System.out.println("⚠️ Aucun itinéraire routier entre " + current.getId() + " et " + goal);
+            return Collections.emptyList();
+        }
+
+        Link entering = route.get(0);
+        Road next = roads.get(entering.target());
+        Position target = route.size() == 1
+                ? goal
+                : sideOf(route.get(1).junction(), next);
+
+        return DijkstraAlgorithm.computePathBidirectional(localGraph(entering.junction()), start, target);
+    }
+
+    /**
+     * Graphe des deux routes de la jonction, reliées par celle-ci. Réutilisé tant qu'aucun des deux graphes de
+     * route n'a changé (obstacle...) ; il n'est jamais modifié une fois publié, seulement remplacé.
+     */
+    private Graph localGraph(Environment.Junction junction) {
+        Graph graphA = junction.roadA().getGraph();
+        Graph graphB = junction.roadB().getGraph();
+        // Versions lues avant la fusion : une modification pendant celle-ci forcera une nouvelle fusion
+        long versionA = graphA == null ? -1 : graphA.getVersion();
+        long versionB = graphB == null ? -1 : graphB.getVersion();
+        LocalGraph cached = localGraphs.get(junction);
+        if (cached != null && cached.versionA() == versionA && cached.versionB() == versionB) {
+            return cached.graph();
+        }
+
+        Graph local = new Graph();
+        mergeInto(local, graphA);
+        mergeInto(local, graphB);
+        local.connect(junction.a(), junction.b(), Environment.JUNCTION_COST);
+        localGraphs.put(junction, new LocalGraph(local, versionA, versionB));
+        return local;
+    }
+
+    /**
+     * Séquence de routes (départ inclus) menant à une route qui contient le but.
+     */
+    public List<Road> getRoadSequence(Road from, Position goal) {
+        List<Link> route = roadRoute(from, goalRoads(goal));
+        if (route.isEmpty()) return Collections.emptyList();
+        List<Road> sequence = new ArrayList<>();
+        sequence.add(from);
+        for (Link link : route) {
+            sequence.add(roads.get(link.target()));
+        }
+        return sequence;
+    }
+
+    /**
+     * Dijkstra sur le graphe grossier (routes/jonctions). Renvoie les liens empruntés depuis la route de
+     * départ, ou une liste vide si aucune route but n'est atteignable.
+     */
+    private List<Link> roadRoute(Road from, Set<Road> goals) {
+        Integer source = indexOf.get(from);
+        if (source == null || goals.isEmpty()) return Collections.emptyList();
+
+        int n = roads.size();
+        double[] dist = new double[n];
+        Link[] via = new Link[n];
+        int[] prev = new int[n];
+        boolean[] settled = new boolean[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(prev, -1);
+        dist[source] = 0.0;
+
+        PriorityQueue<double[]> queue = new PriorityQueue<>(Comparator.comparingDouble(e -> e[0]));
+        queue.add(new double[]{0.0, source});
+
+        int reached = -1;
+        while (!queue.isEmpty()) {
+            int current = (int) queue.poll()[1];
+            if (settled[current]) continue;
+            settled[current] = true;
+            if (current != source && goals.contains(roads.get(current))) {
+                reached = current;
+                break;
+            }
+            for (Link link : links.get(current)) {
+                double alt = dist[current] + link.cost();
+                if (alt < dist[link.target()]) {
+                    dist[link.target()] = alt;
+                    prev[link.target()] = current;
+                    via[link.target()] = link;
+                    queue.add(new double[]{alt, link.target()});
+                }
+            }
+        }
+        if (reached == -1) return Collections.emptyList();
+
+        List<Link> route = new ArrayList<>();
+        for (int at = reached; at != source; at = prev[at]) {
+            route.add(via[at]);
+        }
+        Collections.reverse(route);
+        return route;
+    }
+
+    private Set<Road> goalRoads(Position goal) {
+        Set<Road> result = new HashSet<>();
+        for (Road road : roadsAt.apply(goal)) {
+            if (road.getGraph() != null && road.getGraph().getNode(goal) != null) {
+                result.add(road);
+            }
+        }
+        return result;
+    }
+
+    private static Position sideOf(Environment.Junction junction, Road road) {
+        return junction.roadA() == road ? junction.a() : junction.b();
+    }
+
+    private static void mergeInto(Graph target, Graph source) {
+        if (source == null) return;
+        for (GraphNode node : source.getAllNodes()) {
+            target.getOrCreateNode(node.getPosition());
+            for (Map.Entry<GraphNode, Double> e : node.getNeighbors().entrySet()) {
+                target.connect(node.getPosition(), e.getKey().getPosition(), e.getValue());
+            }
+        }
+    }
+}
@@ -7,62 +7,115 @@ import org.example.environment.TrafficLight.LightColor;
 import org.example.environment.TrafficLight.TrafficLevel;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
+/*
+Le plan de phases (PhasePlan) est traduit à la construction en indices de feux : pour chaque phase, la liste des
+feux servis et leur masque (bitset sur les indices) ; pour chaque feu, le masque des feux en conflit avec lui.
+stepAll() ne fait ensuite que des calculs sur ces tableaux : O(phases x feux par phase), sans allocation ni
+recherche par id. Les feux du plan absents de l'intersection sont ignorés.
+ */
 public class IntersectionController {
 
+    // Choix de la phase : score des niveaux de trafic des feux (historique), ou pression des files (MaxPressureController)
+    public enum PhaseScoring { TRAFFIC_LEVEL, MAX_PRESSURE }
+
     private final List<TrafficLight> trafficLights;
-    private final Map<String, List<String>> conflictGroups; // Pour éviter les conflits de phases
+    private final PhasePlan plan;
+
+    private final TrafficLight[] lights;   // indice d'un feu = sa position dans trafficLights
+    private final int[][] phaseLights;     // [phase] -> indices des feux verts de la phase
+    private final long[][] phaseMasks;     // [phase] -> bitset des mêmes feux
+    private final long[][] conflictMasks;  // [feu] -> bitset des feux en conflit
+    private final long[] planMask;         // feux présents dans au moins une phase
+    private int activePhase = -1;
+    private final MaxPressureController maxPressure;
+    private PhaseScoring scoring = PhaseScoring.TRAFFIC_LEVEL;
 
     public IntersectionController(List<TrafficLight> lights) {
-        this.trafficLights = lights;
-        this.conflictGroups = defineConflictGroups();
+        this(lights, PhasePlan.defaultPlan());
     }
 
-    // Exemple : feux de gauche-droite en conflit avec ceux de haut-bas
-    private Map<String, List<String>> defineConflictGroups() {
-        Map<String, List<String>> map = new HashMap<>();
-        map.put("group1", List.of("TL1", "TL3")); // N-S
-        map.put("group2", List.of("TL2", "TL4")); // E-W
-        return map;
+    public IntersectionController(List<TrafficLight> lights, PhasePlan plan) {
+        this.trafficLights = lights;
+        this.plan = plan;
+        this.lights = lights.toArray(new TrafficLight[0]);
+        this.maxPressure = new MaxPressureController(lights);
+
+        Map<String, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < this.lights.length; i++) {
+            indexById.putIfAbsent(this.lights[i].getId(), i);
+        }
+        int words = (this.lights.length + 63) / 64;
+
+        int phaseCount = plan.getPhaseCount();
+        this.phaseLights = new int[phaseCount][];
+        this.phaseMasks = new long[phaseCount][words];
+        this.planMask = new long[words];
+        for (int p = 0; p < phaseCount; p++) {
+            phaseLights[p] = plan.getPhase(p).stream()
+                    .map(indexById::get)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            for (int i : phaseLights[p]) {
+                phaseMasks[p][i >>> 6] |= 1L << i;
+                planMask[i >>> 6] |= 1L << i;
+            }
+        }
+
+        this.conflictMasks = new long[this.lights.length][words];
+        for (int i = 0; i < this.lights.length; i++) {
+            for (int j = 0; j < this.lights.length; j++) {
+                if (isSet(planMask, i) && isSet(planMask, j)
+                        && plan.areInConflict(this.lights[i].getId(), this.lights[j].getId())) {
+                    conflictMasks[i][j >>> 6] |= 1L << j;
+                }
+            }
+        }
     }
 
     public void stepAll() {
-        Map<String, Double> groupScores = new HashMap<>();
-
-        // 1. Score chaque groupe de feux
-        for (Map.Entry<String, List<String>> group : conflictGroups.entrySet()) {
-            double groupScore = 0.0;
-            for (String id : group.getValue()) {
-                TrafficLight tl = findById(id);
-                if (tl != null) {
-                    groupScore += scoreTrafficLight(tl);
-                }
+        // 1. Score de chaque phase, 2. choix de la phase prioritaire
+        int bestPhase = scoring == PhaseScoring.MAX_PRESSURE
+                ? maxPressure.selectPhase(phaseLights, activePhase)
+                : selectByTrafficLevel();
+        if (bestPhase == -1) return;
+
+        // 3. Appliquer : phase prioritaire au vert, les autres feux du plan au rouge
+        activePhase = bestPhase;
+        long[] green = phaseMasks[bestPhase];
+        for (int w = 0; w < planMask.length; w++) {
+            long remaining = planMask[w];
+            while (remaining != 0) {
+                int i = (w << 6) + Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                lights[i].setState(isSet(green, i) ? LightColor.GREEN : LightColor.RED);
             }
-            groupScores.put(group.getKey(), groupScore);
         }
+    }
 
-        // 2. Choix du groupe prioritaire
-        String bestGroup = groupScores.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
-
-        if (bestGroup == null) return;
-
-        // 3. Appliquer actions : activer groupe prioritaire, bloquer les autres
-        for (Map.Entry<String, List<String>> group : conflictGroups.entrySet()) {
-            boolean activate = group.getKey().equals(bestGroup);
-            for (String id : group.getValue()) {
-                TrafficLight tl = findById(id);
-                if (tl != null) {
-                    if (activate) {
-                        tl.setState(LightColor.GREEN);
-                    } else {
-                        tl.setState(LightColor.RED);
-                    }
-                }
+    /** Avance toutes les intersections en parallèle (chacune ne touche qu'à ses propres feux). */
+    public static void stepAllParallel(List<IntersectionController> controllers) {
+        IntStream.range(0, controllers.size()).parallel().forEach(i -> controllers.get(i).stepAll());
+    }
+
+    // Première phase de score maximal
+    private int selectByTrafficLevel() {
+        int bestPhase = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int p = 0; p < phaseLights.length; p++) {
+            double phaseScore = 0.0;
+            for (int i : phaseLights[p]) {
+                phaseScore += scoreTrafficLight(lights[i]);
+            }
+            if (phaseScore > bestScore) {
+                bestScore = phaseScore;
+                bestPhase = p;
             }
         }
+        return bestPhase;
     }
 
     private double scoreTrafficLight(TrafficLight tl) {
@@ -74,11 +127,54 @@ public class IntersectionController {
         };
     }
 
-    private TrafficLight findById(String id) {
-        for (TrafficLight tl : trafficLights) {
-            if (tl.getId().equals(id)) return tl;
+    public boolean areInConflict(int lightIndex, int otherIndex) {
+        return isSet(conflictMasks[lightIndex], otherIndex);
+    }
+
+    // Vérification : aucun couple de feux en conflit n'est vert en même temps
+    public boolean hasConflictingGreens() {
+        for (int i = 0; i < lights.length; i++) {
+            if (lights[i].getState() != LightColor.GREEN) continue;
+            long[] conflicts = conflictMasks[i];
+            for (int w = 0; w < conflicts.length; w++) {
+                long remaining = conflicts[w];
+                while (remaining != 0) {
+                    int j = (w << 6) + Long.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+                    if (lights[j].getState() == LightColor.GREEN) return true;
+                }
+            }
         }
-        return null;
+        return false;
+    }
+
+    private static boolean isSet(long[] mask, int index) {
+        return (mask[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void setPhaseScoring(PhaseScoring scoring) {
+        this.scoring = scoring;
+    }
+
+    public PhaseScoring getPhaseScoring() {
+        return scoring;
+    }
+
+    // Mouvements (voies amont/aval) des feux, à renseigner pour PhaseScoring.MAX_PRESSURE
+    public MaxPressureController getMaxPressureController() {
+        return maxPressure;
+    }
+
+    public int getActivePhase() {
+        return activePhase;
+    }
+
+    public PhasePlan getPlan() {
+        return plan;
+    }
+
+    public List<TrafficLight> getTrafficLights() {
+        return trafficLights;
     }
 
     public void printStatus() {
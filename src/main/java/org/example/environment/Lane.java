@@ -10,6 +10,7 @@ import org.example.agent.Position;
 import org.example.agent.Vehicle;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -19,6 +20,7 @@ public class Lane {
     private final String id;
     private final double width;
     private final List<Vehicle> vehicles;
+    private final List<Vehicle> vehiclesView; // lecture seule, pour getVehicles()
     private final List<Obstacle> obstacles;
     private final double SAFE_DISTANCE = 10.0;
     private Road road;
@@ -33,6 +35,7 @@ public class Lane {
         this.centerY = centerY;
         this.direction = direction;
         this.vehicles = new ArrayList<>();
+        this.vehiclesView = Collections.unmodifiableList(vehicles);
         this.obstacles = new ArrayList<>();
         this.road = road;
     }
@@ -46,11 +49,20 @@ public class Lane {
             throw new IllegalStateException("Road " + id + " is at full capacity!");
         }
         vehicles.add(vehicle);
+        if (road != null) road.vehicleEntered(this, vehicle.getPosition());
+    }
+
+    // À appeler par le véhicule à chaque changement de position (tient à jour les zones de détection des feux)
+    public void vehicleMoved(Position from, Position to) {
+        if (road != null && !from.equals(to)) road.vehicleMoved(this, from, to);
     }
 
     public void addObstacle(Obstacle obstacle) {
         obstacles.add(obstacle);
     }
+    public boolean removeObstacle(Obstacle obstacle) {
+        return obstacles.remove(obstacle);
+    }
     public List<Obstacle> getObstacles() {
         return obstacles;
     }
@@ -136,8 +148,22 @@ public class Lane {
         return false;
     }
 
+    // Retire le véhicule de la simulation (son itinéraire n'est plus suivi par l'index des routes)
     public boolean removeVehicle(Vehicle vehicle) {
-        return vehicles.remove(vehicle);
+        boolean removed = detach(vehicle);
+        if (removed) vehicle.onRemoved();
+        return removed;
+    }
+
+    // Changement de voie : le véhicule reste dans la simulation avec le même itinéraire
+    public void transferVehicle(Vehicle vehicle, Lane target) {
+        if (detach(vehicle)) target.addVehicle(vehicle);
+    }
+
+    private boolean detach(Vehicle vehicle) {
+        boolean removed = vehicles.remove(vehicle);
+        if (removed && road != null) road.vehicleLeft(this, vehicle.getPosition());
+        return removed;
     }
 
     public void removeArrivedVehicles() {
@@ -146,6 +172,8 @@ public class Lane {
             Vehicle vehicle = iterator.next();
             if (vehicle.getBeliefs().contains("AtDestination", true)) {
                 iterator.remove();
+                if (road != null) road.vehicleLeft(this, vehicle.getPosition());
+                vehicle.onRemoved();
                 System.out.println("Vehicule " + vehicle + " a atteint sa destination et a ete retire");
             }
         }
@@ -167,6 +195,22 @@ public class Lane {
         return false;
     }
 
+    // Distance au plus proche obstacle devant le véhicule dans cette voie (Double.MAX_VALUE si aucun)
+    public double distanceToObstacleAhead(Vehicle vehicle) {
+        Position vehiclePos = vehicle.getPosition();
+        double closest = Double.MAX_VALUE;
+        for (Obstacle obstacle : obstacles) {
+            Position obsPos = obstacle.getPosition();
+            if (Math.abs(obsPos.getY() - vehiclePos.getY()) < 2) {
+                double distance = obsPos.getX() - vehiclePos.getX();
+                if (distance > 0 && distance < closest) {
+                    closest = distance;
+                }
+            }
+        }
+        return closest;
+    }
+
     public TrafficLight.LightColor checkState(Road road, String routeId) {
         List<TrafficLight> lights = road.getTrafficLights();
         for (TrafficLight trafficLight : lights) {
@@ -194,8 +238,9 @@ public class Lane {
     public Road getRoad() {
         return this.road;
     }
+    // Vue en lecture seule : ajouts et retraits passent par la voie, qui tient à jour les compteurs de la route
     public List<Vehicle> getVehicles() {
-        return this.vehicles; // Retourne la liste directe (attention à la modification externe)
+        return this.vehiclesView;
     }
     public int getDirection() {
         return direction;
@@ -206,6 +251,10 @@ public class Lane {
     public String getId() {
         return this.id;
     }
+    public double getWidth() {
+        return width;
+    }
+
     public double getCenterY() {
         return centerY;
     }
@@ -0,0 +1,111 @@
+package org.example.environment;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Contrôle "max-pressure" des feux : chaque feu sert un mouvement (voies amont -> voies aval), dont la pression est
+    somme des véhicules des voies amont - somme des véhicules des voies aval   (Lane.getVehicleCount())
+et on met au vert la phase de plus forte pression totale. Aucun entraînement, aucune politique à résoudre : une
+décision coûte O(phases x feux par phase), d'où son intérêt sur les très grands réseaux où résoudre un MDP par feu
+coûte trop cher. Sans mouvement déclaré (setMovement), la pression d'un feu est nulle.
+Les indices des feux sont ceux de la liste donnée au constructeur (les mêmes que ceux d'IntersectionController).
+ */
+public class MaxPressureController {
+
+    private static final Lane[] NO_LANES = new Lane[0];
+
+    private final TrafficLight[] lights;
+    private final Map<TrafficLight, Integer> indexByLight = new IdentityHashMap<>();
+    private final Lane[][] upstream;
+    private final Lane[][] downstream;
+
+    public MaxPressureController(List<TrafficLight> lights) {
+        this.lights = lights.toArray(new TrafficLight[0]);
+        this.upstream = new Lane[this.lights.length][];
+        this.downstream = new Lane[this.lights.length][];
+        for (int i = 0; i < this.lights.length; i++) {
+            indexByLight.putIfAbsent(this.lights[i], i);
+            upstream[i] = NO_LANES;
+            downstream[i] = NO_LANES;
+        }
+    }
+
+    public void setMovement(TrafficLight light, Collection<Lane> upstreamLanes, Collection<Lane> downstreamLanes) {
+        Integer index = indexByLight.get(light);
+        if (index == null) {
+            throw new IllegalArgumentException("feu inconnu de ce contrôleur : " + light.getId());
+        }
+        upstream[index] = upstreamLanes.toArray(NO_LANES);
+        downstream[index] = downstreamLanes.toArray(NO_LANES);
+    }
+
+    public double pressure(int lightIndex) {
+        int pressure = 0;
+        for (Lane lane : upstream[lightIndex]) pressure += lane.getVehicleCount();
+        for (Lane lane : downstream[lightIndex]) pressure -= lane.getVehicleCount();
+        return pressure;
+    }
+
+    public double pressure(TrafficLight light) {
+        Integer index = indexByLight.get(light);
+        return index == null ? 0.0 : pressure(index);
+    }
+
+    /**
+     * Phase de plus forte pression ; en cas d'égalité la phase courante est gardée (pas de basculement inutile),
+     * sinon la première. -1 s'il n'y a aucune phase.
+     */
+    public int selectPhase(int[][] phaseLights, int currentPhase) {
+        int bestPhase = -1;
+        double bestPressure = Double.NEGATIVE_INFINITY;
+        for (int p = 0; p < phaseLights.length; p++) {
+            double phasePressure = 0.0;
+            for (int i : phaseLights[p]) {
+                phasePressure += pressure(i);
+            }
+            if (phasePressure > bestPressure || (phasePressure == bestPressure && p == currentPhase)) {
+                bestPressure = phasePressure;
+                bestPhase = p;
+            }
+        }
+        return bestPhase;
+    }
+
+    /**
+     * Chaque feu est sa propre phase (feux d'une même route, en conflit deux à deux) : le feu de plus forte
+     * pression passe au vert, les autres au rouge. En cas d'égalité, un feu déjà vert le reste.
+     */
+    public void stepIndividualLights() {
+        int best = -1;
+        double bestPressure = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < lights.length; i++) {
+            double lightPressure = pressure(i);
+            if (lightPressure > bestPressure
+                    || (lightPressure == bestPressure && lights[i].getState() == TrafficLight.LightColor.GREEN)) {
+                bestPressure = lightPressure;
+                best = i;
+            }
+        }
+        for (int i = 0; i < lights.length; i++) {
+            TrafficLight light = lights[i];
+            if (i == best) {
+                if (light.getState() != TrafficLight.LightColor.GREEN) {
+                    light.executeAction(TrafficLight.LightAction.SWITCH_GREEN);
+                }
+            } else if (light.getState() != TrafficLight.LightColor.RED) {
+                light.executeAction(TrafficLight.LightAction.SWITCH_RED);
+            }
+        }
+    }
+
+    public int getLightCount() {
+        return lights.length;
+    }
+
+    public TrafficLight getLight(int index) {
+        return lights[index];
+    }
+}
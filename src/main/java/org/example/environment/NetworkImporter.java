@@ -0,0 +1,169 @@
+package org.example.environment;
+
+import org.example.agent.Position;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/*
+Streaming importer for road networks described in a small text format (an OSM-like subset), one record per line:
+
+    # commentaire
+    node   <id> <x> <y>
+    road   <id> <fromNode> <toNode> [length]
+    lane   <id> <width> <centerY> <RIGHT|LEFT>
+    signal <id> <x> <y> [GREEN|ORANGE|RED]
+
+Nodes must be declared before the roads that use them, and node and road ids must be unique. Lanes and signals belong to the last opened road, so
+a road is complete as soon as the next "road" line (or the end of file) is read and is handed to the sink right
+away: only the node table, the road ids and the current road are kept in memory, whatever the size of the file.
+Remember that vehicles look up their light by road id (Lane.checkState), so the main signal of a road should
+share its id.
+ */
+public class NetworkImporter {
+
+    /** Compteurs de l'import, utiles pour les benchmarks. */
+    public record Stats(int nodes, int roads, int lanes, int signals, long elapsedMs) {
+        @Override
+        public String toString() {
+            return String.format("%d nœuds, %d routes, %d voies, %d feux en %d ms", nodes, roads, lanes, signals, elapsedMs);
+        }
+    }
+
+    private final Map<String, Position> nodes = new HashMap<>();
+    private final Set<String> roadIds = new HashSet<>(); // ids seulement : les routes elles-mêmes sont déjà passées au sink
+    private Road currentRoad;
+    private int roadCount;
+    private int laneCount;
+    private int signalCount;
+
+    private NetworkImporter() {
+    }
+
+    /**
+     * Importe le fichier et ajoute les routes à l'environnement (sans construire le graphe :
+     * appeler ensuite buildGlobalGraph() ou buildGlobalGraphParallel()).
+     */
+    public static Stats importInto(Path file, Environment environment) throws IOException {
+        return importFile(file, environment.getRoads()::add);
+    }
+
+    public static Stats importFile(Path file, Consumer<Road> sink) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(reader, sink);
+        }
+    }
+
+    public static Stats importFrom(Reader source, Consumer<Road> sink) throws IOException {
+        long start = System.currentTimeMillis();
+        NetworkImporter importer = new NetworkImporter();
+        BufferedReader reader = source instanceof BufferedReader br ? br : new BufferedReader(source);
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            try {
+                importer.parseLine(line.split("\\s+"), sink);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Ligne " + lineNumber + " invalide (" + line + ") : " + e.getMessage(), e);
+            }
+        }
+        importer.flushRoad(sink);
+
+        return new Stats(importer.nodes.size(), importer.roadCount, importer.laneCount, importer.signalCount,
+                System.currentTimeMillis() - start);
+    }
+
+    private void parseLine(String[] tokens, Consumer<Road> sink) {
+        switch (tokens[0]) {
+            case "node" -> {
+                expect(tokens, 4);
+                Position position = new Position(Integer.parseInt(tokens[2]), Integer.parseInt(tokens[3]));
+                if (nodes.putIfAbsent(tokens[1], position) != null) {
+                    throw new IllegalArgumentException("nœud '" + tokens[1] + "' déjà défini");
+                }
+            }
+            case "road" -> {
+                expect(tokens, 4);
+                flushRoad(sink);
+                if (!roadIds.add(tokens[1])) {
+                    throw new IllegalArgumentException("route '" + tokens[1] + "' déjà définie");
+                }
+                Position from = node(tokens[2]);
+                Position to = node(tokens[3]);
+                double length = tokens.length > 4 ? Double.parseDouble(tokens[4]) : Math.round(from.distanceTo(to));
+                List<Position> entryPoints = new ArrayList<>(List.of(from, to));
+                currentRoad = new Road(tokens[1], length, entryPoints);
+                roadCount++;
+            }
+            case "lane" -> {
+                expect(tokens, 5);
+                Road road = requireRoad();
+                road.addLane(new Lane(tokens[1], Double.parseDouble(tokens[2]), Double.parseDouble(tokens[3]),
+                        direction(tokens[4]), road));
+                laneCount++;
+            }
+            case "signal" -> {
+                expect(tokens, 4);
+                Road road = requireRoad();
+                TrafficLight.LightColor color = tokens.length > 4
+                        ? TrafficLight.LightColor.valueOf(tokens[4])
+                        : TrafficLight.LightColor.RED;
+                road.addTrafficLight(new TrafficLight(tokens[1], color),
+                        new Position(Integer.parseInt(tokens[2]), Integer.parseInt(tokens[3])));
+                signalCount++;
+            }
+            default -> throw new IllegalArgumentException("type d'enregistrement inconnu '" + tokens[0] + "'");
+        }
+    }
+
+    private void flushRoad(Consumer<Road> sink) {
+        if (currentRoad != null) {
+            sink.accept(currentRoad);
+            currentRoad = null;
+        }
+    }
+
+    private Road requireRoad() {
+        if (currentRoad == null) {
+            throw new IllegalStateException("aucune route ouverte");
+        }
+        return currentRoad;
+    }
+
+    private Position node(String id) {
+        Position position = nodes.get(id);
+        if (position == null) {
+            throw new IllegalArgumentException("nœud inconnu '" + id + "'");
+        }
+        return position;
+    }
+
+    private static int direction(String token) {
+        return switch (token) {
+            case "RIGHT", "0" -> Lane.DIRECTION_RIGHT;
+            case "LEFT", "180" -> Lane.DIRECTION_LEFT;
+            default -> throw new IllegalArgumentException("direction inconnue '" + token + "'");
+        };
+    }
+
+    private static void expect(String[] tokens, int minimum) {
+        if (tokens.length < minimum) {
+            throw new IllegalArgumentException("au moins " + minimum + " champs attendus");
+        }
+    }
+}
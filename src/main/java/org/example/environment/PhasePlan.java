@@ -0,0 +1,157 @@
+package org.example.environment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/*
+Plan de phases d'une intersection : chaque phase est l'ensemble des feux (par id) verts en même temps, les feux
+du plan absents de la phase passant au rouge. Deux feux sont en conflit s'ils n'apparaissent dans aucune phase
+commune, ou s'ils sont déclarés en conflit explicitement (une phase ne peut alors pas les contenir tous les deux).
+Les plans se décrivent dans un petit format texte, un enregistrement par ligne :
+
+    # commentaire
+    intersection <id>
+    phase    <idFeu> [<idFeu> ...]
+    conflict <idFeu> <idFeu>
+
+Les phases et conflits se rattachent à la dernière intersection ouverte ; un id d'intersection ne peut être
+ouvert qu'une fois. Le contrôleur (IntersectionController)
+traduit les ids en indices une fois pour toutes.
+ */
+public final class PhasePlan {
+
+    private final List<List<String>> phases;
+    private final Set<List<String>> explicitConflicts;
+
+    private PhasePlan(List<List<String>> phases, Set<List<String>> explicitConflicts) {
+        if (phases.isEmpty()) {
+            throw new IllegalArgumentException("un plan de phases doit avoir au moins une phase");
+        }
+        for (List<String> conflict : explicitConflicts) {
+            for (List<String> phase : phases) {
+                if (phase.contains(conflict.get(0)) && phase.contains(conflict.get(1))) {
+                    throw new IllegalArgumentException("feux en conflit dans la même phase : " + conflict + " dans " + phase);
+                }
+            }
+        }
+        this.phases = phases;
+        this.explicitConflicts = explicitConflicts;
+    }
+
+    public static PhasePlan of(List<List<String>> phases) {
+        return new PhasePlan(copy(phases), Set.of());
+    }
+
+    // Plan historique : N-S (TL1, TL3) contre E-W (TL2, TL4) ; E-W en premier pour garder le même départage des
+    // égalités qu'avant (première phase de score maximal)
+    public static PhasePlan defaultPlan() {
+        return of(List.of(List.of("TL2", "TL4"), List.of("TL1", "TL3")));
+    }
+
+    public int getPhaseCount() {
+        return phases.size();
+    }
+
+    public List<String> getPhase(int phase) {
+        return phases.get(phase);
+    }
+
+    public List<List<String>> getPhases() {
+        return phases;
+    }
+
+    // Tous les feux du plan, dans l'ordre de première apparition
+    public List<String> getLightIds() {
+        Set<String> ids = new LinkedHashSet<>();
+        phases.forEach(ids::addAll);
+        return new ArrayList<>(ids);
+    }
+
+    public boolean areInConflict(String a, String b) {
+        if (a.equals(b)) return false;
+        if (explicitConflicts.contains(pair(a, b))) return true;
+        for (List<String> phase : phases) {
+            if (phase.contains(a) && phase.contains(b)) return false;
+        }
+        return true;
+    }
+
+    /** Plans par id d'intersection, dans l'ordre du fichier. */
+    public static Map<String, PhasePlan> loadAll(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parseAll(reader);
+        }
+    }
+
+    public static Map<String, PhasePlan> parseAll(Reader source) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader br ? br : new BufferedReader(source);
+        Map<String, PhasePlan> plans = new LinkedHashMap<>();
+        String currentId = null;
+        List<List<String>> phases = new ArrayList<>();
+        Set<List<String>> conflicts = new HashSet<>();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] tokens = line.split("\\s+");
+            try {
+                switch (tokens[0]) {
+                    case "intersection" -> {
+                        if (tokens.length != 2) throw new IllegalArgumentException("attendu : intersection <id>");
+                        if (currentId != null) plans.put(currentId, new PhasePlan(copy(phases), Set.copyOf(conflicts)));
+                        if (plans.containsKey(tokens[1])) {
+                            throw new IllegalArgumentException("intersection '" + tokens[1] + "' déjà définie");
+                        }
+                        currentId = tokens[1];
+                        phases.clear();
+                        conflicts.clear();
+                    }
+                    case "phase" -> {
+                        requireIntersection(currentId);
+                        if (tokens.length < 2) throw new IllegalArgumentException("phase sans feu");
+                        phases.add(List.of(Arrays.copyOfRange(tokens, 1, tokens.length)));
+                    }
+                    case "conflict" -> {
+                        requireIntersection(currentId);
+                        if (tokens.length != 3) throw new IllegalArgumentException("attendu : conflict <idFeu> <idFeu>");
+                        conflicts.add(pair(tokens[1], tokens[2]));
+                    }
+                    default -> throw new IllegalArgumentException("type d'enregistrement inconnu '" + tokens[0] + "'");
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Ligne " + lineNumber + " invalide (" + line + ") : " + e.getMessage(), e);
+            }
+        }
+        if (currentId != null) plans.put(currentId, new PhasePlan(copy(phases), Set.copyOf(conflicts)));
+        return plans;
+    }
+
+    private static void requireIntersection(String currentId) {
+        if (currentId == null) {
+            throw new IllegalStateException("aucune intersection ouverte");
+        }
+    }
+
+    private static List<String> pair(String a, String b) {
+        return a.compareTo(b) <= 0 ? List.of(a, b) : List.of(b, a);
+    }
+
+    private static List<List<String>> copy(List<List<String>> phases) {
+        List<List<String>> copy = new ArrayList<>();
+        for (List<String> phase : phases) copy.add(List.copyOf(phase));
+        return List.copyOf(copy);
+    }
+
+    @Override
+    public String toString() {
+        return "PhasePlan" + phases;
+    }
+}
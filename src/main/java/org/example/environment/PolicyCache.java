@@ -0,0 +1,112 @@
+package org.example.environment;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/*
+Cache des politiques MDP résolues, partagé entre les feux.
+La clé est le contenu du modèle (probabilités d'évolution du trafic, paramètres de récompense, seuil) et le solveur
+utilisé : deux feux au modèle identique partagent la même politique, et un modèle déjà rencontré n'est jamais résolu
+deux fois. La résolution se fait hors du verrou : un feu qui demande un modèle en cours de résolution attend ce
+seul résultat, les autres modèles ne sont pas bloqués.
+Les politiques et fonctions de valeur renvoyées sont partagées : ne pas les modifier.
+ */
+public final class PolicyCache {
+
+    private static final PolicyCache SHARED = new PolicyCache(256);
+
+    public record Solution(Map<String, String> policy, double[][] valueFunction) {}
+
+    // Contenu du modèle et paramètres du solveur ; les tableaux n'ont pas d'égalité par valeur, d'où cette clé dédiée
+    public static final class Key {
+        private final double[] values;
+        private final int hash;
+
+        public Key(double... values) {
+            this.values = values.clone();
+            this.hash = Arrays.hashCode(this.values);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && hash == other.hash && Arrays.equals(values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final Map<Key, CompletableFuture<Solution>> solutions; // résolution en cours ou terminée
+    private long hits = 0;
+    private long misses = 0;
+
+    public PolicyCache(int maxEntries) {
+        // LRU : au-delà de maxEntries, le modèle le moins récemment utilisé est oublié
+        this.solutions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<Solution>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static PolicyCache shared() {
+        return SHARED;
+    }
+
+    public Solution getOrSolve(Key key, Supplier<Solution> solver) {
+        CompletableFuture<Solution> pending;
+        CompletableFuture<Solution> owned = null;
+        synchronized (this) {
+            pending = solutions.get(key);
+            if (pending != null) {
+                hits++;
+            } else {
+                misses++;
+                owned = new CompletableFuture<>();
+                solutions.put(key, owned);
+            }
+        }
+
+        if (owned == null) {
+            try {
+                return pending.join();
+            } catch (CompletionException e) {
+                return getOrSolve(key, solver); // la résolution a échoué chez un autre appelant : on réessaie
+            }
+        }
+
+        try {
+            Solution solution = solver.get();
+            owned.complete(solution);
+            return solution;
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                solutions.remove(key, owned);
+            }
+            owned.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public synchronized void clear() {
+        solutions.clear();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("PolicyCache[%d modèles, %d réutilisations, %d résolutions]", solutions.size(), hits, misses);
+    }
+}
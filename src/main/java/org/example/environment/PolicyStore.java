@@ -0,0 +1,91 @@
+package org.example.environment;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+Stockage binaire des politiques apprises des feux (TrafficLight.LearnedPolicy), pour ne pas réentraîner une ville
+entière à chaque démarrage :
+
+    int    MAGIC ("TLPS"), int FORMAT_VERSION, int nombre d'entrées
+    puis par feu :
+    UTF    clé (id de la route + "/" + id du feu)
+    short  taille du modèle, puis les doubles du modèle (matrice de transition, récompenses, seuil)
+    double Q[18], double V[9], byte action[9] (ordinal de LightAction)
+
+Environ 330 octets par feu (clé de 10 caractères, modèle de 12 doubles) : une ville de 2 000 feux tient en moins de 700 Ko.
+ */
+public final class PolicyStore {
+
+    private static final int MAGIC = 0x544C5053;
+    private static final int FORMAT_VERSION = 1;
+    // Fichiers des scénarios rangés hors des sources (-Dpolicies.dir=... pour changer de répertoire)
+    public static final String DIRECTORY_PROPERTY = "policies.dir";
+    private static final String DEFAULT_DIRECTORY = "target/policies";
+
+    private PolicyStore() {
+    }
+
+    public static String key(Road road, TrafficLight light) {
+        return road.getId() + "/" + light.getId();
+    }
+
+    /** Fichier de politiques nommé name dans le répertoire des politiques (créé à la sauvegarde). */
+    public static Path fileFor(String name) {
+        return Path.of(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY)).resolve(name);
+    }
+
+    public static void save(Path file, Map<String, TrafficLight.LearnedPolicy> policies) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(policies.size());
+            for (Map.Entry<String, TrafficLight.LearnedPolicy> entry : policies.entrySet()) {
+                TrafficLight.LearnedPolicy learned = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeShort(learned.model().length);
+                for (double v : learned.model()) out.writeDouble(v);
+                for (double q : learned.qValues()) out.writeDouble(q);
+                for (double v : learned.values()) out.writeDouble(v);
+                out.write(learned.actions());
+            }
+        }
+    }
+
+    public static Map<String, TrafficLight.LearnedPolicy> load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Fichier de politiques invalide : " + file);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Version de fichier de politiques non supportée : " + version);
+            }
+            int count = in.readInt();
+            Map<String, TrafficLight.LearnedPolicy> policies = new LinkedHashMap<>(count * 4 / 3 + 1);
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                double[] model = readDoubles(in, in.readShort());
+                double[] qValues = readDoubles(in, TrafficLight.LearnedPolicy.Q_VALUES);
+                double[] values = readDoubles(in, TrafficLight.LearnedPolicy.STATES);
+                byte[] actions = new byte[TrafficLight.LearnedPolicy.STATES];
+                in.readFully(actions);
+                policies.put(key, new TrafficLight.LearnedPolicy(model, qValues, values, actions));
+            }
+            return policies;
+        }
+    }
+
+    private static double[] readDoubles(DataInputStream in, int count) throws IOException {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,227 @@
+package org.example.environment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+Q-learning par mini-lots sur une ExperienceReplay, sur un thread dédié : les feux rattachés (attachLearner)
+enregistrent leurs transitions sans jamais attendre et choisissent leurs actions d'après la dernière table publiée.
+Une table Q par ReplayLearner : un seul learner pour tous les feux (table partagée), ou un par classe de feux.
+
+Chaque mini-lot est tiré de la mémoire puis découpé entre `workers` tâches, qui calculent en parallèle la somme des
+erreurs TD par (état, action) sur la table courante (lue seulement) ; la somme est ensuite appliquée d'un coup :
+    Q(s, a) += alpha * moyenne des [r + gamma * max_a' Q(s', a') - Q(s, a)]
+La table est recopiée vers la version publiée tous les PUBLISH_INTERVAL mini-lots.
+Le thread ne rejoue pas indéfiniment une mémoire figée : chaque transition enregistrée donne droit à
+REPLAY_RATIO tirages en moyenne, au-delà le thread attend de nouvelles transitions.
+ */
+public final class ReplayLearner implements AutoCloseable {
+
+    private static final int STATES = TrafficLight.STATE_COUNT;
+    private static final int SLOTS = TrafficLight.ACTIONS_PER_STATE;
+    private static final int PUBLISH_INTERVAL = 16;
+    private static final long IDLE_WAIT_NANOS = 1_000_000; // 1 ms quand la mémoire est trop petite ou déjà rejouée
+    private static final int REPLAY_RATIO = 8; // tirages par transition enregistrée
+
+    private final ExperienceReplay replay;
+    private final int batchSize;
+    private final double alpha;
+    private final double gamma;
+
+    private final double[] q = new double[STATES * SLOTS]; // propriété du thread d'apprentissage
+    private volatile double[] published = new double[STATES * SLOTS];
+
+    // Un tampon de tirage et un accumulateur par tâche, alloués une fois
+    private final int workers;
+    private final ForkJoinPool pool;
+    private final SplittableRandom[] randoms;
+    private final int[][] sampleStates;
+    private final int[][] sampleSlots;
+    private final double[][] sampleRewards;
+    private final int[][] sampleNextStates;
+    private final double[][] errorSums;
+    private final int[][] errorCounts;
+    private final List<Callable<Void>> tasks = new ArrayList<>();
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong samples = new AtomicLong();
+    private volatile boolean running;
+    private Thread thread;
+
+    public ReplayLearner(ExperienceReplay replay, int batchSize, double alpha, double gamma, int workers) {
+        if (batchSize <= 0 || workers <= 0) {
+            throw new IllegalArgumentException("batchSize et workers doivent être > 0");
+        }
+        this.replay = replay;
+        this.batchSize = batchSize;
+        this.alpha = alpha;
+        this.gamma = gamma;
+        this.workers = workers;
+        this.pool = workers > 1 ? new ForkJoinPool(workers) : null;
+
+        int perWorker = (batchSize + workers - 1) / workers;
+        SplittableRandom root = new SplittableRandom();
+        this.randoms = new SplittableRandom[workers];
+        this.sampleStates = new int[workers][perWorker];
+        this.sampleSlots = new int[workers][perWorker];
+        this.sampleRewards = new double[workers][perWorker];
+        this.sampleNextStates = new int[workers][perWorker];
+        this.errorSums = new double[workers][STATES * SLOTS];
+        this.errorCounts = new int[workers][STATES * SLOTS];
+        for (int w = 0; w < workers; w++) {
+            randoms[w] = root.split();
+            int worker = w;
+            int count = Math.min(perWorker, batchSize - w * perWorker);
+            tasks.add(() -> {
+                accumulate(worker, Math.max(0, count));
+                return null;
+            });
+        }
+    }
+
+    // Transition observée par un feu (appelé depuis le thread de simulation, non bloquant)
+    public void record(int state, int slot, double reward, int nextState) {
+        replay.add(state, slot, reward, nextState);
+    }
+
+    // Meilleure case d'action pour l'état selon la table publiée (0 en cas d'égalité, comme TrafficLight)
+    public int bestSlot(int state) {
+        double[] table = published;
+        return table[state * SLOTS + 1] > table[state * SLOTS] ? 1 : 0;
+    }
+
+    public double getQValue(int state, int slot) {
+        return published[state * SLOTS + slot];
+    }
+
+    // Copie de la table publiée, indexée [état * 2 + case]
+    public double[] getPublishedQ() {
+        return published.clone();
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::run, "replay-learner");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        long replayed = 0;
+        while (running) {
+            if (replay.size() < batchSize || replayed + batchSize > replay.getWritten() * REPLAY_RATIO) {
+                LockSupport.parkNanos(IDLE_WAIT_NANOS);
+                continue;
+            }
+            train();
+            replayed += batchSize;
+        }
+        published = q.clone();
+    }
+
+    /** Un mini-lot, pour un usage synchrone : le learner ne doit pas être démarré (la table appartient à son thread). */
+    public void trainBatch() {
+        if (running) {
+            throw new IllegalStateException("trainBatch() sur un learner démarré : la table appartient à son thread");
+        }
+        train();
+    }
+
+    private void train() {
+        if (pool == null) {
+            accumulate(0, batchSize);
+        } else {
+            try {
+                for (var future : pool.invokeAll(tasks)) future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("échec d'un mini-lot", e.getCause());
+            }
+        }
+
+        int used = 0;
+        for (int i = 0; i < q.length; i++) {
+            double sum = 0.0;
+            int count = 0;
+            for (int w = 0; w < workers; w++) {
+                sum += errorSums[w][i];
+                count += errorCounts[w][i];
+            }
+            if (count > 0) {
+                q[i] += alpha * sum / count;
+                used += count;
+            }
+        }
+        samples.addAndGet(used);
+        if (batches.incrementAndGet() % PUBLISH_INTERVAL == 0) {
+            published = q.clone();
+        }
+    }
+
+    // Somme des erreurs TD d'un morceau du mini-lot, sur la table courante
+    private void accumulate(int worker, int count) {
+        double[] sums = errorSums[worker];
+        int[] counts = errorCounts[worker];
+        Arrays.fill(sums, 0.0);
+        Arrays.fill(counts, 0);
+        int[] states = sampleStates[worker];
+        int[] slots = sampleSlots[worker];
+        double[] rewards = sampleRewards[worker];
+        int[] nextStates = sampleNextStates[worker];
+        int filled = replay.sample(randoms[worker], count, states, slots, rewards, nextStates);
+        for (int i = 0; i < filled; i++) {
+            int index = states[i] * SLOTS + slots[i];
+            int next = nextStates[i] * SLOTS;
+            double maxNext = Math.max(q[next], q[next + 1]);
+            sums[index] += rewards[i] + gamma * maxNext - q[index];
+            counts[index]++;
+        }
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getSamples() {
+        return samples.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReplayLearner[%d mini-lots, %d transitions apprises, mémoire %d/%d]",
+                batches.get(), samples.get(), replay.size(), replay.getCapacity());
+    }
+}
@@ -6,7 +6,10 @@ import org.example.planning.Graph;
 import org.example.planning.GraphNode;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 /**
  * Represents a road in the simulation environment.
  * Can contain vehicles, manage their positioning and provide metrics.
@@ -15,6 +18,9 @@ public class Road {
     private final String id;
     private final double length;
     private static final int maxCapacity = 40;
+    private static final int SEGMENT_LENGTH = 10; // Résolution du graphe (tous les 10 mètres)
+    private static final double LANE_CHANGE_COST = 5.0;
+    private static final double APPROACH_DISTANCE = 50.0; // rayon de la zone de détection d'un feu
     private final List<Position> entryPoints;  // entry points/end (intersections etc)
     private final List<TrafficLight> trafficLights;
     private List<Position> trafficLightPositions = new ArrayList<>();
@@ -23,11 +29,22 @@ public class Road {
     private RoadCondition condition = RoadCondition.DRY;
     private Graph graph;
 
+    // Commande des feux : MDP par feu (+ coordination), max-pressure sur l'occupation des voies, ou plans à temps
+    // fixe des feux (GreenWaveOptimizer), déroulés par TrafficLight.update() sans coordination
+    public enum SignalPolicy { MDP, MAX_PRESSURE, FIXED_TIME }
+    private SignalPolicy signalPolicy = SignalPolicy.MDP;
+    private MaxPressureController maxPressure; // créé à la première utilisation, recréé si les voies ou feux changent
+    private final Map<TrafficLight, List<Lane>> downstreamByLight = new IdentityHashMap<>(); // voies aval (Environment.configureMaxPressure())
+
     // MDP control parameters
     private boolean useMDP = true;
     private int mdpDecisionInterval = 5;
     private int tickCounter = 0;
 
+    // Zones de détection : nombre de véhicules des voies de la route dans la zone de chaque feu (même indice que
+    // trafficLights), tenu à jour par les voies à chaque entrée, sortie ou déplacement de véhicule
+    private int[] approachCounts = new int[0];
+
 
     // Construct
     public Road(String id, double length, List<Position> entryPoints) {
@@ -60,11 +77,15 @@ public class Road {
     public void addLane(Lane lane) {
         lanes.add(lane);
         lane.setRoad(this);
+        recountApproaches();
+        maxPressure = null; // mouvements recalculés à la prochaine utilisation (voies aval conservées)
     }
     public static int maxCapacityCount(){return maxCapacity;}
     public void addTrafficLight(TrafficLight trafficLight, Position position){
         trafficLights.add(trafficLight);
         trafficLightPositions.add(position);
+        recountApproaches();
+        maxPressure = null; // mouvements recalculés à la prochaine utilisation (voies aval conservées)
     }
 
     public boolean hasLeftLane(Lane currentLane) {
@@ -90,6 +111,9 @@ public class Road {
     public String getId() {
         return id;
     }
+    public double getLength() {
+        return length;
+    }
     public int getMaxCapacity() {
         return maxCapacity;
     }
@@ -117,11 +141,11 @@ public class Road {
             for (TrafficLight light : trafficLights) {
                 if (light == busiestLight) {
                     if (light.getState() != TrafficLight.LightColor.GREEN) {
-                        light.executeAction("SWITCH_GREEN");
+                        light.executeAction(TrafficLight.LightAction.SWITCH_GREEN);
                     }
                 } else {
                     if (light.getState() != TrafficLight.LightColor.RED) {
-                        light.executeAction("SWITCH_RED");
+                        light.executeAction(TrafficLight.LightAction.SWITCH_RED);
                     }
                 }
             }
@@ -143,6 +167,53 @@ public class Road {
         this.mdpDecisionInterval = interval;
     }
 
+    public void setSignalPolicy(SignalPolicy signalPolicy) {
+        this.signalPolicy = signalPolicy;
+    }
+
+    public SignalPolicy getSignalPolicy() {
+        return signalPolicy;
+    }
+
+    /**
+     * Contrôleur max-pressure des feux de la route : chaque feu a pour amont les voies qui y mènent
+     * (getApproachingLanes()) et pour aval les voies renseignées par Environment.configureMaxPressure().
+     */
+    public MaxPressureController getMaxPressureController() {
+        if (maxPressure == null) {
+            maxPressure = new MaxPressureController(trafficLights);
+            for (TrafficLight light : trafficLights) {
+                maxPressure.setMovement(light, getApproachingLanes(light), downstreamByLight.getOrDefault(light, List.of()));
+            }
+        }
+        return maxPressure;
+    }
+
+    // Voies qui mènent au feu : celles sur lesquelles il est placé, à défaut la plus proche en Y
+    public List<Lane> getApproachingLanes(TrafficLight light) {
+        Position position = getTrafficLightPosition(light);
+        if (position == null) return List.of();
+        List<Lane> approaching = new ArrayList<>();
+        Lane closest = null;
+        for (Lane lane : lanes) {
+            double offset = Math.abs(lane.getCenterY() - position.getY());
+            if (offset <= lane.getWidth() / 2) approaching.add(lane);
+            if (closest == null || offset < Math.abs(closest.getCenterY() - position.getY())) closest = lane;
+        }
+        if (approaching.isEmpty() && closest != null) approaching.add(closest);
+        return approaching;
+    }
+
+    // Voies aval du feu (routes raccordées à son point) ; gardées quand le contrôleur est recréé
+    void setDownstreamLanes(TrafficLight light, List<Lane> downstream) {
+        downstreamByLight.put(light, List.copyOf(downstream));
+        maxPressure = null;
+    }
+
+    /**
+     * Résolution verbeuse (matrices et politiques affichées), pour le débogage d'un feu.
+     * Au démarrage d'un scénario, préférer Environment.prepareSignalPolicies(), qui reprend les politiques sauvegardées.
+     */
     public void trainTrafficLights() {
         for (TrafficLight light : trafficLights) {
             light.printTransitionMatrix();
@@ -151,14 +222,56 @@ public class Road {
         }
     }
 
+    // Lecture du compteur de la zone du feu (plus de parcours des véhicules)
     public int countVehiclesApproaching(TrafficLight light) {
-        final double APPROACH_DISTANCE = 50.0; // constante pour la distance
-        Position lightPosition = getLightPosition(light.getId());
+        int index = trafficLights.indexOf(light);
+        return index < 0 ? 0 : approachCounts[index];
+    }
+
+    private boolean inApproachZone(int lightIndex, Position position) {
+        return position.distanceTo(getLightPosition(trafficLights.get(lightIndex).getId())) < APPROACH_DISTANCE;
+    }
+
+    // Appelés par Lane : un véhicule entre sur la voie, la quitte, ou s'y déplace
+    void vehicleEntered(Lane lane, Position position) {
+        if (!lanes.contains(lane)) return;
+        for (int i = 0; i < approachCounts.length; i++) {
+            if (inApproachZone(i, position)) approachCounts[i]++;
+        }
+    }
+
+    void vehicleLeft(Lane lane, Position position) {
+        if (!lanes.contains(lane)) return;
+        for (int i = 0; i < approachCounts.length; i++) {
+            if (inApproachZone(i, position)) approachCounts[i]--;
+        }
+    }
+
+    void vehicleMoved(Lane lane, Position from, Position to) {
+        if (!lanes.contains(lane)) return;
+        for (int i = 0; i < approachCounts.length; i++) {
+            boolean wasInside = inApproachZone(i, from);
+            boolean isInside = inApproachZone(i, to);
+            if (wasInside != isInside) approachCounts[i] += isInside ? 1 : -1;
+        }
+    }
+
+    // Recomptage complet, quand une voie ou un feu est ajouté
+    private void recountApproaches() {
+        approachCounts = countApproaches();
+    }
 
-        return (int) lanes.stream()
-                .flatMap(lane -> lane.getVehicles().stream())
-                .filter(v -> v.getPosition().distanceTo(lightPosition) < APPROACH_DISTANCE)
-                .count();
+    // Comptage complet des zones de détection, sans toucher aux compteurs (sert aussi à les vérifier)
+    int[] countApproaches() {
+        int[] counts = new int[trafficLights.size()];
+        for (Lane lane : lanes) {
+            for (Vehicle vehicle : lane.getVehicles()) {
+                for (int i = 0; i < counts.length; i++) {
+                    if (inApproachZone(i, vehicle.getPosition())) counts[i]++;
+                }
+            }
+        }
+        return counts;
     }
 
     public Position getLightPosition(String lightId) {
@@ -178,20 +291,28 @@ public class Road {
         tickCounter++;
 
         // 1. Mettre à jour les niveaux de trafic pour chaque feu
-        for (TrafficLight light : trafficLights) {
-            int vehicleCount = countVehiclesApproaching(light);
-            light.updateTrafficLevel(vehicleCount);
+        for (int i = 0; i < trafficLights.size(); i++) {
+            TrafficLight light = trafficLights.get(i);
+            light.updateTrafficLevel(approachCounts[i]);
+            light.observeTraffic();
         }
 
-        // 2. Appliquer les décisions MDP seulement tous les X ticks
-        if (useMDP && tickCounter % mdpDecisionInterval == 0) {
-            for (TrafficLight light : trafficLights) {
-                light.mdpUpdate();
+        if (signalPolicy == SignalPolicy.MAX_PRESSURE) {
+            // 2-3. Max-pressure : le feu de plus forte pression passe au vert, tous les X ticks
+            if (tickCounter % mdpDecisionInterval == 0) {
+                getMaxPressureController().stepIndividualLights();
+            }
+        } else if (signalPolicy == SignalPolicy.MDP) {
+            // 2. Appliquer les décisions MDP seulement tous les X ticks
+            if (useMDP && tickCounter % mdpDecisionInterval == 0) {
+                for (TrafficLight light : trafficLights) {
+                    light.mdpUpdate();
+                }
             }
-        }
 
-        // 3. Coordination possible entre les feux (si plusieurs)
-        coordinateTrafficLights();
+            // 3. Coordination possible entre les feux (si plusieurs)
+            coordinateTrafficLights();
+        }
 
         // 4. Mise à jour d’état (permet les cycles ORANGE -> ROUGE, etc.)
         for (TrafficLight light : trafficLights) {
@@ -202,22 +323,22 @@ public class Road {
     public void updateTrafficConditions() {
         this.isCongested = checkCongestion();
         // Mettre à jour les probabilités de transition basées sur le trafic global
-        for (TrafficLight light : trafficLights) {
-            int vehicleCount = countVehiclesApproaching(light);
-            light.updateTrafficLevel(vehicleCount);
+        for (int i = 0; i < trafficLights.size(); i++) {
+            TrafficLight light = trafficLights.get(i);
+            light.updateTrafficLevel(approachCounts[i]);
             light.updatePolicy(); // Recalculer la politique
         }
     }
 
     public void initGraphForPathfinding() {
         this.graph = new Graph();
-        int segmentLength = 10; // Résolution du graphe (tous les 10 mètres)
+        int segmentLength = SEGMENT_LENGTH;
 
         // Création des nœuds pour toutes les voies à chaque segment
         for (int x = 0; x <= this.length; x += segmentLength) {
             for (Lane lane : lanes) {
                 // Crée un nœud pour chaque position (x, y) où y est le centre de la voie
-                graph.getOrCreateNode(new Position(x, lane.getCenterYInt()));
+                graph.getOrCreateNode(x, lane.getCenterYInt());
             }
         }
 
@@ -225,7 +346,7 @@ public class Road {
         for (int x = 0; x <= this.length - segmentLength; x += segmentLength) {
             for (Lane lane : lanes) {
                 int y = lane.getCenterYInt();
-                graph.connect(new Position(x, y), new Position(x + segmentLength, y), segmentLength);
+                graph.connect(x, y, x + segmentLength, y, segmentLength);
             }
         }
 
@@ -236,11 +357,11 @@ public class Road {
                 int y2 = lanes.get(i + 1).getCenterYInt();
 
                 // Coût de changement de voie (peut être ajusté)
-                double laneChangeCost = 5.0;
+                double laneChangeCost = LANE_CHANGE_COST;
 
                 // Connexion bidirectionnelle entre voies adjacentes
-                graph.connect(new Position(x, y1), new Position(x, y2), laneChangeCost);
-                graph.connect(new Position(x, y2), new Position(x, y1), laneChangeCost);
+                graph.connect(x, y1, x, y2, laneChangeCost);
+                graph.connect(x, y2, x, y1, laneChangeCost);
             }
         }
 
@@ -251,16 +372,65 @@ public class Road {
                 GraphNode obsNode = graph.getNode(obsPos.snapToGrid(segmentLength));
                 if (obsNode != null) {
                     // Supprimer ou isoler le nœud concerné
-                    for (GraphNode neighbor : new ArrayList<>(obsNode.getNeighbors().keySet())) {
-                        neighbor.getNeighbors().remove(obsNode);
-                    }
-                    obsNode.getNeighbors().clear(); // plus de sortie
+                    isolate(obsNode);
                 }
             }
         }
 
         System.out.println("📌 Graphe généré automatiquement avec " + graph.getAllNodes().size() + " nœuds.");
     }
+
+    /**
+     * Recalcule les nœuds donnés (positions de la grille du graphe) après l'ajout, le déplacement ou le retrait
+     * d'un obstacle : un nœud sous un obstacle est isolé, un nœud libéré retrouve ses arêtes d'origine.
+     * Le reste du graphe local n'est pas régénéré.
+     */
+    public void refreshObstacleNodes(Collection<Position> nodes) {
+        if (graph == null) return;
+        for (Position position : nodes) {
+            GraphNode node = graph.getNode(position);
+            if (node == null) continue;
+            if (isObstructed(position)) {
+                isolate(node);
+            } else {
+                restoreEdges(position.getX(), position.getY());
+            }
+        }
+        graph.markModified();
+    }
+
+    public boolean isObstructed(Position gridPosition) {
+        for (Lane lane : lanes) {
+            for (Obstacle obstacle : lane.getObstacles()) {
+                if (obstacle.getPosition().snapToGrid(SEGMENT_LENGTH).equals(gridPosition)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static void isolate(GraphNode node) {
+        for (GraphNode neighbor : new ArrayList<>(node.getNeighbors().keySet())) {
+            neighbor.getNeighbors().remove(node);
+        }
+        node.getNeighbors().clear(); // plus de sortie
+    }
+
+    // Mêmes arêtes que initGraphForPathfinding pour ce nœud, sauf vers des nœuds eux-mêmes sous un obstacle
+    private void restoreEdges(int x, int y) {
+        for (int i = 0; i < lanes.size(); i++) {
+            if (lanes.get(i).getCenterYInt() != y) continue;
+            if (x >= SEGMENT_LENGTH) connectIfFree(x, y, x - SEGMENT_LENGTH, y, SEGMENT_LENGTH);
+            if (x + SEGMENT_LENGTH <= length) connectIfFree(x, y, x + SEGMENT_LENGTH, y, SEGMENT_LENGTH);
+            if (i > 0) connectIfFree(x, y, x, lanes.get(i - 1).getCenterYInt(), LANE_CHANGE_COST);
+            if (i < lanes.size() - 1) connectIfFree(x, y, x, lanes.get(i + 1).getCenterYInt(), LANE_CHANGE_COST);
+        }
+    }
+
+    private void connectIfFree(int x, int y, int nx, int ny, double cost) {
+        if (graph.getNode(nx, ny) == null || isObstructed(new Position(nx, ny))) return;
+        graph.connect(x, y, nx, ny, cost);
+    }
+
     public List<Lane> getLanes() {
         return new ArrayList<>(lanes); // Returns a copy for encapsulation
     }
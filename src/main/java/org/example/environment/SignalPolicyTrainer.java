@@ -0,0 +1,45 @@
+package org.example.environment;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/*
+Entraînement hors ligne (sans affichage) des feux d'un réseau, sur tous les cœurs :
+pour chaque feu, la politique MDP est résolue (updatePolicy(), partagée par PolicyCache entre feux au modèle
+identique) puis la table Q est entraînée par TrafficLight.trainOffline() sur la demande simulée par sa matrice de
+transition. Chaque feu a son propre générateur, dérivé de la graine : le résultat ne dépend pas du nombre de cœurs.
+Le résultat est ensuite sauvegardé par PolicyStore et rechargé au démarrage suivant.
+ */
+public final class SignalPolicyTrainer {
+
+    public static final long DEFAULT_STEPS_PER_LIGHT = 200_000;
+    public static final long DEFAULT_SEED = 42;
+
+    public record Stats(int lights, long steps, long elapsedMs) {
+        @Override
+        public String toString() {
+            return String.format("%d feux entraînés (%d transitions simulées) en %d ms", lights, steps, elapsedMs);
+        }
+    }
+
+    private SignalPolicyTrainer() {
+    }
+
+    public static Stats train(List<TrafficLight> lights, long stepsPerLight, long seed) {
+        long start = System.currentTimeMillis();
+        SplittableRandom root = new SplittableRandom(seed);
+        // Les générateurs sont dérivés séquentiellement pour rester déterministes
+        SplittableRandom[] randoms = new SplittableRandom[lights.size()];
+        for (int i = 0; i < randoms.length; i++) {
+            randoms[i] = root.split();
+        }
+
+        IntStream.range(0, lights.size()).parallel().forEach(i -> {
+            TrafficLight light = lights.get(i);
+            light.updatePolicy();
+            light.trainOffline(stepsPerLight, randoms[i]);
+        });
+        return new Stats(lights.size(), stepsPerLight * lights.size(), System.currentTimeMillis() - start);
+    }
+}
@@ -1,11 +1,15 @@
 package org.example.environment;
 
 import org.example.agent.Position;
+import org.example.mdp.MdpSolution;
+import org.example.mdp.MdpSolveStats;
+import org.example.mdp.MdpSolver;
+import org.example.mdp.SparseMdp;
 
 import java.io.PrintWriter;
 import java.util.*;
-
-import static org.example.environment.TrafficLight.LightColor.GREEN;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
 /*
 a trafficLight with an id, state, interval
@@ -16,11 +20,68 @@ public class TrafficLight {
     public enum TrafficLevel {NONE, MEDIUM, HEAVY}
     public enum LightColor { GREEN, ORANGE, RED}
 
+    // Pour chaque couleur : rester, ou passer à la couleur suivante (seul switch autorisé)
+    public enum LightAction {
+        STAY_GREEN(LightColor.GREEN, true),
+        SWITCH_ORANGE(LightColor.ORANGE, false),
+        STAY_ORANGE(LightColor.ORANGE, true),
+        SWITCH_RED(LightColor.RED, false),
+        STAY_RED(LightColor.RED, true),
+        SWITCH_GREEN(LightColor.GREEN, false);
+
+        private final LightColor target;
+        private final boolean stay;
+
+        LightAction(LightColor target, boolean stay) {
+            this.target = target;
+            this.stay = stay;
+        }
+
+        public LightColor apply(LightColor current) {
+            return stay ? current : target;
+        }
+
+        public boolean isStay() {
+            return stay;
+        }
+    }
+
+    // Actions possibles par couleur (indexé par ordinal), case 0 = rester, case 1 = changer
+    private static final LightAction[][] ACTIONS_BY_COLOR = {
+            {LightAction.STAY_GREEN, LightAction.SWITCH_ORANGE},
+            {LightAction.STAY_ORANGE, LightAction.SWITCH_RED},
+            {LightAction.STAY_RED, LightAction.SWITCH_GREEN}
+    };
+    static final int STATE_COUNT = LightColor.values().length * TrafficLevel.values().length;
+    static final int ACTIONS_PER_STATE = 2;
+
+    // Résolution du MDP par updatePolicy() : valueIteration() historique, ou un solveur de org.example.mdp ;
+    // les solveurs WARM_* repartent de la fonction de valeur précédente au lieu de zéro
+    public enum PolicySolver { VALUE_ITERATION, SPARSE_VALUE_ITERATION, WARM_POLICY_ITERATION, WARM_PRIORITIZED_SWEEPING }
+    private static final int POLICY_EVALUATION_SWEEPS = 5;
+    private static final long MAX_PRIORITIZED_BACKUPS = 100_000;
+
+    // Ce que le feu a appris, à plat et indexé par stateIndex() : Q[état * 2 + case d'action], valeur de l'état,
+    // et action optimale (ordinal de LightAction), avec le modèle (matrice, récompenses) pour lequel c'est valable.
+    // Format de PolicyStore.
+    public record LearnedPolicy(double[] model, double[] qValues, double[] values, byte[] actions) {
+        public static final int STATES = STATE_COUNT;
+        public static final int Q_VALUES = STATE_COUNT * ACTIONS_PER_STATE;
+    }
+
     private String id;
     private LightColor state;
     private int changeInterval = 10;
     private int stepCount = 0;
 
+    // Plan à temps fixe (GreenWaveOptimizer), utilisé à la place du cycle manuel quand fixedCycle > 0 :
+    // vert pendant fixedGreen ticks de chaque cycle, décalé de fixedOffset, puis orange et rouge
+    private static final int AMBER_TICKS = 3;
+    private int fixedCycle = 0;
+    private int fixedGreen;
+    private int fixedOffset;
+    private int fixedTick = 0;
+
     private TrafficLevel currentTraffic;
     private Map<String, String> policy; // Learned policy
     private double[][] valueFunction; // State values
@@ -28,60 +89,47 @@ public class TrafficLight {
 
 
     // Q-learning parameters
-    private Map<String, Map<String, Double>> qTable;
+    private final double[][] qTable = new double[STATE_COUNT][ACTIONS_PER_STATE]; // [état][case d'action]
     private double alpha = 0.5; // Learning rate
     private double gamma = 0.9; // Discount factor
     private double epsilon = 0.05;// Exploration rate
+    private ReplayLearner learner; // non null : apprentissage déporté (mémoire partagée + mini-lots)
 
 
     private final TransitionMatrix transitionMatrix = new TransitionMatrix();
+    private TransitionEstimator estimator; // null : le modèle de transition reste celui de départ
+    private TrafficLevel lastObservedTraffic;
     private Position position;
 
+    // Paramètres de récompense des actions et version du modèle pour laquelle policy/valueFunction sont à jour
+    private static final double POLICY_THETA = 0.001;
+    private static final int MAX_POLICY_ITERATIONS = 2000;
+    private double stayBonus = 0.5;
+    private double switchPenalty = -2.0;
+    private long rewardVersion = 0;
+    private long solvedMatrixVersion = -1;
+    private long solvedRewardVersion = -1;
+    private PolicySolver policySolver = PolicySolver.VALUE_ITERATION;
+    private double[] solvedModel; // policyModel() de valueFunction : états à réexaminer par le balayage par priorités
+
 
 
     public TrafficLight(String id, LightColor state) {
         this.id = id;
         this.state = state;
         this.currentTraffic = TrafficLevel.NONE;
-        this.qTable = initializeQTable();
-    }
-
-    private Map<String, Map<String, Double>> initializeQTable() {
-        Map<String, Map<String, Double>> table = new HashMap<>();
-        for (LightColor color : LightColor.values()) {
-            for (TrafficLevel level : TrafficLevel.values()) {
-                String state = getStateKey(color, level);
-                table.put(state, new HashMap<>());
-                for (String action : getPossibleActions(color)) {
-                    table.get(state).put(action, 0.0);
-                }
-            }
-        }
-        return table;
     }
 
     private String getStateKey(LightColor color, TrafficLevel level) {
         return color.toString() + "_" + level.toString();
     }
 
-    private List<String> getPossibleActions(LightColor currentColor) {
-        List<String> actions = new ArrayList<>();
+    private static int stateIndex(LightColor color, TrafficLevel level) {
+        return color.ordinal() * TrafficLevel.values().length + level.ordinal();
+    }
 
-        switch (currentColor) {
-            case GREEN -> {
-                actions.add("STAY_GREEN");
-                actions.add("SWITCH_ORANGE"); // seul switch autorisé
-            }
-            case ORANGE -> {
-                actions.add("STAY_ORANGE");
-                actions.add("SWITCH_RED"); // seul switch autorisé
-            }
-            case RED -> {
-                actions.add("STAY_RED");
-                actions.add("SWITCH_GREEN"); // seul switch autorisé
-            }
-        }
-        return actions;
+    private static LightAction[] getPossibleActions(LightColor currentColor) {
+        return ACTIONS_BY_COLOR[currentColor.ordinal()];
     }
 
 
@@ -96,63 +144,113 @@ public class TrafficLight {
         }
     }
 
+    /**
+     * Apprend la matrice de transition du trafic réellement observé (voir TransitionEstimator), publiée tous les
+     * publishInterval appels à observeTraffic().
+     */
+    public void enableTransitionLearning(int publishInterval) {
+        this.estimator = new TransitionEstimator(transitionMatrix, publishInterval);
+        this.lastObservedTraffic = null;
+    }
+
+    public void disableTransitionLearning() {
+        this.estimator = null;
+    }
+
+    public TransitionEstimator getTransitionEstimator() {
+        return estimator;
+    }
+
+    // Une fois par tick, après updateTrafficLevel() : compte la transition de niveau depuis le tick précédent
+    public void observeTraffic() {
+        if (estimator == null) return;
+        if (lastObservedTraffic != null) {
+            estimator.observeLevel(lastObservedTraffic, currentTraffic);
+        }
+        lastObservedTraffic = currentTraffic;
+    }
+
+    // Sans allocation : indices d'état et d'action, table dense, aléa du thread courant
     public void mdpUpdate() {
         // Get current state
-        String currentState = getStateKey(state, currentTraffic);
+        int currentState = stateIndex(state, currentTraffic);
+        double[] currentQ = qTable[currentState];
 
         // Choose action (ε-greedy for Q-learning)
-        String action;
-        if (Math.random() < epsilon) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int slot;
+        if (random.nextDouble() < epsilon) {
             // Explore: random action
-            List<String> possibleActions = getPossibleActions(state);
-            action = possibleActions.get((int)(Math.random() * possibleActions.size()));
+            slot = random.nextInt(ACTIONS_PER_STATE);
         } else {
             // Exploit: best known action
-            action = getBestAction(currentState);
+            slot = learner != null ? learner.bestSlot(currentState) : bestSlot(currentQ);
         }
 
         // Execute action
-        executeAction(action);
+        executeAction(getPossibleActions(state)[slot]);
 
         // Observe reward and new state
         double reward = calculateReward();
-        String newState = getStateKey(state, currentTraffic);
+        int newState = stateIndex(state, currentTraffic);
+        if (learner != null) {
+            // La transition part dans la mémoire partagée ; la mise à jour se fait sur le thread du learner
+            learner.record(currentState, slot, reward, newState);
+            return;
+        }
+        double[] newQ = qTable[newState];
 
         // Q-learning update
-        double maxQNewState = getMaxQValue(newState);
-        double currentQ = qTable.get(currentState).get(action);
-        double newQ = currentQ + alpha * (reward + gamma * maxQNewState - currentQ);
-        qTable.get(currentState).put(action, newQ);
+        double maxQNewState = newQ[bestSlot(newQ)];
+        currentQ[slot] += alpha * (reward + gamma * maxQNewState - currentQ[slot]);
+    }
+
+    private static int bestSlot(double[] actionValues) {
+        int best = 0;
+        for (int i = 1; i < actionValues.length; i++) {
+            if (actionValues[i] > actionValues[best]) best = i;
+        }
+        return best;
     }
 
-    private String getBestAction(String state) {
-        Map<String, Double> stateActions = qTable.get(state);
-        return Collections.max(stateActions.entrySet(), Map.Entry.comparingByValue()).getKey();
+    public double getQValue(LightColor color, TrafficLevel level, LightAction action) {
+        LightAction[] actions = getPossibleActions(color);
+        int slot = actions[0] == action ? 0 : actions[1] == action ? 1 : -1;
+        if (slot < 0) {
+            throw new IllegalArgumentException("Action " + action + " impossible en " + color + " pour le feu " + id);
+        }
+        if (learner != null) {
+            return learner.getQValue(stateIndex(color, level), slot);
+        }
+        return qTable[stateIndex(color, level)][slot];
     }
 
-    private double getMaxQValue(String state) {
-        return Collections.max(qTable.get(state).values());
+    // Les transitions de mdpUpdate() vont au learner (table partagée ou par classe de feux) au lieu de qTable
+    public void attachLearner(ReplayLearner learner) {
+        this.learner = learner;
     }
 
-    public void executeAction(String action) {
+    // Retour à l'apprentissage en ligne, en repartant de la table apprise par le learner
+    public void detachLearner() {
+        if (learner == null) return;
+        double[] learned = learner.getPublishedQ();
+        for (int s = 0; s < STATE_COUNT; s++) {
+            System.arraycopy(learned, s * ACTIONS_PER_STATE, qTable[s], 0, ACTIONS_PER_STATE);
+        }
+        learner = null;
+    }
 
-        switch (action) {
-            case "STAY_RED":
-            case "STAY_GREEN":
-            case "STAY_ORANGE":
-                // No color change
-                break;
-            case "SWITCH_GREEN":
-                this.state = GREEN;
-                break;
-            case "SWITCH_ORANGE":
-                this.state = LightColor.ORANGE;
-                break;
-            case "SWITCH_RED":
-                this.state = LightColor.RED;
-                break;
+    public void executeAction(LightAction action) {
+        LightColor previous = this.state;
+        this.state = action.apply(previous);
+        if (estimator != null) {
+            estimator.observeColor(previous, action, this.state);
         }
     }
+
+    public void executeAction(String action) {
+        executeAction(LightAction.valueOf(action));
+    }
     private double calculateReward() {
         return calculateReward(state, currentTraffic);
     }
@@ -182,7 +280,7 @@ public class TrafficLight {
 
     public void valueIteration(double theta) {
         valueFunction = new double[LightColor.values().length][TrafficLevel.values().length];
-        int maxIterations = 2000;
+        int maxIterations = MAX_POLICY_ITERATIONS;
         double gamma = 0.8;  // Réduire encore
 
         for (int i = 0; i < maxIterations; i++) {
@@ -192,7 +290,7 @@ public class TrafficLight {
                     double oldValue = valueFunction[color.ordinal()][level.ordinal()];
                     double maxValue = Double.NEGATIVE_INFINITY;
 
-                    for (String action : getPossibleActions(color)) {
+                    for (LightAction action : getPossibleActions(color)) {
                         double actionValue = calculateActionValue(color, level, action, gamma);
                         maxValue = Math.max(maxValue, actionValue);
                     }
@@ -204,6 +302,7 @@ public class TrafficLight {
             if (delta < theta) break;
         }
         extractPolicy();
+        solvedModel = policyModel();
     }
 
     private double[] getTrafficTransitionProbs(TrafficLevel currentLevel) {
@@ -211,22 +310,11 @@ public class TrafficLight {
     }
 
 
-    private LightColor applyAction(LightColor current, String action) {
-        switch (action) {
-            case "SWITCH_GREEN": return LightColor.GREEN;
-            case "SWITCH_ORANGE": return LightColor.ORANGE;
-            case "SWITCH_RED": return LightColor.RED;
-            default: return current;
-        }
-    }
-
-
-
-    private double calculateActionValue(LightColor color, TrafficLevel level, String action, double gamma) {
+    private double calculateActionValue(LightColor color, TrafficLevel level, LightAction action, double gamma) {
         double total = 0.0;
 
         // 1. Couleur suivante déterminée par l'action
-        LightColor nextColor = applyAction(color, action);
+        LightColor nextColor = action.apply(color);
 
         // 2. Probabilités d'évolution du trafic (indépendantes de l'action)
         double[] trafficProbs = getTrafficTransitionProbs(level);
@@ -244,10 +332,17 @@ public class TrafficLight {
 
         return total;
     }
-    private double getActionPenalty(String action) {
+    private double getActionPenalty(LightAction action) {
         // Récompense neutre ou bonus pour rester stable, pénalité pour changer
-        if (action.startsWith("STAY_")) return 0.5;
-        return -2.0; // Pénalité pour éviter les changements trop fréquents
+        if (action.isStay()) return stayBonus;
+        return switchPenalty; // Pénalité pour éviter les changements trop fréquents
+    }
+
+    public void setActionRewards(double stayBonus, double switchPenalty) {
+        if (stayBonus == this.stayBonus && switchPenalty == this.switchPenalty) return;
+        this.stayBonus = stayBonus;
+        this.switchPenalty = switchPenalty;
+        rewardVersion++;
     }
 
 
@@ -259,9 +354,9 @@ public class TrafficLight {
             for (TrafficLevel level : TrafficLevel.values()) {
                 String stateKey = getStateKey(color, level);
                 double bestValue = Double.NEGATIVE_INFINITY;
-                String bestAction = "STAY_" + color.name(); // valeur par défaut
+                LightAction bestAction = getPossibleActions(color)[0]; // valeur par défaut : rester
 
-                for (String action : getPossibleActions(color)) {
+                for (LightAction action : getPossibleActions(color)) {
                     double actionValue = calculateActionValue(color, level, action, gammaLocal);
                     if (actionValue > bestValue) {
                         bestValue = actionValue;
@@ -269,7 +364,7 @@ public class TrafficLight {
                     }
                 }
 
-                policy.put(stateKey, bestAction);
+                policy.put(stateKey, bestAction.name());
                 valueFunction[color.ordinal()][level.ordinal()] = bestValue;
             }
         }
@@ -307,15 +402,16 @@ public class TrafficLight {
         }
         System.out.println();
 
-        for (String fromState : transitionMatrix.transitions.keySet()) {
-            System.out.printf("%-15s", fromState);
-            for (TrafficLevel level : TrafficLevel.values()) {
-                for (LightColor color : LightColor.values()) {
-                    String toState = color + "_" + level;
-                    System.out.printf("%-15.2f", transitionMatrix.getProbability(fromState, toState));
+        for (LightColor fromColor : LightColor.values()) {
+            for (TrafficLevel fromLevel : TrafficLevel.values()) {
+                System.out.printf("%-15s", getStateKey(fromColor, fromLevel));
+                for (TrafficLevel level : TrafficLevel.values()) {
+                    for (LightColor color : LightColor.values()) {
+                        System.out.printf("%-15.2f", transitionMatrix.getProbability(fromColor, fromLevel, color, level));
+                    }
                 }
+                System.out.println();
             }
-            System.out.println();
         }
     }
 
@@ -338,9 +434,249 @@ public class TrafficLight {
         }
     }
 
+    /**
+     * Ne recalcule la politique que si la matrice de transition ou les récompenses ont changé depuis le dernier
+     * calcul ; un modèle déjà résolu (par ce feu ou un autre) est repris du cache partagé.
+     */
     public void updatePolicy() {
-        this.valueIteration(0.001); // Recalculer avec la nouvelle matrice
-        this.extractPolicy();
+        if (policy != null && solvedMatrixVersion == transitionMatrix.getVersion()
+                && solvedRewardVersion == rewardVersion) {
+            return;
+        }
+
+        PolicyCache.Solution solution = PolicyCache.shared().getOrSolve(policyCacheKey(), () -> {
+            if (policySolver != PolicySolver.VALUE_ITERATION) {
+                this.solveWithSparseSolver(POLICY_THETA);
+            } else {
+                this.valueIteration(POLICY_THETA); // Recalculer avec la nouvelle matrice
+            }
+            return new PolicyCache.Solution(Collections.unmodifiableMap(policy), valueFunction);
+        });
+        this.policy = solution.policy();
+        this.valueFunction = solution.valueFunction();
+        this.solvedModel = policyModel();
+        this.solvedMatrixVersion = transitionMatrix.getVersion();
+        this.solvedRewardVersion = rewardVersion;
+    }
+
+    // Contenu du modèle résolu : probabilités d'évolution du trafic, paramètres de récompense, seuil
+    private double[] policyModel() {
+        double[] matrix = transitionMatrix.getTrafficMatrixSnapshot();
+        double[] model = Arrays.copyOf(matrix, matrix.length + 3);
+        model[matrix.length] = stayBonus;
+        model[matrix.length + 1] = switchPenalty;
+        model[matrix.length + 2] = POLICY_THETA;
+        return model;
+    }
+
+    // Clé du cache partagé : le modèle, plus le solveur et ses bornes (deux solveurs n'ont pas la même politique
+    // à la tolérance près, et un feu ne doit pas reprendre celle d'un autre solveur)
+    private PolicyCache.Key policyCacheKey() {
+        double[] model = policyModel();
+        double[] key = Arrays.copyOf(model, model.length + 3);
+        key[model.length] = policySolver.ordinal();
+        key[model.length + 1] = switch (policySolver) {
+            case WARM_POLICY_ITERATION -> POLICY_EVALUATION_SWEEPS;
+            case WARM_PRIORITIZED_SWEEPING -> MAX_PRIORITIZED_BACKUPS;
+            default -> 0;
+        };
+        key[model.length + 2] = MAX_POLICY_ITERATIONS;
+        return new PolicyCache.Key(key);
+    }
+
+    /**
+     * Le modèle du feu sous forme creuse : un état par (couleur, niveau de trafic), une action par LightAction
+     * autorisée (label = ordinal), une transition par niveau de trafic suivant.
+     */
+    public SparseMdp toSparseMdp() {
+        SparseMdp.Builder builder = SparseMdp.builder(STATE_COUNT);
+        for (LightColor color : LightColor.values()) {
+            for (TrafficLevel level : TrafficLevel.values()) {
+                int stateIndex = stateIndex(color, level);
+                double[] trafficProbs = getTrafficTransitionProbs(level);
+                for (LightAction action : getPossibleActions(color)) {
+                    builder.addAction(stateIndex, action.ordinal());
+                    LightColor nextColor = action.apply(color);
+                    for (TrafficLevel nextLevel : TrafficLevel.values()) {
+                        double reward = calculateReward(nextColor, nextLevel) + getActionPenalty(action);
+                        builder.addTransition(stateIndex(nextColor, nextLevel), trafficProbs[nextLevel.ordinal()], reward);
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Même rôle que valueIteration(theta), via le solveur générique choisi par setPolicySolver() (itération sur
+     * les valeurs synchrone si VALUE_ITERATION). Les modes WARM_* partent de la fonction de valeur courante :
+     * après une petite mise à jour du modèle, quelques mises à jour d'états suffisent.
+     */
+    public MdpSolveStats solveWithSparseSolver(double theta) {
+        double gamma = 0.8; // même valeur que dans valueIteration
+        MdpSolver solver = new MdpSolver(gamma, theta, MAX_POLICY_ITERATIONS);
+        SparseMdp mdp = toSparseMdp();
+        double[] previous = null;
+        if (valueFunction != null) {
+            previous = new double[STATE_COUNT];
+            for (LightColor color : LightColor.values()) {
+                for (TrafficLevel level : TrafficLevel.values()) {
+                    previous[stateIndex(color, level)] = valueFunction[color.ordinal()][level.ordinal()];
+                }
+            }
+        }
+        double[] model = policyModel();
+        MdpSolution solution = switch (policySolver) {
+            case WARM_POLICY_ITERATION -> solver.solveModifiedPolicyIteration(mdp, previous, POLICY_EVALUATION_SWEEPS);
+            case WARM_PRIORITIZED_SWEEPING -> solver.solvePrioritized(mdp, previous,
+                    previous != null ? changedStates(solvedModel, model) : null, MAX_PRIORITIZED_BACKUPS);
+            default -> solver.solve(mdp);
+        };
+        solvedModel = model;
+
+        valueFunction = new double[LightColor.values().length][TrafficLevel.values().length];
+        policy = new HashMap<>();
+        for (LightColor color : LightColor.values()) {
+            for (TrafficLevel level : TrafficLevel.values()) {
+                int stateIndex = stateIndex(color, level);
+                valueFunction[color.ordinal()][level.ordinal()] = solution.values()[stateIndex];
+                policy.put(getStateKey(color, level), LightAction.values()[solution.policy()[stateIndex]].name());
+            }
+        }
+        return solution.stats();
+    }
+
+    /**
+     * États dont les transitions ou récompenses diffèrent entre deux policyModel() : ceux dont le niveau de trafic a
+     * une ligne de matrice modifiée. null (tous les états) si les récompenses, le seuil ou la taille ont changé.
+     */
+    private static int[] changedStates(double[] before, double[] after) {
+        int levels = TrafficLevel.values().length;
+        int matrixLength = levels * levels;
+        if (before == null || before.length != after.length
+                || !Arrays.equals(before, matrixLength, before.length, after, matrixLength, after.length)) {
+            return null;
+        }
+        int[] states = new int[STATE_COUNT];
+        int count = 0;
+        for (TrafficLevel level : TrafficLevel.values()) {
+            int row = level.ordinal() * levels;
+            if (Arrays.equals(before, row, row + levels, after, row, row + levels)) continue;
+            for (LightColor color : LightColor.values()) {
+                states[count++] = stateIndex(color, level);
+            }
+        }
+        return Arrays.copyOf(states, count);
+    }
+
+    /**
+     * Q-learning hors ligne, sans affichage ni allocation : steps transitions simulées où la couleur suit
+     * l'action choisie (ε-greedy) et le niveau de trafic est tiré selon la matrice de transition du feu (le modèle
+     * de demande). La récompense est celle du MDP (calculateReward + bonus/pénalité de l'action).
+     * L'état réel du feu (couleur, trafic courant) n'est pas modifié.
+     */
+    public void trainOffline(long steps, SplittableRandom random) {
+        TrafficLevel[] levels = TrafficLevel.values();
+        double[][] trafficProbs = new double[levels.length][];
+        for (TrafficLevel level : levels) {
+            trafficProbs[level.ordinal()] = getTrafficTransitionProbs(level);
+        }
+
+        LightColor color = LightColor.values()[random.nextInt(LightColor.values().length)];
+        int level = random.nextInt(levels.length);
+        for (long step = 0; step < steps; step++) {
+            double[] currentQ = qTable[stateIndex(color, levels[level])];
+            int slot = random.nextDouble() < epsilon ? random.nextInt(ACTIONS_PER_STATE) : bestSlot(currentQ);
+            LightAction action = getPossibleActions(color)[slot];
+
+            // Niveau suivant tiré selon la ligne de la matrice
+            double[] probs = trafficProbs[level];
+            double u = random.nextDouble();
+            int nextLevel = probs.length - 1;
+            for (int i = 0; i < probs.length - 1; i++) {
+                u -= probs[i];
+                if (u < 0) {
+                    nextLevel = i;
+                    break;
+                }
+            }
+            LightColor nextColor = action.apply(color);
+
+            double reward = calculateReward(nextColor, levels[nextLevel]) + getActionPenalty(action);
+            double[] nextQ = qTable[stateIndex(nextColor, levels[nextLevel])];
+            currentQ[slot] += alpha * (reward + gamma * nextQ[bestSlot(nextQ)] - currentQ[slot]);
+
+            color = nextColor;
+            level = nextLevel;
+        }
+    }
+
+    /** Copie de la table Q, de la fonction de valeur et de la politique (updatePolicy() doit avoir été appelé). */
+    public LearnedPolicy getLearnedPolicy() {
+        if (policy == null || valueFunction == null) {
+            throw new IllegalStateException("Aucune politique calculée pour le feu " + id);
+        }
+        double[] qValues = new double[LearnedPolicy.Q_VALUES];
+        double[] values = new double[STATE_COUNT];
+        byte[] actions = new byte[STATE_COUNT];
+        for (LightColor color : LightColor.values()) {
+            for (TrafficLevel level : TrafficLevel.values()) {
+                int stateIndex = stateIndex(color, level);
+                System.arraycopy(qTable[stateIndex], 0, qValues, stateIndex * ACTIONS_PER_STATE, ACTIONS_PER_STATE);
+                values[stateIndex] = valueFunction[color.ordinal()][level.ordinal()];
+                actions[stateIndex] = (byte) LightAction.valueOf(policy.get(getStateKey(color, level))).ordinal();
+            }
+        }
+        return new LearnedPolicy(policyModel(), qValues, values, actions);
+    }
+
+    /**
+     * Reprend une politique apprise (par exemple chargée par PolicyStore) si elle a été calculée pour le modèle
+     * courant du feu ; updatePolicy() ne la recalcule ensuite qu'après un changement de la matrice ou des récompenses.
+     * @return false (rien n'est modifié) si le modèle a changé depuis : la politique est à réentraîner
+     */
+    public boolean setLearnedPolicy(LearnedPolicy learned) {
+        if (!Arrays.equals(learned.model(), policyModel())) {
+            return false;
+        }
+        if (learned.qValues().length != LearnedPolicy.Q_VALUES || learned.values().length != STATE_COUNT
+                || learned.actions().length != STATE_COUNT) {
+            throw new IllegalArgumentException("Politique apprise de taille inattendue pour le feu " + id);
+        }
+        double[][] values = new double[LightColor.values().length][TrafficLevel.values().length];
+        Map<String, String> learnedPolicy = new HashMap<>();
+        for (LightColor color : LightColor.values()) {
+            for (TrafficLevel level : TrafficLevel.values()) {
+                int stateIndex = stateIndex(color, level);
+                int ordinal = learned.actions()[stateIndex];
+                LightAction[] possible = getPossibleActions(color);
+                if (ordinal != possible[0].ordinal() && ordinal != possible[1].ordinal()) {
+                    throw new IllegalArgumentException("Action " + ordinal + " impossible en " + color + " pour le feu " + id);
+                }
+                LightAction action = LightAction.values()[ordinal];
+                System.arraycopy(learned.qValues(), stateIndex * ACTIONS_PER_STATE, qTable[stateIndex], 0, ACTIONS_PER_STATE);
+                values[color.ordinal()][level.ordinal()] = learned.values()[stateIndex];
+                learnedPolicy.put(getStateKey(color, level), action.name());
+            }
+        }
+        this.valueFunction = values;
+        this.policy = learnedPolicy;
+        this.solvedModel = learned.model().clone();
+        this.solvedMatrixVersion = transitionMatrix.getVersion();
+        this.solvedRewardVersion = rewardVersion;
+        return true;
+    }
+
+    public void setPolicySolver(PolicySolver policySolver) {
+        this.policySolver = policySolver;
+    }
+
+    public PolicySolver getPolicySolver() {
+        return policySolver;
+    }
+
+    public TransitionMatrix getTransitionMatrix() {
+        return transitionMatrix;
     }
 
 
@@ -367,6 +703,10 @@ public class TrafficLight {
     }
 
     public void update() {
+        if (!useMDP && fixedCycle > 0) {
+            state = fixedTimeColor(++fixedTick);
+            return;
+        }
         stepCount++;
         if (stepCount % changeInterval == 0) {
             if (!useMDP) {
@@ -376,6 +716,37 @@ public class TrafficLight {
         }
     }
 
+    /**
+     * Passe le feu en plan à temps fixe (sans MDP) : l'horloge du plan repart de 0, les feux d'un même corridor
+     * doivent donc recevoir leur plan au même tick pour que les décalages soient respectés.
+     */
+    public void setFixedTimePlan(int cycle, int greenTicks, int offset) {
+        if (cycle <= 0 || greenTicks <= 0 || greenTicks > cycle) {
+            throw new IllegalArgumentException("plan à temps fixe invalide : cycle " + cycle + ", vert " + greenTicks);
+        }
+        this.fixedCycle = cycle;
+        this.fixedGreen = greenTicks;
+        this.fixedOffset = Math.floorMod(offset, cycle);
+        this.fixedTick = 0;
+        this.useMDP = false;
+        this.state = fixedTimeColor(0);
+    }
+
+    public void clearFixedTimePlan() {
+        this.fixedCycle = 0;
+    }
+
+    public boolean hasFixedTimePlan() {
+        return fixedCycle > 0;
+    }
+
+    private LightColor fixedTimeColor(int tick) {
+        int phase = Math.floorMod(tick - fixedOffset, fixedCycle);
+        if (phase < fixedGreen) return LightColor.GREEN;
+        if (phase < fixedGreen + AMBER_TICKS) return LightColor.ORANGE;
+        return LightColor.RED;
+    }
+
     public void setUseMDP(boolean useMDP) {
         this.useMDP = useMDP;
     }
@@ -0,0 +1,157 @@
+package org.example.environment;
+
+import org.example.environment.TrafficLight.LightAction;
+import org.example.environment.TrafficLight.LightColor;
+import org.example.environment.TrafficLight.TrafficLevel;
+
+import java.util.Arrays;
+
+/*
+Estimation en continu du modèle de transition d'un feu à partir du trafic observé :
+ - niveau de trafic -> niveau suivant (une observation par tick), publié dans la TransitionMatrix du feu ;
+ - (couleur, action) -> couleur suivante (une observation par action exécutée), pour le diagnostic seulement :
+   dans le MDP la couleur suivante est fixée par l'action, rien n'est donc publié.
+Les comptes sont des tableaux primitifs (une incrémentation par observation). Tous les publishInterval ticks, les
+lignes de niveaux sont normalisées et publiées dans la TransitionMatrix du feu : la version de la matrice change
+et updatePolicy() recalcule la politique sur le trafic réel.
+Chaque ligne part d'un a priori (PRIOR_WEIGHT observations fictives réparties selon la matrice initiale), ce qui
+évite les probabilités nulles tant que peu de transitions ont été vues. Les lignes publiées sont arrondies à
+PUBLISH_QUANTUM près, et une ligne n'est republiée que si l'estimation s'est éloignée d'au moins un pas de la
+ligne en place : la politique n'est pas invalidée à chaque publication, et des feux au trafic voisin publient le
+même modèle, qui partage donc une seule entrée de PolicyCache.
+ */
+public final class TransitionEstimator {
+
+    private static final double PRIOR_WEIGHT = 10.0;
+    private static final int PUBLISH_STEPS = 20;
+    private static final double PUBLISH_QUANTUM = 1.0 / PUBLISH_STEPS;
+
+    private static final int LEVELS = TrafficLevel.values().length;
+    private static final int COLORS = LightColor.values().length;
+    private static final int ACTIONS = LightAction.values().length;
+
+    private final TransitionMatrix matrix;
+    private final int publishInterval;
+    private final double[] priorLevels; // matrice initiale, à plat
+    private final long[] levelCounts = new long[LEVELS * LEVELS]; // [niveau * LEVELS + niveau suivant]
+    private final long[] colorCounts = new long[COLORS * ACTIONS * COLORS]; // [(couleur * ACTIONS + action) * COLORS + couleur suivante]
+    private final double[] row = new double[LEVELS];
+    private final double[] quantized = new double[LEVELS];
+    private final int[] steps = new int[LEVELS];
+    private int sinceLastPublish = 0;
+    private long publications = 0;
+
+    public TransitionEstimator(TransitionMatrix matrix, int publishInterval) {
+        if (publishInterval <= 0) {
+            throw new IllegalArgumentException("publishInterval doit être > 0 : " + publishInterval);
+        }
+        this.matrix = matrix;
+        this.publishInterval = publishInterval;
+        this.priorLevels = matrix.getTrafficMatrixSnapshot();
+    }
+
+    public void observeLevel(TrafficLevel level, TrafficLevel nextLevel) {
+        levelCounts[level.ordinal() * LEVELS + nextLevel.ordinal()]++;
+        if (++sinceLastPublish >= publishInterval) {
+            publish();
+        }
+    }
+
+    public void observeColor(LightColor color, LightAction action, LightColor nextColor) {
+        colorCounts[(color.ordinal() * ACTIONS + action.ordinal()) * COLORS + nextColor.ordinal()]++;
+    }
+
+    /** Publie les lignes de niveaux qui ont suffisamment changé ; renvoie le nombre de lignes publiées. */
+    public int publish() {
+        sinceLastPublish = 0;
+        int published = 0;
+        for (TrafficLevel level : TrafficLevel.values()) {
+            estimateLevelRow(level.ordinal(), row);
+            double[] current = matrix.getTrafficTransitionProbs(level);
+            double change = 0.0;
+            for (int i = 0; i < LEVELS; i++) {
+                change = Math.max(change, Math.abs(row[i] - current[i]));
+            }
+            if (change < PUBLISH_QUANTUM) continue;
+            quantize(row, quantized);
+            if (!Arrays.equals(quantized, current)) {
+                matrix.setTrafficTransitionProbs(level, quantized);
+                published++;
+            }
+        }
+        if (published > 0) publications++;
+        return published;
+    }
+
+    // Arrondit une ligne de probabilités à des multiples de PUBLISH_QUANTUM (au moins un pas chacune), de somme 1
+    private void quantize(double[] probabilities, double[] target) {
+        int total = 0;
+        for (int i = 0; i < LEVELS; i++) {
+            steps[i] = Math.max(1, (int) Math.round(probabilities[i] * PUBLISH_STEPS));
+            total += steps[i];
+        }
+        // Écart d'arrondi : corrigé sur les probabilités les plus (ou les moins) sous-estimées
+        while (total != PUBLISH_STEPS) {
+            int adjust = total < PUBLISH_STEPS ? 1 : -1;
+            int best = -1;
+            double bestError = 0.0;
+            for (int i = 0; i < LEVELS; i++) {
+                if (adjust < 0 && steps[i] == 1) continue;
+                double error = (probabilities[i] * PUBLISH_STEPS - steps[i]) * adjust;
+                if (best < 0 || error > bestError) {
+                    best = i;
+                    bestError = error;
+                }
+            }
+            steps[best] += adjust;
+            total += adjust;
+        }
+        for (int i = 0; i < LEVELS; i++) {
+            target[i] = steps[i] / (double) PUBLISH_STEPS;
+        }
+    }
+
+    // P(niveau suivant | level) : comptes + a priori, normalisés
+    private void estimateLevelRow(int level, double[] target) {
+        long total = 0;
+        for (int next = 0; next < LEVELS; next++) total += levelCounts[level * LEVELS + next];
+        double denominator = total + PRIOR_WEIGHT;
+        for (int next = 0; next < LEVELS; next++) {
+            target[next] = (levelCounts[level * LEVELS + next] + PRIOR_WEIGHT * priorLevels[level * LEVELS + next]) / denominator;
+        }
+    }
+
+    public double getLevelTransitionProbability(TrafficLevel level, TrafficLevel nextLevel) {
+        double[] estimate = new double[LEVELS];
+        estimateLevelRow(level.ordinal(), estimate);
+        return estimate[nextLevel.ordinal()];
+    }
+
+    /**
+     * Fréquence observée de nextColor après action en color (action null : toutes actions confondues),
+     * 0 si la situation n'a jamais été observée.
+     */
+    public double getColorTransitionProbability(LightColor color, LightAction action, LightColor nextColor) {
+        long hits = 0;
+        long total = 0;
+        for (int a = 0; a < ACTIONS; a++) {
+            if (action != null && a != action.ordinal()) continue;
+            for (int next = 0; next < COLORS; next++) {
+                long count = colorCounts[(color.ordinal() * ACTIONS + a) * COLORS + next];
+                total += count;
+                if (next == nextColor.ordinal()) hits += count;
+            }
+        }
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public long getObservedLevelTransitions() {
+        long total = 0;
+        for (long count : levelCounts) total += count;
+        return total;
+    }
+
+    public long getPublications() {
+        return publications;
+    }
+}
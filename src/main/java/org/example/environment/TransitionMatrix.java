@@ -1,16 +1,17 @@
 package org.example.environment;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Random;
 
 public class TransitionMatrix {
     private final Random random = new Random();
-    final Map<String, Map<String, Double>> transitions;
     private final double[][] trafficChangeMatrix; // Nouvelle matrice pour l'évolution du trafic
+    // P(couleur suivante | couleur), indexé par ordinal : table dense (les clés "COULEUR_NIVEAU" ne servent plus
+    // qu'à l'affichage) ; n'entre pas dans le MDP, où la couleur suivante est fixée par l'action
+    private final double[][] colorChangeMatrix;
+    private long version = 0; // incrémenté à chaque changement des probabilités (invalide les politiques calculées)
 
     public TransitionMatrix() {
-        this.transitions = new HashMap<>();
         // Matrice de changement de trafic: P(next_traffic | current_traffic)
         // Matrice plus progressive pour l'évolution du trafic
         this.trafficChangeMatrix = new double[][]{
@@ -19,56 +20,61 @@ public class TransitionMatrix {
                 {0.4,    0.3,    0.3},    // Après MEDIUM
                 {0.2,    0.4,    0.4}      // Après HEAVY
         };
-        initializeRealisticTransitions();
+        this.colorChangeMatrix = new double[][]{
+                // GREEN  ORANGE  RED
+                {0.7,    0.3,    0.0},   // reste vert / passe à orange
+                {0.0,    0.0,    1.0},   // orange passe toujours à rouge
+                {0.4,    0.0,    0.6}    // reste rouge / passe à vert
+        };
     }
     public double[] getTrafficTransitionProbs(TrafficLight.TrafficLevel level) {
         return trafficChangeMatrix[level.ordinal()];
     }
 
-    private void initializeRealisticTransitions() {
-        String[] colors = {"GREEN", "ORANGE", "RED"};
-        String[] levels = {"NONE", "MEDIUM", "HEAVY"};
-
-        for (String color : colors) {
-            for (String currentLevel : levels) {
-                String currentState = color + "_" + currentLevel;
-                Map<String, Double> stateTransitions = new HashMap<>();
-                int currentLevelIdx = TrafficLight.TrafficLevel.valueOf(currentLevel).ordinal();
+    // Remplace P(. | level) ; les probabilités sont normalisées
+    public void setTrafficTransitionProbs(TrafficLight.TrafficLevel level, double[] probs) {
+        double total = Arrays.stream(probs).sum();
+        double[] row = trafficChangeMatrix[level.ordinal()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = probs[i] / total;
+        }
+        version++;
+    }
 
-                switch (color) {
-                    case "GREEN" -> {
-                        stateTransitions.put("GREEN_" + currentLevel, 0.7);      // reste vert
-                        stateTransitions.put("ORANGE_" + currentLevel, 0.3);     // passe à orange
-                    }
-                    case "ORANGE" -> {
-                        stateTransitions.put("RED_" + currentLevel, 1.0);        // passe toujours à rouge
-                    }
-                    case "RED" -> {
-                        stateTransitions.put("RED_" + currentLevel, 0.6);        // reste rouge
-                        stateTransitions.put("GREEN_" + currentLevel, 0.4);      // passe à vert
-                    }
-                }
-                // 2. Transition de trafic plus progressive
-                for (String nextLevel : levels) {
-                    int nextLevelIdx = TrafficLight.TrafficLevel.valueOf(nextLevel).ordinal();
-                    double trafficProb = trafficChangeMatrix[currentLevelIdx][nextLevelIdx];
-                }
+    public long getVersion() {
+        return version;
+    }
 
-                transitions.put(currentState, normalizeProbabilities(stateTransitions));
-            }
+    // Copie à plat de la matrice d'évolution du trafic (ligne par ligne)
+    public double[] getTrafficMatrixSnapshot() {
+        int columns = trafficChangeMatrix[0].length;
+        double[] flat = new double[trafficChangeMatrix.length * columns];
+        for (int i = 0; i < trafficChangeMatrix.length; i++) {
+            System.arraycopy(trafficChangeMatrix[i], 0, flat, i * columns, columns);
         }
+        return flat;
     }
 
-    private Map<String, Double> normalizeProbabilities(Map<String, Double> probs) {
-        double total = probs.values().stream().mapToDouble(Double::doubleValue).sum();
-        Map<String, Double> normalized = new HashMap<>();
-        probs.forEach((state, prob) -> normalized.put(state, prob / total));
-        return normalized;
+    // 0 pour un état inconnu (clé mal formée, couleur ou niveau inexistant)
+    public double getProbability(String currentState, String nextState) {
+        int separator = currentState.indexOf('_');
+        int nextSeparator = nextState.indexOf('_');
+        if (separator < 0 || nextSeparator < 0) return 0.0;
+        try {
+            return getProbability(
+                    TrafficLight.LightColor.valueOf(currentState.substring(0, separator)),
+                    TrafficLight.TrafficLevel.valueOf(currentState.substring(separator + 1)),
+                    TrafficLight.LightColor.valueOf(nextState.substring(0, nextSeparator)),
+                    TrafficLight.TrafficLevel.valueOf(nextState.substring(nextSeparator + 1)));
+        } catch (IllegalArgumentException e) {
+            return 0.0;
+        }
     }
 
-    public double getProbability(String currentState, String nextState) {
-        return transitions.getOrDefault(currentState, new HashMap<>())
-                .getOrDefault(nextState, 0.0);
+    // Évolution de la couleur seule, au même niveau de trafic (comme la table historique)
+    public double getProbability(TrafficLight.LightColor color, TrafficLight.TrafficLevel level,
+                                 TrafficLight.LightColor nextColor, TrafficLight.TrafficLevel nextLevel) {
+        return level == nextLevel ? colorChangeMatrix[color.ordinal()][nextColor.ordinal()] : 0.0;
     }
 
     public String getNextState(String currentState, String action) {
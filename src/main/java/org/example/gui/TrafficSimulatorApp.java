@@ -20,6 +20,7 @@ import org.example.agent.Position;
 import org.example.agent.Vehicle;
 import org.example.environment.*;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -154,7 +155,6 @@ public class TrafficSimulatorApp extends Application {
 
         trafficLight = new TrafficLight("R1", GREEN);
         road.addTrafficLight(trafficLight, new Position(70, 1));
-        road.trainTrafficLights();
         road.enableMDP(true);
         road.setMDPDecisionInterval(5);
 
@@ -181,6 +181,11 @@ public class TrafficSimulatorApp extends Application {
 
         environment.getRoads().add(road);
         environment.buildGlobalGraph();
+        try {
+            environment.prepareSignalPolicies(PolicyStore.fileFor("gui-scenario1.policies"));
+        } catch (IOException e) {
+            System.out.println("❌ Erreur de chargement des politiques : " + e.getMessage());
+        }
 
         drawFrame();
     }
@@ -302,13 +307,12 @@ public class TrafficSimulatorApp extends Application {
                     for (Vehicle v : new ArrayList<>(lane2.getVehicles())) {
                         v.bdiCycle(lane2, road);
                     }
+                    environment.endTick();
 
                     lane1.removeArrivedVehicles();
                     lane2.removeArrivedVehicles();
                     // ✅ Supprimer les véhicules qui ont atteint leur destination
                     vehicles.removeIf(v -> v.getBeliefs().contains("AtDestination", true));
-                    lane1.getVehicles().removeIf(v -> v.getBeliefs().contains("AtDestination", true));
-                    lane2.getVehicles().removeIf(v -> v.getBeliefs().contains("AtDestination", true));
 
                     if (vehicles.isEmpty()) {
                         System.out.println("✅ Tous les véhicules sont arrivés. Fin de la simulation.");
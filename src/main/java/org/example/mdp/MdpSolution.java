@@ -0,0 +1,7 @@
+package org.example.mdp;
+
+/*
+Résultat d'une résolution : valeur de chaque état, action choisie (label donné au SparseMdp.Builder, -1 pour un
+état sans action) et statistiques de convergence.
+ */
+public record MdpSolution(double[] values, int[] policy, MdpSolveStats stats) {}
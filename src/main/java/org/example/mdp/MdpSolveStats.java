@@ -0,0 +1,16 @@
+package org.example.mdp;
+
+/*
+Statistiques de convergence d'une résolution : nombre de balayages complets, nombre de mises à jour d'états
+(backups), dernier écart max |V' - V|, durée et taille du problème.
+ */
+public record MdpSolveStats(int sweeps, long backups, double residual, boolean converged, long elapsedMicros,
+                            int states, int actions, int transitions) {
+
+    @Override
+    public String toString() {
+        return String.format("%s en %d balayages / %d mises à jour (écart %.2e), %d états / %d actions / %d transitions, %.1f ms",
+                converged ? "Convergé" : "Non convergé", sweeps, backups, residual, states, actions, transitions,
+                elapsedMicros / 1000.0);
+    }
+}
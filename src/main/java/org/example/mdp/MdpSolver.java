@@ -0,0 +1,270 @@
+package org.example.mdp;
+
+import org.example.util.IndexedMinHeap;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/*
+Itération sur les valeurs synchrone (Jacobi) sur un SparseMdp :
+    V'(s) = max_a [ R(a) + gamma * somme_t p(t) * V(next(t)) ]
+Chaque balayage lit V et écrit V' (deux tableaux primitifs échangés à chaque tour) ; les états sont répartis en
+blocs contigus traités en parallèle, sans synchronisation puisque chaque bloc n'écrit que ses propres cases.
+En dessous de PARALLEL_THRESHOLD états, le balayage reste séquentiel (le découpage coûterait plus qu'il ne gagne).
+ */
+public class MdpSolver {
+
+    public static final int PARALLEL_THRESHOLD = 4096;
+
+    private final double gamma;
+    private final double theta;
+    private final int maxSweeps;
+    private boolean parallel = true;
+
+    public MdpSolver(double gamma, double theta, int maxSweeps) {
+        if (gamma < 0 || gamma >= 1) {
+            throw new IllegalArgumentException("gamma doit être dans [0, 1) : " + gamma);
+        }
+        this.gamma = gamma;
+        this.theta = theta;
+        this.maxSweeps = maxSweeps;
+    }
+
+    public MdpSolver setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    public MdpSolution solve(SparseMdp mdp) {
+        return solve(mdp, null);
+    }
+
+    /**
+     * @param initialValues valeurs de départ (copiées), ou null pour partir de 0
+     */
+    public MdpSolution solve(SparseMdp mdp, double[] initialValues) {
+        long start = System.nanoTime();
+        int n = mdp.getStateCount();
+        double[] values = initialValues != null ? initialValues.clone() : new double[n];
+        double[] next = new double[n];
+
+        int blocks = blockCount(n);
+        double[] blockResidual = new double[blocks];
+
+        int sweeps = 0;
+        double residual = Double.POSITIVE_INFINITY;
+        while (sweeps < maxSweeps) {
+            double[] current = values;
+            double[] target = next;
+            forEachBlock(n, blocks, (block, from, to) -> blockResidual[block] = sweep(mdp, current, target, from, to));
+            sweeps++;
+
+            residual = 0.0;
+            for (double r : blockResidual) residual = Math.max(residual, r);
+            values = target;
+            next = current;
+            if (residual < theta) break;
+        }
+
+        int[] policy = new int[n];
+        double[] finalValues = values;
+        forEachBlock(n, blocks, (block, from, to) -> extractPolicy(mdp, finalValues, policy, from, to));
+
+        MdpSolveStats stats = new MdpSolveStats(sweeps, (long) sweeps * n, residual, residual < theta,
+                (System.nanoTime() - start) / 1000, n, mdp.getActionCount(), mdp.getTransitionCount());
+        return new MdpSolution(values, policy, stats);
+    }
+
+    /**
+     * Itération sur les politiques modifiée, à partir de initialValues (solution précédente) ou de 0 :
+     * un balayage d'amélioration (max sur les actions, politique gloutonne), puis evaluationSweeps balayages
+     * d'évaluation de cette politique (une seule action par état, pas de max), jusqu'à un écart < theta.
+     */
+    public MdpSolution solveModifiedPolicyIteration(SparseMdp mdp, double[] initialValues, int evaluationSweeps) {
+        long start = System.nanoTime();
+        int n = mdp.getStateCount();
+        double[] values = initialValues != null ? initialValues.clone() : new double[n];
+        double[] next = new double[n];
+        int[] greedy = new int[n]; // indice de ligne d'action (pas le label), -1 sans action
+
+        int blocks = blockCount(n);
+        double[] blockResidual = new double[blocks];
+
+        int sweeps = 0;
+        double residual = Double.POSITIVE_INFINITY;
+        while (sweeps < maxSweeps) {
+            double[] current = values;
+            double[] target = next;
+            forEachBlock(n, blocks, (block, from, to) -> blockResidual[block] = improve(mdp, current, target, greedy, from, to));
+            sweeps++;
+            residual = 0.0;
+            for (double r : blockResidual) residual = Math.max(residual, r);
+            values = target;
+            next = current;
+            if (residual < theta) break;
+
+            for (int k = 0; k < evaluationSweeps && sweeps < maxSweeps; k++) {
+                double[] evalCurrent = values;
+                double[] evalTarget = next;
+                forEachBlock(n, blocks, (block, from, to) -> evaluate(mdp, evalCurrent, evalTarget, greedy, from, to));
+                sweeps++;
+                values = evalTarget;
+                next = evalCurrent;
+            }
+        }
+
+        int[] policy = new int[n];
+        double[] finalValues = values;
+        forEachBlock(n, blocks, (block, from, to) -> extractPolicy(mdp, finalValues, policy, from, to));
+
+        MdpSolveStats stats = new MdpSolveStats(sweeps, (long) sweeps * n, residual, residual < theta,
+                (System.nanoTime() - start) / 1000, n, mdp.getActionCount(), mdp.getTransitionCount());
+        return new MdpSolution(values, policy, stats);
+    }
+
+    /**
+     * Balayage par priorités (séquentiel, mises à jour en place) à partir de initialValues : seuls les états dont
+     * l'erreur de Bellman |backup(s) - V(s)| dépasse theta sont mis à jour, le plus grand écart d'abord ; après
+     * chaque mise à jour, les prédécesseurs de l'état sont réévalués. Après un petit changement du modèle,
+     * seuls les états touchés et leur voisinage sont recalculés.
+     * @param seedStates états dont l'erreur doit être examinée au départ (ceux dont le modèle a changé),
+     *                   ou null pour tous
+     * @param maxBackups nombre maximal de mises à jour d'états
+     */
+    public MdpSolution solvePrioritized(SparseMdp mdp, double[] initialValues, int[] seedStates, long maxBackups) {
+        long start = System.nanoTime();
+        int n = mdp.getStateCount();
+        double[] values = initialValues != null ? initialValues.clone() : new double[n];
+        int[][] predecessorIndex = mdp.predecessorIndex();
+        int[] predecessorStart = predecessorIndex[0];
+        int[] predecessors = predecessorIndex[1];
+
+        // Tas min sur -erreur : le sommet est l'état de plus grande erreur
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+        if (seedStates == null) {
+            for (int s = 0; s < n; s++) enqueueIfStale(mdp, values, queue, s);
+        } else {
+            for (int s : seedStates) enqueueIfStale(mdp, values, queue, s);
+        }
+
+        long backups = 0;
+        while (!queue.isEmpty() && backups < maxBackups) {
+            int s = queue.poll();
+            values[s] = backup(mdp, values, s);
+            backups++;
+            for (int i = predecessorStart[s]; i < predecessorStart[s + 1]; i++) {
+                enqueueIfStale(mdp, values, queue, predecessors[i]);
+            }
+        }
+        // Écart max des états restés en file (0 si la file est vide : tous les écarts examinés sont < theta)
+        double residual = queue.isEmpty() ? 0.0 : -queue.peekKey();
+
+        int[] policy = new int[n];
+        extractPolicy(mdp, values, policy, 0, n);
+
+        MdpSolveStats stats = new MdpSolveStats(0, backups, residual, queue.isEmpty(),
+                (System.nanoTime() - start) / 1000, n, mdp.getActionCount(), mdp.getTransitionCount());
+        return new MdpSolution(values, policy, stats);
+    }
+
+    private void enqueueIfStale(SparseMdp mdp, double[] values, IndexedMinHeap queue, int s) {
+        double error = Math.abs(backup(mdp, values, s) - values[s]);
+        if (error >= theta) {
+            queue.insertOrDecrease(s, -error);
+        }
+    }
+
+    // max_a de la valeur de l'action (0 pour un état sans action)
+    private double backup(SparseMdp mdp, double[] values, int s) {
+        int[] actionStart = mdp.actionStart();
+        if (actionStart[s] == actionStart[s + 1]) return 0.0;
+        double best = Double.NEGATIVE_INFINITY;
+        for (int a = actionStart[s]; a < actionStart[s + 1]; a++) {
+            best = Math.max(best, actionValue(mdp, values, a));
+        }
+        return best;
+    }
+
+    private double improve(SparseMdp mdp, double[] values, double[] target, int[] greedy, int from, int to) {
+        int[] actionStart = mdp.actionStart();
+        double residual = 0.0;
+        for (int s = from; s < to; s++) {
+            int bestAction = -1;
+            double best = 0.0; // sans action : terminal
+            for (int a = actionStart[s]; a < actionStart[s + 1]; a++) {
+                double value = actionValue(mdp, values, a);
+                if (bestAction == -1 || value > best) {
+                    best = value;
+                    bestAction = a;
+                }
+            }
+            greedy[s] = bestAction;
+            target[s] = best;
+            residual = Math.max(residual, Math.abs(best - values[s]));
+        }
+        return residual;
+    }
+
+    private void evaluate(SparseMdp mdp, double[] values, double[] target, int[] greedy, int from, int to) {
+        for (int s = from; s < to; s++) {
+            target[s] = greedy[s] == -1 ? 0.0 : actionValue(mdp, values, greedy[s]);
+        }
+    }
+
+    // Un balayage sur [from, to) ; renvoie le plus grand écart |V' - V| du bloc
+    private double sweep(SparseMdp mdp, double[] values, double[] target, int from, int to) {
+        double residual = 0.0;
+        for (int s = from; s < to; s++) {
+            double best = backup(mdp, values, s);
+            target[s] = best;
+            residual = Math.max(residual, Math.abs(best - values[s]));
+        }
+        return residual;
+    }
+
+    private void extractPolicy(SparseMdp mdp, double[] values, int[] policy, int from, int to) {
+        int[] actionStart = mdp.actionStart();
+        int[] labels = mdp.actionLabel();
+        for (int s = from; s < to; s++) {
+            int bestAction = -1;
+            double best = Double.NEGATIVE_INFINITY;
+            for (int a = actionStart[s]; a < actionStart[s + 1]; a++) {
+                double value = actionValue(mdp, values, a);
+                if (value > best) {
+                    best = value;
+                    bestAction = a;
+                }
+            }
+            policy[s] = bestAction == -1 ? -1 : labels[bestAction];
+        }
+    }
+
+    private double actionValue(SparseMdp mdp, double[] values, int a) {
+        int[] transitionStart = mdp.transitionStart();
+        int[] nextState = mdp.nextState();
+        double[] probability = mdp.probability();
+        double future = 0.0;
+        for (int t = transitionStart[a]; t < transitionStart[a + 1]; t++) {
+            future += probability[t] * values[nextState[t]];
+        }
+        return mdp.expectedReward()[a] + gamma * future;
+    }
+
+    private interface BlockTask {
+        void run(int block, int from, int to);
+    }
+
+    private int blockCount(int n) {
+        if (!parallel || n < PARALLEL_THRESHOLD) return 1;
+        return Math.min(n, ForkJoinPool.getCommonPoolParallelism() * 4);
+    }
+
+    private static void forEachBlock(int n, int blocks, BlockTask task) {
+        if (blocks == 1) {
+            task.run(0, 0, n);
+            return;
+        }
+        IntStream.range(0, blocks).parallel().forEach(block ->
+                task.run(block, (int) ((long) n * block / blocks), (int) ((long) n * (block + 1) / blocks)));
+    }
+}
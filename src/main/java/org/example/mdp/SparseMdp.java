@@ -0,0 +1,187 @@
+package org.example.mdp;
+
+import java.util.Arrays;
+
+/*
+MDP fini stocké en lignes creuses (format CSR), pour des espaces de 10^4 à 10^6 états :
+ - actionStart[s] .. actionStart[s + 1] : les actions disponibles dans l'état s ;
+ - pour chaque action a : transitionStart[a] .. transitionStart[a + 1] dans nextState/probability ;
+ - expectedReward[a] : récompense immédiate espérée de l'action (somme des p * r de ses transitions).
+Seules les transitions de probabilité non nulle sont stockées : le coût d'un balayage est proportionnel à leur
+nombre, pas à (états x états).
+ */
+public final class SparseMdp {
+
+    private final int stateCount;
+    private final int[] actionStart;
+    private final int[] actionLabel;
+    private final int[] transitionStart;
+    private final int[] nextState;
+    private final double[] probability;
+    private final double[] expectedReward;
+    // Prédécesseurs de chaque état (CSR inverse), calculés à la première utilisation
+    private int[] predecessorStart;
+    private int[] predecessors;
+
+    private SparseMdp(int stateCount, int[] actionStart, int[] actionLabel, int[] transitionStart,
+                      int[] nextState, double[] probability, double[] expectedReward) {
+        this.stateCount = stateCount;
+        this.actionStart = actionStart;
+        this.actionLabel = actionLabel;
+        this.transitionStart = transitionStart;
+        this.nextState = nextState;
+        this.probability = probability;
+        this.expectedReward = expectedReward;
+    }
+
+    public static Builder builder(int stateCount) {
+        return new Builder(stateCount);
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    public int getActionCount() {
+        return actionLabel.length;
+    }
+
+    public int getTransitionCount() {
+        return nextState.length;
+    }
+
+    // Accès bruts pour le solveur (mêmes conventions que ci-dessus ; ne pas modifier)
+    int[] actionStart() { return actionStart; }
+    int[] actionLabel() { return actionLabel; }
+    int[] transitionStart() { return transitionStart; }
+    int[] nextState() { return nextState; }
+    double[] probability() { return probability; }
+    double[] expectedReward() { return expectedReward; }
+
+    /**
+     * Index inverse : predecessorStart[s] .. predecessorStart[s + 1] dans predecessors donne les états (sans
+     * doublon) dont une action peut mener à s. Sert au balayage par priorités.
+     */
+    synchronized int[][] predecessorIndex() {
+        if (predecessors == null) {
+            int[] start = new int[stateCount + 1];
+            int[] lastSource = new int[stateCount];
+            Arrays.fill(lastSource, -1);
+            for (int s = 0; s < stateCount; s++) {
+                for (int t = transitionStart[actionStart[s]]; t < transitionStart[actionStart[s + 1]]; t++) {
+                    int target = nextState[t];
+                    if (lastSource[target] != s) {
+                        lastSource[target] = s;
+                        start[target + 1]++;
+                    }
+                }
+            }
+            for (int s = 0; s < stateCount; s++) start[s + 1] += start[s];
+
+            int[] fill = Arrays.copyOf(start, stateCount);
+            int[] sources = new int[start[stateCount]];
+            Arrays.fill(lastSource, -1);
+            for (int s = 0; s < stateCount; s++) {
+                for (int t = transitionStart[actionStart[s]]; t < transitionStart[actionStart[s + 1]]; t++) {
+                    int target = nextState[t];
+                    if (lastSource[target] != s) {
+                        lastSource[target] = s;
+                        sources[fill[target]++] = s;
+                    }
+                }
+            }
+            predecessorStart = start;
+            predecessors = sources;
+        }
+        return new int[][]{predecessorStart, predecessors};
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SparseMdp[%d états, %d actions, %d transitions, %.1f Mo]", stateCount,
+                getActionCount(), getTransitionCount(),
+                (nextState.length * 12.0 + actionLabel.length * 16.0 + stateCount * 4.0) / (1024 * 1024));
+    }
+
+    /**
+     * Construction ligne par ligne : les états doivent être décrits dans l'ordre croissant, chaque addAction()
+     * ouvre une action à laquelle les addTransition() suivants sont rattachés.
+     */
+    public static final class Builder {
+        private final int stateCount;
+        private final int[] actionStart;
+        private int[] actionLabel = new int[16];
+        private int[] transitionStart = new int[17];
+        private int[] nextState = new int[64];
+        private double[] probability = new double[64];
+        private double[] reward = new double[64];
+        private int actions = 0;
+        private int transitions = 0;
+        private int lastState = -1;
+
+        private Builder(int stateCount) {
+            if (stateCount <= 0) {
+                throw new IllegalArgumentException("stateCount doit être > 0 : " + stateCount);
+            }
+            this.stateCount = stateCount;
+            this.actionStart = new int[stateCount + 1];
+        }
+
+        /** Ouvre une action de l'état state ; label est l'identifiant rendu dans la politique. */
+        public Builder addAction(int state, int label) {
+            if (state < lastState || state >= stateCount) {
+                throw new IllegalArgumentException("état hors ordre ou hors bornes : " + state);
+            }
+            while (lastState < state) {
+                actionStart[++lastState] = actions;
+            }
+            if (actions == actionLabel.length) {
+                actionLabel = Arrays.copyOf(actionLabel, actions * 2);
+                transitionStart = Arrays.copyOf(transitionStart, actions * 2 + 1);
+            }
+            actionLabel[actions] = label;
+            transitionStart[actions] = transitions;
+            actions++;
+            return this;
+        }
+
+        public Builder addTransition(int next, double p, double r) {
+            if (actions == 0) {
+                throw new IllegalStateException("addTransition() avant addAction()");
+            }
+            if (next < 0 || next >= stateCount) {
+                throw new IllegalArgumentException("état cible hors bornes : " + next);
+            }
+            if (p == 0.0) return this;
+            if (transitions == nextState.length) {
+                nextState = Arrays.copyOf(nextState, transitions * 2);
+                probability = Arrays.copyOf(probability, transitions * 2);
+                reward = Arrays.copyOf(reward, transitions * 2);
+            }
+            nextState[transitions] = next;
+            probability[transitions] = p;
+            reward[transitions] = r;
+            transitions++;
+            return this;
+        }
+
+        public SparseMdp build() {
+            while (lastState < stateCount) {
+                actionStart[++lastState] = actions;
+            }
+            int[] starts = Arrays.copyOf(transitionStart, actions + 1);
+            starts[actions] = transitions;
+
+            double[] expected = new double[actions];
+            for (int a = 0; a < actions; a++) {
+                double sum = 0.0;
+                for (int t = starts[a]; t < starts[a + 1]; t++) {
+                    sum += probability[t] * reward[t];
+                }
+                expected[a] = sum;
+            }
+            return new SparseMdp(stateCount, actionStart, Arrays.copyOf(actionLabel, actions), starts,
+                    Arrays.copyOf(nextState, transitions), Arrays.copyOf(probability, transitions), expected);
+        }
+    }
+}
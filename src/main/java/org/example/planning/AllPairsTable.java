@@ -0,0 +1,191 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+import org.example.util.IndexedMinHeap;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/*
+Tables de plus courts chemins entre toutes les paires de nœuds, pour les réseaux de petite et moyenne taille.
+Les n nœuds vivants reçoivent un indice dense (les ids libres du graphe ne coûtent rien) ; un Dijkstra par nœud
+source (en parallèle) remplit deux tableaux plats n x n indexés par ces indices :
+ - nextHop[s * n + t] : premier nœud après s sur un plus court chemin vers t (-1 si inatteignable) ;
+ - distance[s * n + t] : coût de ce chemin, en float.
+Un itinéraire devient une simple marche dans la table : O(longueur du chemin), sans file de priorité.
+Mémoire : 8 octets par paire, d'où fits() pour choisir entre la table et la recherche à la demande.
+Le calcul part d'une copie des arêtes (Snapshot) prise sur le thread qui modifie le graphe : buildAsync() peut
+donc calculer la table ailleurs pendant que la simulation continue.
+L'index est lié à une version du graphe : isValidFor() indique s'il faut le reconstruire.
+ */
+public class AllPairsTable {
+
+    public static final long BYTES_PER_PAIR = Integer.BYTES + Float.BYTES;
+
+    private final int n;
+    private final int[] nextHop;
+    private final float[] distance;
+    private final int[] indexOfId; // id du graphe -> indice dense, -1 si nœud absent
+    private final Position[] positions; // indice dense -> position
+    private final Graph graph;
+    private final long graphVersion;
+
+    private AllPairsTable(Snapshot snapshot, int[] nextHop, float[] distance) {
+        this.graph = snapshot.graph;
+        this.graphVersion = snapshot.version;
+        this.n = snapshot.ids.length;
+        this.indexOfId = snapshot.indexOfId;
+        this.positions = snapshot.positions;
+        this.nextHop = nextHop;
+        this.distance = distance;
+    }
+
+    /** Vrai si les tables du graphe (nœuds vivants seulement) tiennent dans memoryBudgetBytes. */
+    public static boolean fits(Graph graph, long memoryBudgetBytes) {
+        long n = graph.getAllNodes().size();
+        return n * n <= Integer.MAX_VALUE && n * n * BYTES_PER_PAIR <= memoryBudgetBytes;
+    }
+
+    public static AllPairsTable build(Graph graph) {
+        return build(new Snapshot(graph));
+    }
+
+    /**
+     * Copie les arêtes tout de suite (thread appelant), puis calcule la table dans le pool commun.
+     * La table obtenue est celle de la version copiée : isValidFor() dit si le graphe a changé depuis.
+     */
+    public static CompletableFuture<AllPairsTable> buildAsync(Graph graph) {
+        Snapshot snapshot = new Snapshot(graph);
+        return CompletableFuture.supplyAsync(() -> build(snapshot));
+    }
+
+    private static AllPairsTable build(Snapshot snapshot) {
+        int n = snapshot.ids.length;
+        int[] nextHop = new int[n * n];
+        float[] distance = new float[n * n];
+        Arrays.fill(nextHop, -1);
+        Arrays.fill(distance, Float.POSITIVE_INFINITY);
+
+        // Les lignes sont disjointes : chaque tâche n'écrit que la ligne de sa source
+        IntStream.range(0, n).parallel().forEach(source -> fillRow(snapshot, source, nextHop, distance));
+        return new AllPairsTable(snapshot, nextHop, distance);
+    }
+
+    /** Chemin de start à goal par marche dans la table (liste vide si absent ou inatteignable). */
+    public List<Position> computePath(Position start, Position goal) {
+        GraphNode startNode = graph.getNode(start);
+        GraphNode goalNode = graph.getNode(goal);
+        if (startNode == null || goalNode == null) return Collections.emptyList();
+
+        int s = indexOf(startNode.getId());
+        int t = indexOf(goalNode.getId());
+        if (s == -1 || t == -1) return Collections.emptyList();
+        List<Position> path = new ArrayList<>();
+        path.add(startNode.getPosition());
+        for (int at = s; at != t; ) {
+            at = nextHop[at * n + t];
+            if (at == -1) return Collections.emptyList();
+            path.add(positions[at]);
+        }
+        return path;
+    }
+
+    /** Coût du plus court chemin entre deux ids du graphe (+inf si inatteignable ou inconnu). */
+    public double getDistance(int from, int to) {
+        int s = indexOf(from);
+        int t = indexOf(to);
+        return (s == -1 || t == -1) ? Double.POSITIVE_INFINITY : distance[s * n + t];
+    }
+
+    private int indexOf(int id) {
+        return id < indexOfId.length ? indexOfId[id] : -1;
+    }
+
+    public boolean isValidFor(Graph graph) {
+        return this.graph == graph && graphVersion == graph.getVersion();
+    }
+
+    public long getMemoryFootprintBytes() {
+        return (long) n * n * BYTES_PER_PAIR;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AllPairsTable[%d nœuds, %.1f Mo]", n, getMemoryFootprintBytes() / (1024.0 * 1024.0));
+    }
+
+    private static void fillRow(Snapshot snapshot, int source, int[] nextHop, float[] distance) {
+        int n = snapshot.ids.length;
+        int row = source * n;
+        double[] dist = new double[n];
+        int[] firstHop = new int[n];
+        boolean[] settled = new boolean[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+
+        dist[source] = 0.0;
+        firstHop[source] = source;
+        heap.insertOrDecrease(source, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled[u] = true;
+            nextHop[row + u] = firstHop[u];
+            distance[row + u] = (float) dist[u];
+
+            for (int k = snapshot.edgeStart[u]; k < snapshot.edgeStart[u + 1]; k++) {
+                int v = snapshot.edgeTarget[k];
+                if (settled[v]) continue;
+                double alt = dist[u] + snapshot.edgeCost[k];
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    // Premier pas : le voisin lui-même depuis la source, sinon hérité du prédécesseur
+                    firstHop[v] = (u == source) ? v : firstHop[u];
+                    heap.insertOrDecrease(v, alt);
+                }
+            }
+        }
+    }
+
+    // Arêtes du graphe en tableaux (format CSR), indexées par indice dense
+    private static final class Snapshot {
+        final Graph graph;
+        final long version;
+        final int[] ids;
+        final int[] indexOfId;
+        final Position[] positions;
+        final int[] edgeStart;
+        final int[] edgeTarget;
+        final double[] edgeCost;
+
+        Snapshot(Graph graph) {
+            this.graph = graph;
+            this.version = graph.getVersion();
+            int n = graph.getAllNodes().size();
+            this.ids = new int[n];
+            this.positions = new Position[n];
+            this.indexOfId = new int[graph.getIdCapacity()];
+            Arrays.fill(indexOfId, -1);
+            int count = 0;
+            int edges = 0;
+            for (GraphNode node : graph.getAllNodes()) {
+                ids[count] = node.getId();
+                positions[count] = node.getPosition();
+                indexOfId[node.getId()] = count++;
+                edges += node.getNeighbors().size();
+            }
+            this.edgeStart = new int[n + 1];
+            this.edgeTarget = new int[edges];
+            this.edgeCost = new double[edges];
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                edgeStart[i] = k;
+                for (Map.Entry<GraphNode, Double> e : graph.getNodeById(ids[i]).getNeighbors().entrySet()) {
+                    edgeTarget[k] = indexOfId[e.getKey().getId()];
+                    edgeCost[k++] = e.getValue();
+                }
+            }
+            edgeStart[n] = k;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+import org.example.util.IndexedMinHeap;
+
+import java.util.*;
+
+/*
+A* guidé par les bornes des repères (LandmarkIndex) : la recherche est orientée vers le but et explore beaucoup
+moins de nœuds que Dijkstra. Les bornes sont admissibles mais, à cause de la marge d'arrondi des tables en float,
+pas tout à fait cohérentes : un nœud déjà extrait du tas est rouvert si on lui trouve un chemin plus court.
+Même organisation mémoire que BidirectionalDijkstra (tableaux par id réinitialisés par estampille, tas indexé).
+Une instance n'est pas thread-safe : utiliser forCurrentThread().
+ */
+public class AltSearch {
+
+    private static final ThreadLocal<AltSearch> PER_THREAD = ThreadLocal.withInitial(AltSearch::new);
+
+    private double[] dist = new double[0];
+    private int[] prev = new int[0];
+    private int[] seen = new int[0];
+    private int stamp = 0;
+    private final IndexedMinHeap heap = new IndexedMinHeap(16);
+    private int settledCount = 0;
+
+    public static AltSearch forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    public List<Position> computePath(Graph graph, LandmarkIndex landmarks, Position start, Position goal) {
+        settledCount = 0;
+        GraphNode startNode = graph.getNode(start);
+        GraphNode goalNode = graph.getNode(goal);
+        if (startNode == null || goalNode == null) return Collections.emptyList();
+
+        prepare(graph.getIdCapacity());
+        int s = startNode.getId();
+        int t = goalNode.getId();
+
+        double h0 = landmarks.lowerBound(s, t);
+        if (h0 == Double.POSITIVE_INFINITY) return Collections.emptyList();
+        dist[s] = 0.0;
+        prev[s] = -1;
+        seen[s] = stamp;
+        heap.insertOrDecrease(s, h0);
+
+        boolean found = false;
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settledCount++;
+            if (u == t) {
+                found = true;
+                break;
+            }
+            for (Map.Entry<GraphNode, Double> e : graph.getNodeById(u).getNeighbors().entrySet()) {
+                int v = e.getKey().getId();
+                double alt = dist[u] + e.getValue();
+                if (seen[v] != stamp || alt < dist[v]) {
+                    double h = landmarks.lowerBound(v, t);
+                    if (h == Double.POSITIVE_INFINITY) continue;
+                    dist[v] = alt;
+                    prev[v] = u;
+                    seen[v] = stamp;
+                    heap.insertOrDecrease(v, alt + h);
+                }
+            }
+        }
+        heap.clear();
+        if (!found) return Collections.emptyList();
+
+        List<Position> path = new ArrayList<>();
+        for (int at = t; at != -1; at = prev[at]) {
+            path.add(graph.getNodeById(at).getPosition());
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    // Nombre d'extractions du tas par la dernière requête (réouvertures comprises)
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    private void prepare(int capacity) {
+        if (dist.length < capacity) {
+            int n = Math.max(capacity, dist.length * 2);
+            dist = new double[n];
+            prev = new int[n];
+            seen = new int[n];
+            stamp = 0;
+            heap.ensureCapacity(n);
+        }
+        stamp++;
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            stamp = 1;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/*
+Calcul d'itinéraires en arrière-plan.
+Pendant le tick, les agents soumettent leur calcul (qui ne doit lire que des données figées : graphe, départ, but)
+et reçoivent un future ; le calcul se fait en parallèle de la perception et du déplacement des autres agents.
+À la frontière de tick, installCompleted() attend les calculs en cours et installe les chemins dans l'ordre
+de soumission : le résultat ne dépend donc pas de l'ordonnancement des threads.
+ */
+public class AsyncRoutePlanner implements AutoCloseable {
+
+    private record PendingRoute(CompletableFuture<List<Position>> future, Consumer<List<Position>> install) {}
+
+    private final ExecutorService executor;
+    private final Map<Object, PendingRoute> pending = new LinkedHashMap<>();
+    private long installedTotal = 0;
+
+    public AsyncRoutePlanner(int threads) {
+        this(newPlannerPool(threads));
+    }
+
+    // Exécuteur fourni (tests : exécution des calculs contrôlée pas à pas) ; fermé par close()
+    AsyncRoutePlanner(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    private static ExecutorService newPlannerPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "route-planner-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lance le calcul ; si l'agent avait déjà un calcul en attente, celui-ci est abandonné au profit du nouveau.
+     */
+    public CompletableFuture<List<Position>> submit(Object key, Supplier<List<Position>> computation,
+                                                    Consumer<List<Position>> install) {
+        PendingRoute previous = pending.remove(key);
+        if (previous != null) {
+            previous.future().cancel(false);
+        }
+        CompletableFuture<List<Position>> future = CompletableFuture.supplyAsync(computation, executor);
+        pending.put(key, new PendingRoute(future, install));
+        return future;
+    }
+
+    public boolean isPending(Object key) {
+        return pending.containsKey(key);
+    }
+
+    /**
+     * Frontière de tick : attend les calculs soumis et installe les chemins dans l'ordre de soumission.
+     * @return le nombre de chemins installés
+     */
+    public int installCompleted() {
+        int installed = 0;
+        for (Map.Entry<Object, PendingRoute> entry : pending.entrySet()) {
+            try {
+                List<Position> path = entry.getValue().future().join();
+                entry.getValue().install().accept(path);
+                installed++;
+            } catch (CompletionException | CancellationException e) {
+                System.out.println("❌ Calcul d'itinéraire échoué pour " + entry.getKey() + " : " + e.getMessage());
+            }
+        }
+        pending.clear();
+        installedTotal += installed;
+        return installed;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getInstalledTotal() {
+        return installedTotal;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+import org.example.util.IndexedMinHeap;
+
+import java.util.*;
+
+/*
+Dijkstra bidirectionnel point à point.
+ - deux recherches (depuis le départ et depuis le but) qui avancent alternativement, chacune par le côté dont
+   la file est la plus petite ; on s'arrête dès que minF + minB >= meilleur chemin connu (mu) ;
+ - tas indexés avec decreaseKey (pas d'entrées en double), tableaux indexés par id de nœud réinitialisés par
+   estampille (pas de HashMap, pas de remise à zéro complète entre deux requêtes) ;
+ - reconstruction linéaire du chemin dans un tampon d'ids réutilisable.
+La recherche arrière suit les mêmes arêtes que la recherche avant : le graphe doit être symétrique, ce qui
+est le cas des graphes construits avec Graph.connect().
+Une instance n'est pas thread-safe : utiliser forCurrentThread() depuis les threads de calcul.
+ */
+public class BidirectionalDijkstra {
+
+    private static final ThreadLocal<BidirectionalDijkstra> PER_THREAD =
+            ThreadLocal.withInitial(BidirectionalDijkstra::new);
+
+    private double[] distF = new double[0];
+    private double[] distB = new double[0];
+    private int[] prevF = new int[0];
+    private int[] prevB = new int[0];
+    private int[] seenF = new int[0];     // == stamp si distF/prevF sont valides pour la requête courante
+    private int[] seenB = new int[0];
+    private int[] settledF = new int[0];  // == stamp si le nœud est définitivement traité
+    private int[] settledB = new int[0];
+    private int stamp = 0;
+    private final IndexedMinHeap heapF = new IndexedMinHeap(16);
+    private final IndexedMinHeap heapB = new IndexedMinHeap(16);
+
+    private int[] pathBuffer = new int[64];
+    private int pathLength = 0;
+    private double pathCost = Double.POSITIVE_INFINITY;
+    private int settledCount = 0;
+
+    public static BidirectionalDijkstra forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Calcule le plus court chemin ; les ids du chemin sont ensuite lisibles via getPathBuffer()/getPathLength().
+     * @return false si start ou goal est absent ou si aucun chemin n'existe
+     */
+    public boolean search(Graph graph, Position start, Position goal) {
+        pathLength = 0;
+        pathCost = Double.POSITIVE_INFINITY;
+        settledCount = 0;
+
+        GraphNode startNode = graph.getNode(start);
+        GraphNode goalNode = graph.getNode(goal);
+        if (startNode == null || goalNode == null) return false;
+
+        prepare(graph.getIdCapacity());
+        int s = startNode.getId();
+        int t = goalNode.getId();
+
+        reach(distF, prevF, seenF, heapF, s, 0.0, -1);
+        reach(distB, prevB, seenB, heapB, t, 0.0, -1);
+
+        double mu = (s == t) ? 0.0 : Double.POSITIVE_INFINITY;
+        int meet = (s == t) ? s : -1;
+
+        while (!heapF.isEmpty() && !heapB.isEmpty()) {
+            if (heapF.peekKey() + heapB.peekKey() >= mu) break;
+
+            boolean forward = heapF.size() <= heapB.size();
+            IndexedMinHeap heap = forward ? heapF : heapB;
+            double[] dist = forward ? distF : distB;
+            int[] prev = forward ? prevF : prevB;
+            int[] seen = forward ? seenF : seenB;
+            int[] settled = forward ? settledF : settledB;
+            double[] otherDist = forward ? distB : distF;
+            int[] otherSeen = forward ? seenB : seenF;
+
+            int u = heap.poll();
+            settled[u] = stamp;
+            settledCount++;
+
+            GraphNode node = graph.getNodeById(u);
+            for (Map.Entry<GraphNode, Double> e : node.getNeighbors().entrySet()) {
+                int v = e.getKey().getId();
+                if (settled[v] == stamp) continue;
+                double alt = dist[u] + e.getValue();
+                if (seen[v] != stamp || alt < dist[v]) {
+                    reach(dist, prev, seen, heap, v, alt, u);
+                }
+                if (otherSeen[v] == stamp) {
+                    double total = dist[v] + otherDist[v];
+                    if (total < mu) {
+                        mu = total;
+                        meet = v;
+                    }
+                }
+            }
+        }
+
+        heapF.clear();
+        heapB.clear();
+        if (meet == -1) return false;
+
+        pathCost = mu;
+        buildPath(meet);
+        return true;
+    }
+
+    /** Version pratique qui convertit le tampon en positions (liste vide si pas de chemin). */
+    public List<Position> computePath(Graph graph, Position start, Position goal) {
+        if (!search(graph, start, goal)) {
+            return Collections.emptyList();
+        }
+        List<Position> path = new ArrayList<>(pathLength);
+        for (int i = 0; i < pathLength; i++) {
+            path.add(graph.getNodeById(pathBuffer[i]).getPosition());
+        }
+        return path;
+    }
+
+    // Tampon réutilisé d'une requête à l'autre : ne lire que les getPathLength() premières cases
+    public int[] getPathBuffer() {
+        return pathBuffer;
+    }
+    public int getPathLength() {
+        return pathLength;
+    }
+    public double getPathCost() {
+        return pathCost;
+    }
+    // Nombre de nœuds définitivement traités par la dernière requête (les deux sens)
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    private void reach(double[] dist, int[] prev, int[] seen, IndexedMinHeap heap, int id, double d, int from) {
+        dist[id] = d;
+        prev[id] = from;
+        seen[id] = stamp;
+        heap.insertOrDecrease(id, d);
+    }
+
+    private void buildPath(int meet) {
+        // longueur de chaque moitié, puis remplissage en place : O(longueur du chemin)
+        int forwardLength = 0;
+        for (int at = meet; at != -1; at = prevF[at]) forwardLength++;
+        int backwardLength = 0;
+        for (int at = prevB[meet]; at != -1; at = prevB[at]) backwardLength++;
+
+        pathLength = forwardLength + backwardLength;
+        if (pathBuffer.length < pathLength) {
+            pathBuffer = new int[Math.max(pathLength, pathBuffer.length * 2)];
+        }
+        int i = forwardLength - 1;
+        for (int at = meet; at != -1; at = prevF[at]) pathBuffer[i--] = at;
+        i = forwardLength;
+        for (int at = prevB[meet]; at != -1; at = prevB[at]) pathBuffer[i++] = at;
+    }
+
+    private void prepare(int capacity) {
+        if (distF.length < capacity) {
+            int n = Math.max(capacity, distF.length * 2);
+            distF = new double[n];
+            distB = new double[n];
+            prevF = new int[n];
+            prevB = new int[n];
+            seenF = new int[n];
+            seenB = new int[n];
+            settledF = new int[n];
+            settledB = new int[n];
+            stamp = 0;
+            heapF.ensureCapacity(n);
+            heapB.ensureCapacity(n);
+        }
+        stamp++;
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(seenF, 0);
+            Arrays.fill(seenB, 0);
+            Arrays.fill(settledF, 0);
+            Arrays.fill(settledB, 0);
+            stamp = 1;
+        }
+    }
+}
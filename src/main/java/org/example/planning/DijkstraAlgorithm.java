@@ -62,8 +62,9 @@ public class DijkstraAlgorithm {
         // Reconstruction du chemin
         List<Position> path = new ArrayList<>();
         for (GraphNode at = goalNode; at != null; at = prev.get(at)) {
-            path.add(0, at.getPosition());
+            path.add(at.getPosition());
         }
+        Collections.reverse(path);
         if (path.isEmpty() || !path.get(0).equals(start)) {
             System.out.println("⚠️ Chemin introuvable entre " + start + " et " + goal);
             return Collections.emptyList();
@@ -71,5 +72,14 @@ public class DijkstraAlgorithm {
         return path;
     }
 
-
+    /**
+     * Même résultat que computePath (plus court chemin), via la recherche bidirectionnelle du thread courant.
+     */
+    public static List<Position> computePathBidirectional(Graph graph, Position start, Position goal) {
+        List<Position> path = BidirectionalDijkstra.forCurrentThread().computePath(graph, start, goal);
+        if (path.isEmpty()) {
+            System.out.println("⚠️ Chemin introuvable entre " + start + " et " + goal);
+        }
+        return path;
+    }
 }
@@ -5,24 +5,165 @@ import org.example.agent.Position;
 import java.util.*;
 
 public class Graph {
-    private final Map<Position, GraphNode> nodes = new HashMap<>();
+    // (x, y) empaqueté -> id ; les recherches ne créent aucun objet
+    private final PositionIndex index = new PositionIndex();
+    private final List<GraphNode> nodesById = new ArrayList<>(); // les ids supprimés restent à null...
+    private int[] freeIds = new int[8]; // ... et sont réattribués aux nœuds créés ensuite (pile)
+    private int freeCount = 0;
+    private int nodeCount = 0;
+    private long version = 0; // incrémenté à chaque modification (invalide les prétraitements : landmarks...)
+    // Index spatial des nœuds pour findNearestNode : construit à la première requête puis tenu à jour
+    private SpatialHashGrid<GraphNode> spatialIndex;
+    private static final int SPATIAL_CELL_SIZE = 20;
+
+    // Vue des nœuds vivants, dans l'ordre des ids
+    private final Collection<GraphNode> liveNodes = new AbstractCollection<>() {
+        @Override
+        public Iterator<GraphNode> iterator() {
+            return new Iterator<>() {
+                private int next = advance(0);
+
+                private int advance(int from) {
+                    while (from < nodesById.size() && nodesById.get(from) == null) from++;
+                    return from;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < nodesById.size();
+                }
+
+                @Override
+                public GraphNode next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    GraphNode node = nodesById.get(next);
+                    next = advance(next + 1);
+                    return node;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return nodeCount;
+        }
+    };
 
     public GraphNode getOrCreateNode(Position position) {
-        return nodes.computeIfAbsent(position, GraphNode::new);
+        GraphNode node = getNode(position.getX(), position.getY());
+        return node != null ? node : createNode(position);
+    }
+
+    public GraphNode getOrCreateNode(int x, int y) {
+        GraphNode node = getNode(x, y);
+        return node != null ? node : createNode(new Position(x, y));
+    }
+
+    // Réutilise un id libéré s'il y en a : getIdCapacity() (taille des tableaux des recherches, des repères...)
+    // reste bornée par le plus grand nombre de nœuds vivants, même après de nombreux retraits/ajouts de routes
+    private GraphNode createNode(Position position) {
+        GraphNode node;
+        if (freeCount > 0) {
+            node = new GraphNode(position, freeIds[--freeCount]);
+            nodesById.set(node.getId(), node);
+        } else {
+            node = new GraphNode(position, nodesById.size());
+            nodesById.add(node);
+        }
+        index.put(PositionIndex.pack(position.getX(), position.getY()), node.getId());
+        nodeCount++;
+        version++;
+        if (spatialIndex != null) spatialIndex.insert(position.getX(), position.getY(), node);
+        return node;
     }
 
     public void connect(Position a, Position b, double cost) {
-        GraphNode nodeA = getOrCreateNode(a);
-        GraphNode nodeB = getOrCreateNode(b);
+        connect(getOrCreateNode(a), getOrCreateNode(b), cost);
+    }
+
+    public void connect(int ax, int ay, int bx, int by, double cost) {
+        connect(getOrCreateNode(ax, ay), getOrCreateNode(bx, by), cost);
+    }
+
+    private void connect(GraphNode nodeA, GraphNode nodeB, double cost) {
         nodeA.addNeighbor(nodeB, cost);
         nodeB.addNeighbor(nodeA, cost); // bidirectional
+        version++;
+    }
+
+    public void disconnect(Position a, Position b) {
+        GraphNode nodeA = getNode(a);
+        GraphNode nodeB = getNode(b);
+        if (nodeA == null || nodeB == null) return;
+        nodeA.getNeighbors().remove(nodeB);
+        nodeB.getNeighbors().remove(nodeA);
+        version++;
+    }
+
+    // Retire le nœud et toutes les arêtes qui le touchent (le graphe est symétrique)
+    public boolean removeNode(Position position) {
+        int id = index.remove(PositionIndex.pack(position.getX(), position.getY()));
+        if (id < 0) return false;
+        GraphNode node = nodesById.set(id, null);
+        nodeCount--;
+        if (freeCount == freeIds.length) freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        freeIds[freeCount++] = id;
+        if (spatialIndex != null) spatialIndex.remove(position.getX(), position.getY(), node);
+        for (GraphNode neighbor : node.getNeighbors().keySet()) {
+            neighbor.getNeighbors().remove(node);
+        }
+        node.getNeighbors().clear();
+        version++;
+        return true;
     }
 
     public GraphNode getNode(Position position) {
-        return nodes.get(position);
+        return getNode(position.getX(), position.getY());
+    }
+
+    public GraphNode getNode(int x, int y) {
+        int id = index.get(PositionIndex.pack(x, y));
+        return id < 0 ? null : nodesById.get(id);
+    }
+
+    /**
+     * Nœud le plus proche de (x, y), à maxDistance au plus, qui a au moins une arête : un nœud isolé par un
+     * obstacle ne mène nulle part. Un nœud exactement en (x, y) est renvoyé sans passer par l'index.
+     * @return null si aucun nœud ne convient
+     */
+    public GraphNode findNearestNode(int x, int y, double maxDistance) {
+        GraphNode exact = getNode(x, y);
+        if (exact != null && !exact.getNeighbors().isEmpty()) return exact;
+
+        if (spatialIndex == null) {
+            spatialIndex = new SpatialHashGrid<>(SPATIAL_CELL_SIZE);
+            for (GraphNode node : liveNodes) {
+                spatialIndex.insert(node.getPosition().getX(), node.getPosition().getY(), node);
+            }
+        }
+        return spatialIndex.nearest(x, y, maxDistance, node -> !node.getNeighbors().isEmpty());
     }
 
     public Collection<GraphNode> getAllNodes() {
-        return nodes.values();
+        return liveNodes;
+    }
+
+    // À appeler après avoir modifié directement les voisins d'un GraphNode
+    public void markModified() {
+        version++;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Null si le nœud a été supprimé (l'id peut ensuite être réattribué à un autre nœud : version change)
+    public GraphNode getNodeById(int id) {
+        return nodesById.get(id);
+    }
+
+    // Borne supérieure (exclue) des ids : taille à donner aux tableaux indexés par id
+    public int getIdCapacity() {
+        return nodesById.size();
     }
 }
@@ -6,16 +6,22 @@ import java.util.*;
 
 public class GraphNode {
     private final Position position;
+    private final int id; // indice dense attribué par le Graph (sert aux tableaux des algorithmes)
     private final Map<GraphNode, Double> neighbors = new HashMap<>();
 
-    public GraphNode(Position position) {
+    public GraphNode(Position position, int id) {
         this.position = position;
+        this.id = id;
     }
 
     public Position getPosition() {
         return position;
     }
 
+    public int getId() {
+        return id;
+    }
+
     public Map<GraphNode, Double> getNeighbors() {
         return neighbors;
     }
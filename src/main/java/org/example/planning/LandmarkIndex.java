@@ -0,0 +1,186 @@
+package org.example.planning;
+
+import org.example.util.IndexedMinHeap;
+
+import java.util.*;
+
+/*
+Prétraitement ALT (A*, Landmarks, Triangle inequality).
+On choisit k nœuds repères et on stocke la distance de chaque repère à tous les nœuds. Pour un graphe symétrique,
+l'inégalité triangulaire donne une borne inférieure admissible et cohérente :
+    h(v, t) = max_L |d(L, t) - d(L, v)|
+Ces bornes tiennent compte des vrais coûts (changements de voie, nœuds isolés par des obstacles), là où la
+distance euclidienne est faible ou même non admissible.
+L'index est lié à une version du graphe : isValidFor() indique s'il faut le reconstruire.
+Les repères sont tous pris dans la plus grande composante connexe : un nœud isolé par un obstacle ou une petite
+composante détachée ne gaspille pas de repère (ailleurs, la borne vaut simplement 0).
+ */
+public class LandmarkIndex {
+
+    // Erreur relative maximale des distances stockées en float (2 arrondis de 2^-24), retirée de la borne
+    private static final double FLOAT_ERROR = 1e-6;
+
+    private final int[] landmarks;
+    private final float[][] distances; // distances[l][id], +inf si inatteignable
+    private final long graphVersion;
+    private final Graph graph;
+
+    private LandmarkIndex(Graph graph, int[] landmarks, float[][] distances) {
+        this.graph = graph;
+        this.graphVersion = graph.getVersion();
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    /**
+     * Sélection « farthest » : chaque nouveau repère est le nœud de la composante principale le plus éloigné des
+     * repères déjà choisis, ce qui répartit les repères en périphérie du réseau.
+     */
+    public static LandmarkIndex build(Graph graph, int landmarkCount) {
+        List<Integer> selected = new ArrayList<>();
+        List<float[]> tables = new ArrayList<>();
+
+        int seed = largestComponentNode(graph);
+        if (seed == -1) {
+            return new LandmarkIndex(graph, new int[0], new float[0][]);
+        }
+
+        // Premier repère : le nœud le plus éloigné du germe, dans sa composante
+        float[] fromSeed = singleSource(graph, seed);
+        int next = farthest(graph, fromSeed, List.of(fromSeed));
+
+        while (selected.size() < landmarkCount && next != -1) {
+            selected.add(next);
+            tables.add(singleSource(graph, next));
+            next = farthest(graph, fromSeed, tables);
+            if (selected.contains(next)) break;
+        }
+
+        int[] ids = selected.stream().mapToInt(Integer::intValue).toArray();
+        return new LandmarkIndex(graph, ids, tables.toArray(new float[0][]));
+    }
+
+    /** Borne inférieure de la distance entre les nœuds d'ids from et to (+inf si non connectés). */
+    public double lowerBound(int from, int to) {
+        double best = 0.0;
+        for (float[] table : distances) {
+            if (from >= table.length || to >= table.length) continue;
+            float dFrom = table[from];
+            float dTo = table[to];
+            boolean fromReached = dFrom != Float.POSITIVE_INFINITY;
+            boolean toReached = dTo != Float.POSITIVE_INFINITY;
+            if (fromReached != toReached) return Double.POSITIVE_INFINITY; // composantes différentes
+            if (!fromReached) continue;
+            double bound = Math.abs(dTo - dFrom) - FLOAT_ERROR * Math.max(dTo, dFrom);
+            if (bound > best) best = bound;
+        }
+        return best;
+    }
+
+    public boolean isValidFor(Graph graph) {
+        return this.graph == graph && graphVersion == graph.getVersion();
+    }
+
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    public int[] getLandmarkIds() {
+        return landmarks.clone();
+    }
+
+    public long getBytesPerLandmark() {
+        return distances.length == 0 ? 0 : (long) distances[0].length * Float.BYTES;
+    }
+
+    public long getMemoryFootprintBytes() {
+        return getBytesPerLandmark() * distances.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LandmarkIndex[%d repères, %.1f Ko/repère, %.1f Ko au total]",
+                landmarks.length, getBytesPerLandmark() / 1024.0, getMemoryFootprintBytes() / 1024.0);
+    }
+
+    private static float[] singleSource(Graph graph, int source) {
+        int capacity = graph.getIdCapacity();
+        double[] dist = new double[capacity];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        IndexedMinHeap heap = new IndexedMinHeap(capacity);
+        boolean[] settled = new boolean[capacity];
+
+        dist[source] = 0.0;
+        heap.insertOrDecrease(source, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled[u] = true;
+            for (Map.Entry<GraphNode, Double> e : graph.getNodeById(u).getNeighbors().entrySet()) {
+                int v = e.getKey().getId();
+                if (settled[v]) continue;
+                double alt = dist[u] + e.getValue();
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    heap.insertOrDecrease(v, alt);
+                }
+            }
+        }
+
+        float[] table = new float[capacity];
+        for (int i = 0; i < capacity; i++) {
+            table[i] = (float) dist[i];
+        }
+        return table;
+    }
+
+    // Un nœud (ayant des arêtes) de la plus grande composante connexe, -1 si aucun
+    private static int largestComponentNode(Graph graph) {
+        int capacity = graph.getIdCapacity();
+        boolean[] visited = new boolean[capacity];
+        int[] stack = new int[capacity];
+        int best = -1;
+        int bestSize = 0;
+        for (int id = 0; id < capacity; id++) {
+            GraphNode start = graph.getNodeById(id);
+            if (visited[id] || start == null || start.getNeighbors().isEmpty()) continue;
+            int size = 0;
+            int top = 0;
+            stack[top++] = id;
+            visited[id] = true;
+            while (top > 0) {
+                int u = stack[--top];
+                size++;
+                for (GraphNode neighbor : graph.getNodeById(u).getNeighbors().keySet()) {
+                    int v = neighbor.getId();
+                    if (!visited[v]) {
+                        visited[v] = true;
+                        stack[top++] = v;
+                    }
+                }
+            }
+            if (size > bestSize) {
+                bestSize = size;
+                best = id;
+            }
+        }
+        return best;
+    }
+
+    // Nœud atteint depuis le germe (fromSeed fini) le plus éloigné des repères des tables
+    private static int farthest(Graph graph, float[] fromSeed, List<float[]> tables) {
+        int best = -1;
+        double bestDistance = -1;
+        for (int id = 0; id < graph.getIdCapacity(); id++) {
+            if (fromSeed[id] == Float.POSITIVE_INFINITY) continue;
+            double nearest = Double.POSITIVE_INFINITY;
+            for (float[] table : tables) {
+                nearest = Math.min(nearest, table[id]);
+            }
+            if (nearest > bestDistance) {
+                bestDistance = nearest;
+                best = id;
+            }
+        }
+        return best;
+    }
+}
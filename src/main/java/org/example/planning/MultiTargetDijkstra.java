@@ -0,0 +1,119 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+import org.example.util.IndexedMinHeap;
+
+import java.util.*;
+
+/*
+Dijkstra à une source et plusieurs buts : une seule exploration sert toutes les destinations demandées depuis le
+même départ, et s'arrête dès que le dernier but est définitivement traité.
+Même organisation mémoire que BidirectionalDijkstra (tableaux par id réinitialisés par estampille, tas indexé).
+Une instance n'est pas thread-safe : utiliser forCurrentThread().
+ */
+public class MultiTargetDijkstra {
+
+    private static final ThreadLocal<MultiTargetDijkstra> PER_THREAD = ThreadLocal.withInitial(MultiTargetDijkstra::new);
+
+    private double[] dist = new double[0];
+    private int[] prev = new int[0];
+    private int[] seen = new int[0];
+    private int[] settled = new int[0];
+    private int[] wanted = new int[0]; // == stamp si le nœud est un des buts de la requête courante
+    private int stamp = 0;
+    private final IndexedMinHeap heap = new IndexedMinHeap(16);
+    private int settledCount = 0;
+
+    public static MultiTargetDijkstra forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * @return un chemin par but, dans l'ordre de goals (liste vide pour un but absent ou inatteignable)
+     */
+    public List<List<Position>> computePaths(Graph graph, Position start, List<Position> goals) {
+        settledCount = 0;
+        List<List<Position>> paths = new ArrayList<>(goals.size());
+        GraphNode startNode = graph.getNode(start);
+        if (startNode == null) {
+            for (int i = 0; i < goals.size(); i++) paths.add(Collections.emptyList());
+            return paths;
+        }
+
+        prepare(graph.getIdCapacity());
+        int remaining = 0;
+        for (Position goal : goals) {
+            GraphNode goalNode = graph.getNode(goal);
+            if (goalNode != null && wanted[goalNode.getId()] != stamp) {
+                wanted[goalNode.getId()] = stamp;
+                remaining++;
+            }
+        }
+
+        int s = startNode.getId();
+        dist[s] = 0.0;
+        prev[s] = -1;
+        seen[s] = stamp;
+        heap.insertOrDecrease(s, 0.0);
+
+        while (remaining > 0 && !heap.isEmpty()) {
+            int u = heap.poll();
+            settled[u] = stamp;
+            settledCount++;
+            if (wanted[u] == stamp) remaining--;
+
+            for (Map.Entry<GraphNode, Double> e : graph.getNodeById(u).getNeighbors().entrySet()) {
+                int v = e.getKey().getId();
+                if (settled[v] == stamp) continue;
+                double alt = dist[u] + e.getValue();
+                if (seen[v] != stamp || alt < dist[v]) {
+                    dist[v] = alt;
+                    prev[v] = u;
+                    seen[v] = stamp;
+                    heap.insertOrDecrease(v, alt);
+                }
+            }
+        }
+        heap.clear();
+
+        for (Position goal : goals) {
+            GraphNode goalNode = graph.getNode(goal);
+            if (goalNode == null || settled[goalNode.getId()] != stamp) {
+                paths.add(Collections.emptyList());
+                continue;
+            }
+            List<Position> path = new ArrayList<>();
+            for (int at = goalNode.getId(); at != -1; at = prev[at]) {
+                path.add(graph.getNodeById(at).getPosition());
+            }
+            Collections.reverse(path);
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    // Nombre de nœuds définitivement traités par la dernière requête
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    private void prepare(int capacity) {
+        if (dist.length < capacity) {
+            int n = Math.max(capacity, dist.length * 2);
+            dist = new double[n];
+            prev = new int[n];
+            seen = new int[n];
+            settled = new int[n];
+            wanted = new int[n];
+            stamp = 0;
+            heap.ensureCapacity(n);
+        }
+        stamp++;
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(settled, 0);
+            Arrays.fill(wanted, 0);
+            stamp = 1;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.planning;
+
+import java.util.*;
+
+/*
+Planificateur de replanifications avec budget par tick.
+Les agents déposent une demande (clé = l'agent, urgence, tâche) au lieu de replanifier immédiatement ;
+à la fin du tick, runTick() exécute les demandes les plus urgentes dans la limite du budget (nombre de plans
+et/ou microsecondes). Le reste est reporté au tick suivant, l'agent continue en attendant sur son ancien chemin.
+Urgence : plus la valeur est petite, plus la demande passe tôt (0 = chemin épuisé, sinon distance à l'obstacle...).
+ */
+public class PlanningScheduler {
+
+    private static final class Request {
+        final Object key;
+        final double urgency;
+        final long sequence;
+        final Runnable task;
+        boolean cancelled = false;
+
+        Request(Object key, double urgency, long sequence, Runnable task) {
+            this.key = key;
+            this.urgency = urgency;
+            this.sequence = sequence;
+            this.task = task;
+        }
+    }
+
+    private final PriorityQueue<Request> queue = new PriorityQueue<>(
+            Comparator.<Request>comparingDouble(r -> r.urgency).thenComparingLong(r -> r.sequence));
+    private final Map<Object, Request> pending = new HashMap<>();
+
+    private int maxPlansPerTick;
+    private long maxMicrosPerTick;
+    private long sequence = 0;
+
+    // Statistiques
+    private long executedTotal = 0;
+    private long lastTickMicros = 0;
+    private long worstTickMicros = 0;
+
+    /**
+     * @param maxPlansPerTick  nombre maximal de plans par tick (<= 0 : pas de limite)
+     * @param maxMicrosPerTick temps maximal consacré aux plans par tick (<= 0 : pas de limite)
+     */
+    public PlanningScheduler(int maxPlansPerTick, long maxMicrosPerTick) {
+        this.maxPlansPerTick = maxPlansPerTick;
+        this.maxMicrosPerTick = maxMicrosPerTick;
+    }
+
+    /**
+     * Dépose une demande. Si l'agent a déjà une demande en attente, on garde la plus urgente des deux.
+     * @return true si la demande a été (re)mise en file
+     */
+    public boolean submit(Object key, double urgency, Runnable task) {
+        Request existing = pending.get(key);
+        if (existing != null) {
+            if (existing.urgency <= urgency) return false;
+            existing.cancelled = true;
+        }
+        // On garde l'ordre d'arrivée initial pour ne pas affamer une demande déjà reportée
+        long order = existing != null ? existing.sequence : sequence++;
+        Request request = new Request(key, urgency, order, task);
+        pending.put(key, request);
+        queue.add(request);
+        return true;
+    }
+
+    public boolean isPending(Object key) {
+        return pending.containsKey(key);
+    }
+
+    public void cancel(Object key) {
+        Request request = pending.remove(key);
+        if (request != null) request.cancelled = true;
+    }
+
+    /**
+     * Exécute les demandes les plus urgentes dans la limite du budget ; au moins une par tick pour garantir
+     * la progression. @return le nombre de plans exécutés
+     */
+    public int runTick() {
+        long start = System.nanoTime();
+        int executed = 0;
+
+        while (!queue.isEmpty()) {
+            if (executed > 0) {
+                if (maxPlansPerTick > 0 && executed >= maxPlansPerTick) break;
+                if (maxMicrosPerTick > 0 && (System.nanoTime() - start) / 1000 >= maxMicrosPerTick) break;
+            }
+            Request request = queue.poll();
+            if (request.cancelled) continue;
+            pending.remove(request.key);
+            request.task.run();
+            executed++;
+        }
+
+        executedTotal += executed;
+        lastTickMicros = (System.nanoTime() - start) / 1000;
+        worstTickMicros = Math.max(worstTickMicros, lastTickMicros);
+        return executed;
+    }
+
+    public void setBudget(int maxPlansPerTick, long maxMicrosPerTick) {
+        this.maxPlansPerTick = maxPlansPerTick;
+        this.maxMicrosPerTick = maxMicrosPerTick;
+    }
+
+    // Gets
+    public int getPendingCount() {
+        return pending.size();
+    }
+    public long getExecutedTotal() {
+        return executedTotal;
+    }
+    public long getLastTickMicros() {
+        return lastTickMicros;
+    }
+    public long getWorstTickMicros() {
+        return worstTickMicros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PlanningScheduler[en attente=%d, exécutés=%d, dernier tick=%dµs, pire tick=%dµs]",
+                pending.size(), executedTotal, lastTickMicros, worstTickMicros);
+    }
+}
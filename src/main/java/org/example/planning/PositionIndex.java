@@ -0,0 +1,122 @@
+package org.example.planning;
+
+import java.util.Arrays;
+
+/*
+Table de hachage à adressage ouvert (sondage linéaire) d'une position (x, y) empaquetée dans un long vers un id
+de nœud. Pas d'objet Position ni de boxing pour une recherche, et un mélange de bits (finaliseur de MurmurHash3)
+qui évite les collisions en familles diagonales de 31 * x + y sur les grilles régulières.
+ */
+public class PositionIndex {
+    private static final int FREE = -1;
+
+    private long[] keys;
+    private int[] values; // FREE = case libre
+    private int mask;
+    private int size = 0;
+
+    public PositionIndex() {
+        this(16);
+    }
+
+    public PositionIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    public static int unpackX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int unpackY(long key) {
+        return (int) key;
+    }
+
+    public static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /** @return l'id associé, ou -1 si absent */
+    public int get(long key) {
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            int value = values[i];
+            if (value == FREE) return -1;
+            if (keys[i] == key) return value;
+        }
+    }
+
+    public void put(long key, int value) {
+        if (value < 0) throw new IllegalArgumentException("id négatif : " + value);
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            if (values[i] == FREE) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size * 2 > values.length) resize(values.length * 2);
+                return;
+            }
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+    }
+
+    /** Suppression par décalage arrière : pas de pierres tombales, les sondages restent courts. */
+    public int remove(long key) {
+        int i = mix(key) & mask;
+        while (true) {
+            if (values[i] == FREE) return -1;
+            if (keys[i] == key) break;
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+        int hole = i;
+        for (int j = (hole + 1) & mask; values[j] != FREE; j = (j + 1) & mask) {
+            int home = mix(keys[j]) & mask;
+            // L'élément j peut combler le trou si sa case d'origine n'est pas dans ]hole, j]
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        values[hole] = FREE;
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(values, FREE);
+        size = 0;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, FREE);
+        mask = capacity - 1;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != FREE) put(oldKeys[i], oldValues[i]);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/*
+Regroupement des demandes d'itinéraire d'un tick.
+Les agents déposent (graphe, départ, but) au lieu de lancer leur recherche ; à la frontière de tick, flush()
+dédoublonne les requêtes identiques, lance une seule recherche par départ distinct (multi-buts si plusieurs
+destinations partent du même nœud) et distribue les chemins dans l'ordre de dépôt.
+Le coût dépend donc du nombre de requêtes distinctes, pas du nombre de véhicules.
+ */
+public class RouteBatcher {
+
+    private record Request(Graph graph, Position start, Position goal, Consumer<List<Position>> install) {}
+
+    // Toutes les requêtes d'un même départ sur un même graphe
+    private static final class SourceBatch {
+        final Graph graph;
+        final Position start;
+        final List<Position> goals = new ArrayList<>();
+        final Map<Position, Integer> goalIndex = new HashMap<>(); // but -> indice dans goals
+        List<List<Position>> paths;
+
+        SourceBatch(Graph graph, Position start) {
+            this.graph = graph;
+            this.start = start;
+        }
+    }
+
+    private record SourceKey(Graph graph, Position start) {}
+
+    private final Map<Object, Request> pending = new LinkedHashMap<>();
+    private long requestsTotal = 0;
+    private long distinctTotal = 0;
+    private long searchesTotal = 0;
+
+    /**
+     * Dépose une demande ; une demande précédente du même agent dans ce tick est remplacée.
+     * Les chemins peuvent être partagés entre agents : l'appelant ne doit pas les modifier.
+     */
+    public void submit(Object key, Graph graph, Position start, Position goal, Consumer<List<Position>> install) {
+        pending.remove(key);
+        pending.put(key, new Request(graph, start, goal, install));
+    }
+
+    public boolean isPending(Object key) {
+        return pending.containsKey(key);
+    }
+
+    /**
+     * Frontière de tick : résout les requêtes distinctes (en parallèle s'il y a plusieurs départs)
+     * puis installe les chemins dans l'ordre de dépôt.
+     * @return le nombre de chemins installés
+     */
+    public int flush() {
+        if (pending.isEmpty()) return 0;
+
+        Map<SourceKey, SourceBatch> batches = new LinkedHashMap<>();
+        Map<Object, SourceBatch> batchOf = new HashMap<>();
+        Map<Object, Integer> goalIndexOf = new HashMap<>();
+        int distinct = 0;
+        for (Map.Entry<Object, Request> entry : pending.entrySet()) {
+            Request request = entry.getValue();
+            SourceBatch batch = batches.computeIfAbsent(new SourceKey(request.graph(), request.start()),
+                    k -> new SourceBatch(k.graph(), k.start()));
+            Integer goalIndex = batch.goalIndex.get(request.goal());
+            if (goalIndex == null) {
+                goalIndex = batch.goals.size();
+                batch.goalIndex.put(request.goal(), goalIndex);
+                batch.goals.add(request.goal());
+                distinct++;
+            }
+            batchOf.put(entry.getKey(), batch);
+            goalIndexOf.put(entry.getKey(), goalIndex);
+        }
+
+        // Chaque recherche ne lit que le graphe (figé pendant le flush) et utilise l'instance de son thread
+        List<SourceBatch> work = new ArrayList<>(batches.values());
+        (work.size() > 1 ? work.parallelStream() : work.stream()).forEach(RouteBatcher::solve);
+
+        int installed = 0;
+        for (Map.Entry<Object, Request> entry : pending.entrySet()) {
+            List<Position> path = batchOf.get(entry.getKey()).paths.get(goalIndexOf.get(entry.getKey()));
+            if (path.isEmpty()) {
+                System.out.println("⚠️ Chemin introuvable entre " + entry.getValue().start() + " et " + entry.getValue().goal());
+            }
+            entry.getValue().install().accept(path);
+            installed++;
+        }
+
+        System.out.println("📦 Lot d'itinéraires : " + pending.size() + " demandes, " + distinct
+                + " distinctes, " + work.size() + " recherches");
+        requestsTotal += pending.size();
+        distinctTotal += distinct;
+        searchesTotal += work.size();
+        pending.clear();
+        return installed;
+    }
+
+    private static void solve(SourceBatch batch) {
+        List<List<Position>> paths;
+        if (batch.goals.size() == 1) {
+            paths = List.of(BidirectionalDijkstra.forCurrentThread().computePath(batch.graph, batch.start, batch.goals.get(0)));
+        } else {
+            paths = MultiTargetDijkstra.forCurrentThread().computePaths(batch.graph, batch.start, batch.goals);
+        }
+        List<List<Position>> shared = new ArrayList<>(paths.size());
+        for (List<Position> path : paths) {
+            shared.add(Collections.unmodifiableList(path));
+        }
+        batch.paths = shared;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getRequestsTotal() {
+        return requestsTotal;
+    }
+
+    public long getDistinctTotal() {
+        return distinctTotal;
+    }
+
+    public long getSearchesTotal() {
+        return searchesTotal;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RouteBatcher[%d demandes, %d distinctes, %d recherches]",
+                requestsTotal, distinctTotal, searchesTotal);
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+
+import java.util.*;
+
+/*
+Index inverse nœud -> itinéraires : pour chaque position de la grille, les agents dont le chemin courant y passe.
+Quand un nœud devient inaccessible, on retrouve exactement les agents concernés sans parcourir tous les chemins.
+ */
+public class RouteIndex<K> {
+
+    private final Map<Long, Set<K>> routesByNode = new HashMap<>();
+    private final Map<K, long[]> nodesByRoute = new HashMap<>();
+
+    /** Remplace le chemin suivi par key (un chemin vide revient à untrack). */
+    public void track(K key, List<Position> path) {
+        untrack(key);
+        if (path.isEmpty()) return;
+
+        long[] nodes = new long[path.size()];
+        int count = 0;
+        for (Position position : path) {
+            long node = PositionIndex.pack(position.getX(), position.getY());
+            if (routesByNode.computeIfAbsent(node, n -> new LinkedHashSet<>()).add(key)) {
+                nodes[count++] = node;
+            }
+        }
+        nodesByRoute.put(key, Arrays.copyOf(nodes, count));
+    }
+
+    public void untrack(K key) {
+        long[] nodes = nodesByRoute.remove(key);
+        if (nodes == null) return;
+        for (long node : nodes) {
+            Set<K> routes = routesByNode.get(node);
+            routes.remove(key);
+            if (routes.isEmpty()) routesByNode.remove(node);
+        }
+    }
+
+    /** Agents dont le chemin passe par position, dans l'ordre où ils ont été enregistrés (copie). */
+    public List<K> routesThrough(Position position) {
+        Set<K> routes = routesByNode.get(PositionIndex.pack(position.getX(), position.getY()));
+        return routes == null ? List.of() : new ArrayList<>(routes);
+    }
+
+    public int getTrackedCount() {
+        return nodesByRoute.size();
+    }
+}
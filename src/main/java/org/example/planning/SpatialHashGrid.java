@@ -0,0 +1,136 @@
+package org.example.planning;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/*
+Index spatial par grille uniforme : chaque point (x, y) est rangé dans la cellule (x / cellSize, y / cellSize).
+Une requête de rayon r <= cellSize ne regarde que les 3x3 cellules autour du point, au lieu de tout parcourir.
+ */
+public class SpatialHashGrid<T> {
+
+    private static final class Entry<T> {
+        final int x;
+        final int y;
+        final T value;
+
+        Entry(int x, int y, T value) {
+            this.x = x;
+            this.y = y;
+            this.value = value;
+        }
+    }
+
+    private final int cellSize;
+    private final Map<Long, List<Entry<T>>> cells = new HashMap<>();
+    private int size = 0;
+
+    public SpatialHashGrid(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize doit être > 0 : " + cellSize);
+        }
+        this.cellSize = cellSize;
+    }
+
+    public void insert(int x, int y, T value) {
+        cells.computeIfAbsent(cellKey(cellOf(x), cellOf(y)), k -> new ArrayList<>()).add(new Entry<>(x, y, value));
+        size++;
+    }
+
+    public boolean remove(int x, int y, T value) {
+        long key = cellKey(cellOf(x), cellOf(y));
+        List<Entry<T>> bucket = cells.get(key);
+        if (bucket == null) return false;
+
+        for (Iterator<Entry<T>> it = bucket.iterator(); it.hasNext(); ) {
+            Entry<T> e = it.next();
+            if (e.x == x && e.y == y && Objects.equals(e.value, value)) {
+                it.remove();
+                size--;
+                if (bucket.isEmpty()) cells.remove(key);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Renvoie toutes les valeurs situées à une distance strictement inférieure à radius de (x, y).
+     */
+    public List<T> queryRadius(int x, int y, double radius) {
+        List<T> result = new ArrayList<>();
+        int reach = (int) Math.ceil(radius / cellSize);
+        int cx = cellOf(x);
+        int cy = cellOf(y);
+        double radiusSq = radius * radius;
+
+        for (int i = cx - reach; i <= cx + reach; i++) {
+            for (int j = cy - reach; j <= cy + reach; j++) {
+                List<Entry<T>> bucket = cells.get(cellKey(i, j));
+                if (bucket == null) continue;
+                for (Entry<T> e : bucket) {
+                    double dx = e.x - x;
+                    double dy = e.y - y;
+                    if (dx * dx + dy * dy < radiusSq) {
+                        result.add(e.value);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Valeur acceptée la plus proche de (x, y) à une distance <= maxDistance, ou null.
+     * Les cellules sont parcourues par anneaux concentriques : on s'arrête dès qu'aucune cellule plus
+     * éloignée ne peut contenir de meilleur candidat.
+     */
+    public T nearest(int x, int y, double maxDistance, Predicate<? super T> accept) {
+        int reach = (int) Math.ceil(maxDistance / cellSize);
+        int cx = cellOf(x);
+        int cy = cellOf(y);
+        double bestSq = maxDistance * maxDistance;
+        T best = null;
+
+        for (int ring = 0; ring <= reach; ring++) {
+            for (int i = cx - ring; i <= cx + ring; i++) {
+                // Bords gauche et droit : colonne entière ; sinon seulement les cases haute et basse de l'anneau
+                int step = (i == cx - ring || i == cx + ring) ? 1 : Math.max(1, 2 * ring);
+                for (int j = cy - ring; j <= cy + ring; j += step) {
+                    List<Entry<T>> bucket = cells.get(cellKey(i, j));
+                    if (bucket == null) continue;
+                    for (Entry<T> e : bucket) {
+                        double dx = e.x - x;
+                        double dy = e.y - y;
+                        double dSq = dx * dx + dy * dy;
+                        if (dSq <= bestSq && (best == null || dSq < bestSq) && accept.test(e.value)) {
+                            bestSq = dSq;
+                            best = e.value;
+                        }
+                    }
+                }
+            }
+            // Tout point de l'anneau suivant est à au moins ring * cellSize du point de requête
+            double frontier = (double) ring * cellSize;
+            if (best != null && bestSq <= frontier * frontier) break;
+        }
+        return best;
+    }
+
+    public void clear() {
+        cells.clear();
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int cellOf(int coordinate) {
+        return Math.floorDiv(coordinate, cellSize);
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
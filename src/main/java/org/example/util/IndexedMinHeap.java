@@ -0,0 +1,113 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+/*
+Tas binaire min indexé sur des ids (nœuds de graphe, états de MDP...) de 0 à capacity-1, avec decreaseKey en O(log n).
+Contrairement à une PriorityQueue avec réinsertions, chaque nœud n'y figure qu'une fois.
+ */
+public class IndexedMinHeap {
+    private int[] heap;      // heap[i] = id
+    private int[] position;  // position[id] = indice dans heap, -1 si absent
+    private double[] keys;   // keys[id]
+    private int size = 0;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[Math.max(1, capacity)];
+        position = new int[Math.max(1, capacity)];
+        keys = new double[Math.max(1, capacity)];
+        Arrays.fill(position, -1);
+    }
+
+    public void ensureCapacity(int capacity) {
+        if (capacity <= position.length) return;
+        int oldLength = position.length;
+        int newLength = Math.max(capacity, oldLength * 2);
+        heap = Arrays.copyOf(heap, newLength);
+        keys = Arrays.copyOf(keys, newLength);
+        position = Arrays.copyOf(position, newLength);
+        Arrays.fill(position, oldLength, newLength, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int id) {
+        return position[id] != -1;
+    }
+
+    public double peekKey() {
+        return keys[heap[0]];
+    }
+
+    /** Insère id ou diminue sa clé ; une clé plus grande que l'actuelle est ignorée. */
+    public void insertOrDecrease(int id, double key) {
+        int at = position[id];
+        if (at == -1) {
+            keys[id] = key;
+            heap[size] = id;
+            position[id] = size;
+            siftUp(size++);
+        } else if (key < keys[id]) {
+            keys[id] = key;
+            siftUp(at);
+        }
+    }
+
+    public int poll() {
+        int top = heap[0];
+        position[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /** Vide le tas en O(taille actuelle). */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int parentId = heap[parent];
+            if (keys[parentId] <= key) break;
+            heap[i] = parentId;
+            position[parentId] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) child = right;
+            if (keys[heap[child]] >= key) break;
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = id;
+        position[id] = i;
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.ArgumentationDM;
+
+import org.example.agent.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransportationAgentTest {
+
+    // Une destination par tranche de distance : <= 50, ]50, 70], > 70
+    private static final List<Position> DESTINATIONS = List.of(new Position(30, 0), new Position(60, 0), new Position(100, 0));
+
+    @Test
+    void tableMatchesFreshComputationForEveryContext() {
+        Set<Map<String, Double>> distinctScores = new HashSet<>();
+        int contexts = 0;
+        for (String weather : List.of("Sunny", "Rainy")) {
+            for (boolean healthy : List.of(false, true)) {
+                for (boolean rushHour : List.of(false, true)) {
+                    for (Position destination : DESTINATIONS) {
+                        TransportationAgent agent = new TransportationAgent(new Position(0, 0), destination,
+                                weather, healthy, rushHour);
+                        String context = weather + ", santé=" + healthy + ", pointe=" + rushHour + ", vers " + destination;
+
+                        Map<String, Double> expected = TransportationAgent.computeScoresScr(agent.buildFramework());
+                        assertEquals(expected, agent.getModeScoresScr(), context);
+                        double best = Collections.max(expected.values());
+                        assertEquals(best, expected.get(agent.decideTransportationMode()), context);
+                        distinctScores.add(expected);
+                        contexts++;
+                    }
+                }
+            }
+        }
+        assertEquals(24, contexts);
+        assertTrue(distinctScores.size() > 1);
+    }
+
+    @Test
+    void otherWeatherReadsTheDryContext() {
+        Position start = new Position(0, 0);
+        Position destination = new Position(60, 0);
+        TransportationAgent cloudy = new TransportationAgent(start, destination, "Cloudy", true, false);
+        TransportationAgent sunny = new TransportationAgent(start, destination, "Sunny", true, false);
+        assertEquals(sunny.getModeScoresScr(), cloudy.getModeScoresScr());
+        assertEquals(sunny.decideTransportationMode(), cloudy.decideTransportationMode());
+
+        // Copie : la table partagée n'est pas modifiable par l'appelant
+        cloudy.getModeScoresScr().clear();
+        assertFalse(cloudy.getModeScoresScr().isEmpty());
+    }
+}
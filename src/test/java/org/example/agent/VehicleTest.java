@@ -0,0 +1,135 @@
+package org.example.agent;
+
+import org.example.environment.Environment;
+import org.example.environment.Lane;
+import org.example.environment.Obstacle;
+import org.example.environment.Road;
+import org.example.environment.TrafficLight;
+import org.example.planning.PlanningScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleTest {
+
+    @Test
+    void planUrgencyFormula() {
+        assertEquals(0.0, Vehicle.planUrgency(true, true, 5.0));
+        assertEquals(12.5, Vehicle.planUrgency(false, true, 12.5));
+        // Obstacle hors de la voie (distance infinie) ou très loin : borné juste devant l'embouteillage
+        assertEquals(999.0, Vehicle.planUrgency(false, true, Double.MAX_VALUE));
+        assertEquals(999.0, Vehicle.planUrgency(false, true, 5_000.0));
+        assertEquals(1000.0, Vehicle.planUrgency(false, false, Double.MAX_VALUE));
+    }
+
+    @Test
+    void schedulerServesPlansInUrgencyOrder() {
+        PlanningScheduler scheduler = new PlanningScheduler(1, 0);
+        List<String> executed = new ArrayList<>();
+        // Déposées dans l'ordre inverse de l'urgence attendue
+        scheduler.submit("bouchon", Vehicle.planUrgency(false, false, Double.MAX_VALUE), () -> executed.add("bouchon"));
+        scheduler.submit("obstacle ailleurs", Vehicle.planUrgency(false, true, Double.MAX_VALUE), () -> executed.add("obstacle ailleurs"));
+        scheduler.submit("obstacle à 80", Vehicle.planUrgency(false, true, 80.0), () -> executed.add("obstacle à 80"));
+        scheduler.submit("obstacle à 15", Vehicle.planUrgency(false, true, 15.0), () -> executed.add("obstacle à 15"));
+        scheduler.submit("chemin épuisé", Vehicle.planUrgency(true, false, Double.MAX_VALUE), () -> executed.add("chemin épuisé"));
+
+        while (scheduler.runTick() > 0) {
+            // un plan par tick
+        }
+        assertEquals(List.of("chemin épuisé", "obstacle à 15", "obstacle à 80", "obstacle ailleurs", "bouchon"), executed);
+    }
+
+    @Test
+    void failedReplanKeepsPreviousPath() {
+        Environment env = new Environment();
+        Road road = new Road("R1", 100.0, List.of(new Position(0, 0), new Position(100, 0)));
+        Lane lane = new Lane("L1", 3.5, 0.0, Lane.DIRECTION_RIGHT, road);
+        road.addLane(lane);
+        road.addTrafficLight(new TrafficLight("F1", TrafficLight.LightColor.GREEN), new Position(90, 0));
+        env.addRoad(road);
+
+        Vehicle vehicle = new Vehicle(new Position(0, 0), new Position(100, 0), env);
+        lane.addVehicle(vehicle);
+        vehicle.bdiCycle(lane, road);
+        List<Position> path = vehicle.getPath();
+        assertFalse(path.isEmpty());
+        Position blocked = new Position(60, 0); // voie sur la grille : l'obstacle recouvre ce nœud
+        assertTrue(path.contains(blocked));
+
+        // Obstacle sur l'unique voie : la replanification échoue, l'ancien chemin reste suivi et indexé
+        env.addObstacle(road, lane, new Obstacle(blocked));
+        assertSame(path, vehicle.getPath());
+        assertEquals(List.of(vehicle), env.getRouteIndex().routesThrough(blocked));
+    }
+
+    // Route à deux voies sur la grille (y = 0 et y = 20, reliées par des changements de voie), un feu vert
+    private static Road twoLaneRoad(Environment env) {
+        Road road = new Road("R1", 100.0, List.of(new Position(0, 0), new Position(100, 0)));
+        road.addLane(new Lane("L1", 3.5, 0.0, Lane.DIRECTION_RIGHT, road));
+        road.addLane(new Lane("L2", 3.5, 20.0, Lane.DIRECTION_RIGHT, road));
+        road.addTrafficLight(new TrafficLight("F1", TrafficLight.LightColor.GREEN), new Position(90, 0));
+        env.addRoad(road);
+        return road;
+    }
+
+    private static Vehicle plannedVehicle(Environment env, Road road, Lane lane) {
+        int y = lane.getCenterYInt();
+        Vehicle vehicle = new Vehicle(new Position(0, y), new Position(100, y), env);
+        lane.addVehicle(vehicle);
+        vehicle.bdiCycle(lane, road);
+        assertFalse(vehicle.getPath().isEmpty());
+        return vehicle;
+    }
+
+    @Test
+    void obstacleNotifiesOnlyVehiclesCrossingIt() {
+        Environment env = new Environment();
+        Road road = twoLaneRoad(env);
+        Lane lane1 = road.getLanes().get(0);
+        Lane lane2 = road.getLanes().get(1);
+        Vehicle crossing = plannedVehicle(env, road, lane1);
+        Vehicle other = plannedVehicle(env, road, lane2);
+        List<Position> crossingPath = crossing.getPath();
+        List<Position> otherPath = other.getPath();
+        Position blocked = new Position(50, 0);
+        assertTrue(crossingPath.contains(blocked));
+        assertFalse(otherPath.contains(blocked));
+
+        env.addObstacle(road, lane1, new Obstacle(blocked));
+
+        // Seul le véhicule qui passait par le nœud a replanifié (détour par l'autre voie)
+        assertNotSame(crossingPath, crossing.getPath());
+        assertFalse(crossing.getPath().contains(blocked));
+        assertSame(otherPath, other.getPath());
+        assertEquals(List.of(), env.getRouteIndex().routesThrough(blocked));
+    }
+
+    @Test
+    void removedVehicleIsUntracked() {
+        Environment env = new Environment();
+        Road road = twoLaneRoad(env);
+        Lane lane1 = road.getLanes().get(0);
+        Lane lane2 = road.getLanes().get(1);
+        Vehicle leaving = plannedVehicle(env, road, lane1);
+        Vehicle staying = plannedVehicle(env, road, lane2);
+        assertEquals(2, env.getRouteIndex().getTrackedCount());
+
+        // Changement de voie : l'itinéraire reste suivi
+        lane1.transferVehicle(leaving, lane2);
+        assertEquals(List.of(leaving), env.getRouteIndex().routesThrough(new Position(50, 0)));
+
+        // Retrait : plus aucun nœud ne renvoie vers le véhicule, et un obstacle sur son ancien chemin l'ignore
+        List<Position> path = leaving.getPath();
+        assertTrue(lane2.removeVehicle(leaving));
+        assertEquals(1, env.getRouteIndex().getTrackedCount());
+        for (Position node : path) {
+            assertFalse(env.getRouteIndex().routesThrough(node).contains(leaving), node.toString());
+        }
+        env.addObstacle(road, lane1, new Obstacle(new Position(50, 0)));
+        assertSame(path, leaving.getPath());
+        assertEquals(List.of(staying), env.getRouteIndex().routesThrough(new Position(50, 20)));
+    }
+}
@@ -0,0 +1,272 @@
+package org.example.environment;
+
+import org.example.agent.Position;
+import org.example.planning.AltSearch;
+import org.example.planning.DijkstraAlgorithm;
+import org.example.planning.Graph;
+import org.example.planning.GraphNode;
+import org.example.planning.LandmarkIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnvironmentTest {
+
+    // Nœuds -> (voisin -> coût) du graphe global
+    private static Map<Position, Map<Position, Double>> edges(Graph graph) {
+        Map<Position, Map<Position, Double>> edges = new HashMap<>();
+        for (GraphNode node : graph.getAllNodes()) {
+            Map<Position, Double> neighbors = new HashMap<>();
+            for (Map.Entry<GraphNode, Double> entry : node.getNeighbors().entrySet()) {
+                neighbors.put(entry.getKey().getPosition(), entry.getValue());
+            }
+            assertNull(edges.put(node.getPosition(), neighbors), "nœud en double " + node.getPosition());
+        }
+        return edges;
+    }
+
+    // Jonctions sans ordre (route A/route B), par id de route
+    private static Set<String> junctions(Environment env) {
+        Set<String> junctions = new TreeSet<>();
+        for (Road road : env.getRoads()) {
+            for (Environment.Junction junction : env.junctionsOf(road)) {
+                String a = junction.roadA().getId() + "@" + junction.a();
+                String b = junction.roadB().getId() + "@" + junction.b();
+                junctions.add(a.compareTo(b) <= 0 ? a + " - " + b : b + " - " + a);
+            }
+        }
+        return junctions;
+    }
+
+    private static void assertSameNetwork(Environment expected, Environment actual) {
+        assertEquals(edges(expected.getGlobalGraph()), edges(actual.getGlobalGraph()));
+        assertEquals(junctions(expected), junctions(actual));
+    }
+
+    private static Road road(String id, double length, List<Position> entries, int... laneYs) {
+        Road road = new Road(id, length, entries);
+        for (int i = 0; i < laneYs.length; i++) {
+            road.addLane(new Lane(id + "L" + i, 3.5, laneYs[i], Lane.DIRECTION_RIGHT, road));
+        }
+        return road;
+    }
+
+    /*
+    Réseau de test, recréé pour chaque environnement (les routes portent leur graphe local) :
+     - A et B partagent les nœuds de la voie y=1 (B plus courte), et B porte un obstacle sur un nœud partagé ;
+     - C est raccordée à A par une jonction en (0, 0) / (0, 10) ;
+     - D est raccordée à B (entrées proches) et partage la voie y=11 de C ;
+     - E est isolée.
+     */
+    private static Map<String, Road> network() {
+        Map<String, Road> roads = new HashMap<>();
+        roads.put("A", road("A", 100, List.of(new Position(0, 0), new Position(100, 0)), 1, -1));
+        Road b = road("B", 60, List.of(new Position(60, 5)), 1);
+        b.getLanes().get(0).addObstacle(new Obstacle(new Position(30, 1)));
+        roads.put("B", b);
+        roads.put("C", road("C", 80, List.of(new Position(0, 10)), 11));
+        roads.put("D", road("D", 40, List.of(new Position(65, 10)), 11, 21));
+        roads.put("E", road("E", 30, List.of(new Position(500, 500)), 41));
+        return roads;
+    }
+
+    private static Environment builtFromScratch(String... ids) {
+        Map<String, Road> roads = network();
+        Environment env = new Environment();
+        for (String id : ids) {
+            env.getRoads().add(roads.get(id));
+        }
+        env.buildGlobalGraph();
+        return env;
+    }
+
+    @Test
+    void incrementalChangesMatchFromScratchBuild() {
+        Map<String, Road> roads = network();
+        Environment env = new Environment();
+        for (String id : List.of("A", "B", "C", "D", "E")) {
+            env.addRoad(roads.get(id));
+        }
+        assertSameNetwork(builtFromScratch("A", "B", "C", "D", "E"), env);
+
+        // Retrait d'une route qui partage ses nœuds et ses jonctions
+        assertTrue(env.removeRoad(roads.get("B")));
+        assertSameNetwork(builtFromScratch("A", "C", "D", "E"), env);
+        assertFalse(env.removeRoad(roads.get("B")));
+
+        // Remise en place : même graphe que si elle n'était jamais partie
+        env.addRoad(roads.get("B"));
+        assertSameNetwork(builtFromScratch("A", "C", "D", "E", "B"), env);
+        assertSameNetwork(builtFromScratch("A", "B", "C", "D", "E"), env);
+
+        // Retrait de la route qui porte le plus de nœuds partagés, puis de toutes
+        env.removeRoad(roads.get("A"));
+        assertSameNetwork(builtFromScratch("C", "D", "E", "B"), env);
+        for (String id : List.of("C", "D", "E", "B")) {
+            env.removeRoad(roads.get(id));
+        }
+        assertTrue(env.getGlobalGraph().getAllNodes().isEmpty());
+        assertTrue(junctions(env).isEmpty());
+
+        // Les ids libérés sont réutilisés sans laisser de nœud fantôme
+        for (String id : List.of("E", "D", "C", "B", "A")) {
+            env.addRoad(roads.get(id));
+        }
+        assertSameNetwork(builtFromScratch("A", "B", "C", "D", "E"), env);
+    }
+
+    @Test
+    void obstacleChangesMatchFromScratchBuild() {
+        Map<String, Road> roads = network();
+        Environment env = new Environment();
+        for (String id : List.of("A", "B", "C", "D", "E")) {
+            env.addRoad(roads.get(id));
+        }
+        Road a = roads.get("A");
+        Lane lane = a.getLanes().get(0);
+        Obstacle obstacle = new Obstacle(new Position(50, 1));
+        env.addObstacle(a, lane, obstacle);
+        env.moveObstacle(a, obstacle, new Position(30, 1)); // nœud partagé avec l'obstacle de B
+        env.removeObstacle(roads.get("B"), roads.get("B").getLanes().get(0), roads.get("B").getLanes().get(0).getObstacles().get(0));
+
+        Map<String, Road> expectedRoads = network();
+        Road expectedB = expectedRoads.get("B");
+        expectedB.getLanes().get(0).removeObstacle(expectedB.getLanes().get(0).getObstacles().get(0));
+        expectedRoads.get("A").getLanes().get(0).addObstacle(new Obstacle(new Position(30, 1)));
+        Environment expected = new Environment();
+        for (String id : List.of("A", "B", "C", "D", "E")) {
+            expected.getRoads().add(expectedRoads.get(id));
+        }
+        expected.buildGlobalGraph();
+        assertSameNetwork(expected, env);
+    }
+
+    @Test
+    void junctionsAreFoundInBothDirections() {
+        Environment env = builtFromScratch("A", "B", "C", "D", "E");
+        List<String> withJunctions = new ArrayList<>();
+        for (Road road : env.getRoads()) {
+            if (!env.junctionsOf(road).isEmpty()) withJunctions.add(road.getId());
+        }
+        assertEquals(List.of("A", "B", "C", "D"), withJunctions);
+        assertTrue(env.junctionsOf(env.getRoads().get(4)).isEmpty());
+    }
+
+    // Grand réseau aléatoire : voies partagées entre routes, entrées proches (jonctions), quelques obstacles
+    private static List<Road> randomNetwork(long seed, int roadCount) {
+        Random random = new Random(seed);
+        List<Road> roads = new ArrayList<>();
+        for (int r = 0; r < roadCount; r++) {
+            int laneCount = 1 + random.nextInt(3);
+            int[] laneYs = new int[laneCount];
+            for (int i = 0; i < laneCount; i++) {
+                laneYs[i] = 10 * random.nextInt(40) + 1;
+            }
+            laneYs = Arrays.stream(laneYs).distinct().toArray();
+            List<Position> entries = List.of(
+                    new Position(10 * random.nextInt(30), 10 * random.nextInt(40)),
+                    new Position(10 * random.nextInt(30), 10 * random.nextInt(40)));
+            Road road = road("R" + r, 50 + 10 * random.nextInt(50), entries, laneYs);
+            if (random.nextInt(4) == 0) {
+                road.getLanes().get(0).addObstacle(new Obstacle(new Position(10 * random.nextInt(5), laneYs[0])));
+            }
+            roads.add(road);
+        }
+        return roads;
+    }
+
+    @Test
+    void parallelBuildMatchesSerialBuild() {
+        Environment serial = new Environment();
+        serial.getRoads().addAll(randomNetwork(7, 60));
+        serial.buildGlobalGraph();
+
+        Environment parallel = new Environment();
+        parallel.getRoads().addAll(randomNetwork(7, 60));
+        parallel.buildGlobalGraphParallel();
+
+        // Assez de nœuds pour couvrir toutes les partitions de la fusion parallèle
+        int partitions = ForkJoinPool.getCommonPoolParallelism() * 4;
+        assertTrue(serial.getGlobalGraph().getAllNodes().size() > 20 * partitions);
+        assertFalse(junctions(serial).isEmpty());
+        assertSameNetwork(serial, parallel);
+    }
+
+    private static double cost(Graph graph, List<Position> path) {
+        double cost = 0.0;
+        for (int i = 1; i < path.size(); i++) {
+            cost += graph.getNode(path.get(i - 1)).getNeighbors().get(graph.getNode(path.get(i)));
+        }
+        return cost;
+    }
+
+    // A* avec repères et Dijkstra trouvent des chemins de même coût (bornes encore admissibles)
+    private static void assertAltMatchesDijkstra(Environment env, String when) {
+        Graph graph = env.getGlobalGraph();
+        LandmarkIndex landmarks = env.getLandmarkIndex();
+        List<Position> nodes = graph.getAllNodes().stream().map(GraphNode::getPosition).toList();
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            Position start = nodes.get(random.nextInt(nodes.size()));
+            Position goal = nodes.get(random.nextInt(nodes.size()));
+            List<Position> expected = DijkstraAlgorithm.computePathBidirectional(graph, start, goal);
+            List<Position> actual = AltSearch.forCurrentThread().computePath(graph, landmarks, start, goal);
+            assertEquals(expected.isEmpty(), actual.isEmpty(), when + " : " + start + " -> " + goal);
+            if (!expected.isEmpty()) {
+                assertEquals(cost(graph, expected), cost(graph, actual), 1e-6, when + " : " + start + " -> " + goal);
+            }
+        }
+    }
+
+    @Test
+    void obstacleTogglesKeepLandmarkIndex() {
+        // Voies sur la grille (y multiple de 10) : chaque obstacle recouvre un nœud du graphe
+        Environment env = new Environment();
+        Road a = road("A", 100, List.of(new Position(0, 0), new Position(100, 0)), 0, 10);
+        Road b = road("B", 60, List.of(new Position(60, 20)), 10, 20);
+        Lane laneB = b.getLanes().get(1);
+        laneB.addObstacle(new Obstacle(new Position(30, 20)));
+        env.addRoad(a);
+        env.addRoad(b);
+        env.enableLandmarkRouting(4);
+        LandmarkIndex landmarks = env.getLandmarkIndex();
+        assertSame(landmarks, env.getLandmarkIndex());
+
+        // Obstacles posés, déplacés (sur un nœud partagé par A et B) puis retirés après le calcul : pas de
+        // nouveau prétraitement
+        Lane lane = a.getLanes().get(0);
+        Obstacle obstacle = new Obstacle(new Position(50, 0));
+        env.addObstacle(a, lane, obstacle);
+        assertTrue(env.getGlobalGraph().getNode(new Position(50, 0)).getNeighbors().isEmpty());
+        assertSame(landmarks, env.getLandmarkIndex());
+        assertAltMatchesDijkstra(env, "obstacle posé");
+        env.moveObstacle(a, obstacle, new Position(40, 10));
+        assertSame(landmarks, env.getLandmarkIndex());
+        assertAltMatchesDijkstra(env, "obstacle déplacé");
+        assertTrue(env.removeObstacle(a, lane, obstacle));
+        assertSame(landmarks, env.getLandmarkIndex());
+        assertAltMatchesDijkstra(env, "obstacle retiré");
+
+        // L'obstacle de B était là au calcul : le libérer rend des arêtes inconnues de l'index
+        env.removeObstacle(b, laneB, laneB.getObstacles().get(0));
+        assertFalse(env.getGlobalGraph().getNode(new Position(30, 20)).getNeighbors().isEmpty());
+        LandmarkIndex rebuilt = env.getLandmarkIndex();
+        assertNotSame(landmarks, rebuilt);
+        assertAltMatchesDijkstra(env, "obstacle initial retiré");
+
+        // Nouvelle route : nouveaux nœuds, l'index est refait
+        env.addRoad(road("E", 30, List.of(new Position(500, 500)), 40));
+        assertNotSame(rebuilt, env.getLandmarkIndex());
+        assertAltMatchesDijkstra(env, "route ajoutée");
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.environment;
+
+import org.example.agent.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.example.environment.TrafficLight.LightColor.GREEN;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GreenWaveOptimizerTest {
+
+    private static final double SPEED = 10.0;
+    private static final int CYCLE = 40;
+
+    // Route à une voie de sens direction, entrée en entryX, deux feux à 100 et 300 unités de l'entrée
+    private static Road corridor(int direction, int entryX) {
+        int sign = direction == Lane.DIRECTION_LEFT ? -1 : 1;
+        Road road = new Road("C1", 400.0, List.of(new Position(entryX, 0), new Position(entryX + sign * 400, 0)));
+        road.addLane(new Lane("C1L", 3.5, 1.0, direction, road));
+        road.addTrafficLight(new TrafficLight("far", GREEN), new Position(entryX + sign * 300, 1));
+        road.addTrafficLight(new TrafficLight("near", GREEN), new Position(entryX + sign * 100, 1));
+        return road;
+    }
+
+    private static void assertGreenWave(Road road) {
+        GreenWaveOptimizer optimizer = GreenWaveOptimizer.forRoad(road, SPEED).setCycles(CYCLE).setArrivalRate(0.05);
+        assertEquals(List.of("near", "far"), optimizer.getLights().stream().map(TrafficLight::getId).toList());
+        assertArrayEquals(new double[]{100.0, 300.0}, optimizer.getPositions());
+
+        // Onde verte : le second feu s'ouvre 200 / SPEED = 20 ticks après le premier (au pas de décalage près)
+        GreenWaveOptimizer.Plan plan = optimizer.optimize();
+        int shift = Math.floorMod(plan.offsets()[1] - plan.offsets()[0], CYCLE);
+        int step = CYCLE / 20;
+        assertTrue(Math.abs(shift - 20) <= step, "décalage relatif " + shift + " : " + plan);
+    }
+
+    @Test
+    void corridorTowardsIncreasingX() {
+        assertGreenWave(corridor(Lane.DIRECTION_RIGHT, 1000));
+    }
+
+    @Test
+    void corridorTowardsDecreasingX() {
+        assertGreenWave(corridor(Lane.DIRECTION_LEFT, 1000));
+    }
+
+    @Test
+    void rejectsLightsInOppositeDirections() {
+        Road road = new Road("C2", 400.0, List.of(new Position(0, 0)));
+        road.addLane(new Lane("E", 3.5, 1.0, Lane.DIRECTION_RIGHT, road));
+        road.addLane(new Lane("W", 3.5, -1.0, Lane.DIRECTION_LEFT, road));
+        road.addTrafficLight(new TrafficLight("e", GREEN), new Position(100, 1));
+        road.addTrafficLight(new TrafficLight("w", GREEN), new Position(100, -1));
+        assertThrows(IllegalArgumentException.class, () -> GreenWaveOptimizer.forRoad(road, SPEED));
+    }
+}
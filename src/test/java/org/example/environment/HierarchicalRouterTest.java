@@ -0,0 +1,110 @@
+package org.example.environment;
+
+import org.example.agent.Position;
+import org.example.planning.DijkstraAlgorithm;
+import org.example.planning.Graph;
+import org.example.planning.GraphNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalRouterTest {
+
+    private static final Position START = new Position(0, 0);
+    private static final Position GOAL = new Position(80, 30);
+
+    private static Road road(String id, double length, List<Position> entries, int... laneYs) {
+        Road road = new Road(id, length, entries);
+        for (int i = 0; i < laneYs.length; i++) {
+            road.addLane(new Lane(id + "L" + i, 3.5, laneYs[i], Lane.DIRECTION_RIGHT, road));
+        }
+        return road;
+    }
+
+    /*
+    Chaîne A -> B -> C -> D, une jonction entre deux routes consécutives seulement :
+     A (y=0) sort en (100, 0) vers B (y=10, deux voies) ; B sort en (0, 10) vers C (y=20, 50 m) ;
+     C sort en (50, 20) vers D (y=30), où se trouve le but.
+     */
+    private static Environment chain() {
+        Environment env = new Environment();
+        env.addRoad(road("A", 100, List.of(new Position(100, 0)), 0));
+        env.addRoad(road("B", 100, List.of(new Position(100, 10), new Position(0, 10)), 10, 14));
+        env.addRoad(road("C", 50, List.of(new Position(0, 20), new Position(50, 20)), 20));
+        env.addRoad(road("D", 80, List.of(new Position(50, 30)), 30));
+        env.setHierarchicalRouting(true);
+        return env;
+    }
+
+    private static Road byId(Environment env, String id) {
+        return env.getRoads().stream().filter(r -> r.getId().equals(id)).findFirst().orElseThrow();
+    }
+
+    // Suit le routeur comme un véhicule : chemin jusqu'à la sortie de la route suivante, puis replanification
+    private static List<Position> followHierarchical(Environment env, Road from, Position start) {
+        HierarchicalRouter router = env.getHierarchicalRouter();
+        List<Position> path = new ArrayList<>(List.of(start));
+        Road road = from;
+        Position at = start;
+        for (int leg = 0; leg < env.getRoads().size() && !at.equals(GOAL); leg++) {
+            List<Position> segment = router.computePath(road, at, GOAL);
+            assertFalse(segment.isEmpty(), "tronçon " + leg + " depuis " + road.getId());
+            assertEquals(at, segment.get(0));
+            path.addAll(segment.subList(1, segment.size()));
+            at = segment.get(segment.size() - 1);
+            List<Road> sequence = router.getRoadSequence(road, GOAL);
+            if (!at.equals(GOAL)) road = sequence.get(1);
+        }
+        return path;
+    }
+
+    private static double cost(Graph graph, List<Position> path) {
+        double cost = 0.0;
+        for (int i = 1; i < path.size(); i++) {
+            GraphNode from = graph.getNode(path.get(i - 1));
+            Double edge = from == null ? null : from.getNeighbors().get(graph.getNode(path.get(i)));
+            assertNotNull(edge, "pas d'arête " + path.get(i - 1) + " -> " + path.get(i));
+            cost += edge;
+        }
+        return cost;
+    }
+
+    @Test
+    void hierarchicalPathReachesGoalLikeFlatPath() {
+        Environment env = chain();
+        assertEquals(List.of("A", "B", "C", "D"),
+                env.getHierarchicalRouter().getRoadSequence(byId(env, "A"), GOAL).stream().map(Road::getId).toList());
+
+        List<Position> hierarchical = followHierarchical(env, byId(env, "A"), START);
+        List<Position> flat = DijkstraAlgorithm.computePathBidirectional(env.getGlobalGraph(), START, GOAL);
+        assertEquals(GOAL, hierarchical.get(hierarchical.size() - 1));
+        assertEquals(cost(env.getGlobalGraph(), flat), cost(env.getGlobalGraph(), hierarchical), 1e-9);
+        assertEquals(flat, hierarchical);
+    }
+
+    @Test
+    void cachedLocalGraphFollowsObstacles() {
+        Environment env = chain();
+        Road a = byId(env, "A");
+        Road b = byId(env, "B");
+        HierarchicalRouter router = env.getHierarchicalRouter();
+        List<Position> first = router.computePath(a, START, GOAL);
+        assertEquals(first, router.computePath(a, START, GOAL));
+        assertTrue(first.contains(new Position(50, 10)));
+
+        // Obstacle sur la voie de B empruntée : le graphe fusionné A+B est refait, le chemin passe par l'autre voie
+        Lane lane = b.getLanes().get(0);
+        env.addObstacle(b, lane, new Obstacle(new Position(50, 10)));
+        List<Position> detour = router.computePath(a, START, GOAL);
+        assertFalse(detour.contains(new Position(50, 10)));
+        assertTrue(detour.contains(new Position(50, 14)));
+        assertEquals(new Position(0, 10), detour.get(detour.size() - 1));
+
+        List<Position> hierarchical = followHierarchical(env, a, START);
+        List<Position> flat = DijkstraAlgorithm.computePathBidirectional(env.getGlobalGraph(), START, GOAL);
+        assertEquals(cost(env.getGlobalGraph(), flat), cost(env.getGlobalGraph(), hierarchical), 1e-9);
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.environment;
+
+import org.example.environment.TrafficLight.LightColor;
+import org.example.environment.TrafficLight.TrafficLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntersectionControllerTest {
+
+    // Ancienne implémentation de stepAll(), avant les plans de phases : groupes N-S / E-W dans une HashMap
+    private static void legacyStepAll(List<TrafficLight> trafficLights) {
+        Map<String, List<String>> conflictGroups = new HashMap<>();
+        conflictGroups.put("group1", List.of("TL1", "TL3"));
+        conflictGroups.put("group2", List.of("TL2", "TL4"));
+
+        Map<String, Double> groupScores = new HashMap<>();
+        for (Map.Entry<String, List<String>> group : conflictGroups.entrySet()) {
+            double groupScore = 0.0;
+            for (String id : group.getValue()) {
+                TrafficLight tl = legacyFindById(trafficLights, id);
+                if (tl != null) {
+                    groupScore += legacyScore(tl);
+                }
+            }
+            groupScores.put(group.getKey(), groupScore);
+        }
+
+        String bestGroup = groupScores.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+        if (bestGroup == null) return;
+
+        for (Map.Entry<String, List<String>> group : conflictGroups.entrySet()) {
+            boolean activate = group.getKey().equals(bestGroup);
+            for (String id : group.getValue()) {
+                TrafficLight tl = legacyFindById(trafficLights, id);
+                if (tl != null) {
+                    tl.setState(activate ? LightColor.GREEN : LightColor.RED);
+                }
+            }
+        }
+    }
+
+    private static double legacyScore(TrafficLight tl) {
+        return switch (tl.getCurrentTraffic()) {
+            case NONE -> 0.0;
+            case MEDIUM -> 3.0;
+            case HEAVY -> 7.0;
+        };
+    }
+
+    private static TrafficLight legacyFindById(List<TrafficLight> lights, String id) {
+        for (TrafficLight tl : lights) {
+            if (tl.getId().equals(id)) return tl;
+        }
+        return null;
+    }
+
+    private static final String[] IDS = {"TL1", "TL2", "TL3", "TL4", "TL5"};
+    private static final int[] COUNTS_BY_LEVEL = {0, 2, 7}; // NONE, MEDIUM, HEAVY pour updateTrafficLevel()
+
+    @Test
+    void defaultPlanMatchesLegacyController() {
+        Random random = new Random(2024);
+        for (int intersection = 0; intersection < 2_000; intersection++) {
+            // Intersection aléatoire : sous-ensemble (avec doublons possibles) des ids, niveaux et couleurs aléatoires
+            int size = random.nextInt(6);
+            List<TrafficLight> legacy = new ArrayList<>();
+            List<TrafficLight> current = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                String id = IDS[random.nextInt(IDS.length)];
+                LightColor color = LightColor.values()[random.nextInt(LightColor.values().length)];
+                int count = COUNTS_BY_LEVEL[random.nextInt(TrafficLevel.values().length)];
+                TrafficLight a = new TrafficLight(id, color);
+                TrafficLight b = new TrafficLight(id, color);
+                a.updateTrafficLevel(count);
+                b.updateTrafficLevel(count);
+                legacy.add(a);
+                current.add(b);
+            }
+
+            legacyStepAll(legacy);
+            IntersectionController controller = new IntersectionController(current);
+            controller.stepAll();
+
+            for (int i = 0; i < size; i++) {
+                assertEquals(legacy.get(i).getState(), current.get(i).getState(),
+                        "intersection " + intersection + ", feu " + i + " (" + current.get(i).getId() + ")");
+            }
+            assertFalse(controller.hasConflictingGreens(), "intersection " + intersection);
+        }
+    }
+}
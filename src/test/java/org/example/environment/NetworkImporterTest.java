@@ -0,0 +1,107 @@
+package org.example.environment;
+
+import org.example.agent.Position;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkImporterTest {
+
+    private static final String NETWORK = """
+            # petit réseau : deux routes en T
+            node n1 0 0
+            node n2 100 0
+            node n3 100 80
+
+            road R1 n1 n2
+            lane R1a 3.5 1 RIGHT
+            lane R1b 3.5 -1 LEFT
+            signal R1 90 1 GREEN
+
+            road R2 n2 n3 75
+            lane R2a 3.5 1 0
+            signal R2 100 70
+            signal R2bis 100 20 ORANGE
+            """;
+
+    private static List<Road> importRoads(String text) throws IOException {
+        List<Road> roads = new ArrayList<>();
+        NetworkImporter.importFrom(new StringReader(text), roads::add);
+        return roads;
+    }
+
+    @Test
+    void importsSmallNetwork() throws IOException {
+        List<Road> roads = new ArrayList<>();
+        NetworkImporter.Stats stats = NetworkImporter.importFrom(new StringReader(NETWORK), roads::add);
+        assertEquals(3, stats.nodes());
+        assertEquals(2, stats.roads());
+        assertEquals(3, stats.lanes());
+        assertEquals(3, stats.signals());
+
+        Road r1 = roads.get(0);
+        assertEquals("R1", r1.getId());
+        assertEquals(100.0, r1.getLength());
+        assertEquals(List.of(new Position(0, 0), new Position(100, 0)), r1.getEntryPoints());
+        assertEquals(2, r1.getLanes().size());
+        assertEquals(Lane.DIRECTION_LEFT, r1.getLanes().get(1).getDirection());
+        assertEquals(TrafficLight.LightColor.GREEN, r1.getTrafficLights().get(0).getState());
+        assertEquals(new Position(90, 1), r1.getTrafficLightPosition(r1.getTrafficLights().get(0)));
+
+        Road r2 = roads.get(1);
+        assertEquals(75.0, r2.getLength());
+        assertEquals(List.of(new Position(100, 0), new Position(100, 80)), r2.getEntryPoints());
+        assertEquals(1, r2.getLanes().size());
+        assertEquals(Lane.DIRECTION_RIGHT, r2.getLanes().get(0).getDirection());
+        assertEquals(List.of(TrafficLight.LightColor.RED, TrafficLight.LightColor.ORANGE),
+                r2.getTrafficLights().stream().map(TrafficLight::getState).toList());
+    }
+
+    @Test
+    void reportsMalformedLineNumber() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> importRoads("""
+                node n1 0 0
+                node n2 100 0
+                road R1 n1 n2
+                lane R1a 3.5 1 UP
+                """));
+        assertTrue(error.getMessage().startsWith("Ligne 4 invalide"), error.getMessage());
+        assertTrue(error.getMessage().contains("direction inconnue 'UP'"), error.getMessage());
+
+        error = assertThrows(IllegalArgumentException.class, () -> importRoads("""
+                node n1 0 0
+                # une route vers un nœud jamais déclaré
+                road R1 n1 n9
+                """));
+        assertTrue(error.getMessage().startsWith("Ligne 3 invalide"), error.getMessage());
+
+        error = assertThrows(IllegalArgumentException.class, () -> importRoads("lane L1 3.5 1 RIGHT"));
+        assertTrue(error.getMessage().contains("aucune route ouverte"), error.getMessage());
+    }
+
+    @Test
+    void rejectsDuplicateIds() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> importRoads("""
+                node n1 0 0
+                node n2 100 0
+                node n1 50 50
+                """));
+        assertTrue(error.getMessage().startsWith("Ligne 3 invalide"), error.getMessage());
+        assertTrue(error.getMessage().contains("n1"), error.getMessage());
+
+        error = assertThrows(IllegalArgumentException.class, () -> importRoads("""
+                node n1 0 0
+                node n2 100 0
+                road R1 n1 n2
+                lane R1a 3.5 1 RIGHT
+                road R1 n2 n1
+                """));
+        assertTrue(error.getMessage().startsWith("Ligne 5 invalide"), error.getMessage());
+        assertTrue(error.getMessage().contains("route 'R1' déjà définie"), error.getMessage());
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.environment;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhasePlanTest {
+
+    @Test
+    void parsesPlansInFileOrder() throws IOException {
+        Map<String, PhasePlan> plans = PhasePlan.parseAll(new StringReader("""
+                # deux intersections
+                intersection I1
+                phase TL1 TL3
+                phase TL2 TL4
+                intersection I2
+                phase A
+                phase B C
+                conflict A D
+                """));
+        assertEquals(List.of("I1", "I2"), List.copyOf(plans.keySet()));
+        assertEquals(List.of(List.of("TL1", "TL3"), List.of("TL2", "TL4")), plans.get("I1").getPhases());
+        assertTrue(plans.get("I2").areInConflict("A", "B"));
+        assertFalse(plans.get("I2").areInConflict("B", "C"));
+    }
+
+    @Test
+    void rejectsDuplicateIntersectionWithLineNumber() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> PhasePlan.parseAll(new StringReader("""
+                intersection I1
+                phase TL1
+                intersection I2
+                phase TL2
+                intersection I1
+                phase TL3
+                """)));
+        assertTrue(error.getMessage().startsWith("Ligne 5 invalide"), error.getMessage());
+        assertTrue(error.getMessage().contains("I1"), error.getMessage());
+    }
+
+    @Test
+    void rejectsConflictInsidePhase() {
+        assertThrows(IllegalArgumentException.class, () -> PhasePlan.parseAll(new StringReader("""
+                intersection I1
+                phase A B
+                conflict B A
+                """)));
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.environment;
+
+import org.example.environment.TrafficLight.LightColor;
+import org.example.environment.TrafficLight.PolicySolver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolicyCacheTest {
+
+    private static PolicyCache.Solution solution(String action) {
+        return new PolicyCache.Solution(Map.of("GREEN_NONE", action), new double[0][]);
+    }
+
+    @Test
+    void solvesOutsideTheLock() throws Exception {
+        PolicyCache cache = new PolicyCache(16);
+        PolicyCache.Key slowKey = new PolicyCache.Key(1.0, 2.0);
+        PolicyCache.Key otherKey = new PolicyCache.Key(3.0);
+        CountDownLatch solving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger slowSolves = new AtomicInteger();
+
+        CompletableFuture<PolicyCache.Solution> first = CompletableFuture.supplyAsync(() -> cache.getOrSolve(slowKey, () -> {
+            slowSolves.incrementAndGet();
+            solving.countDown();
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return solution("STAY_GREEN");
+        }));
+        assertTrue(solving.await(10, TimeUnit.SECONDS));
+
+        // Un autre modèle n'attend pas la résolution en cours
+        PolicyCache.Solution other = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> cache.getOrSolve(otherKey, () -> solution("SWITCH_ORANGE")));
+        assertEquals("SWITCH_ORANGE", other.policy().get("GREEN_NONE"));
+
+        // Le même modèle attend le résultat en cours au lieu de le recalculer
+        CompletableFuture<PolicyCache.Solution> second = CompletableFuture.supplyAsync(() -> cache.getOrSolve(slowKey, () -> {
+            slowSolves.incrementAndGet();
+            return solution("AUTRE");
+        }));
+        release.countDown();
+        assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, slowSolves.get());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void failedSolveIsNotCached() {
+        PolicyCache cache = new PolicyCache(16);
+        PolicyCache.Key key = new PolicyCache.Key(4.0);
+        assertThrows(IllegalStateException.class, () -> cache.getOrSolve(key, () -> {
+            throw new IllegalStateException("échec");
+        }));
+        assertEquals("STAY_GREEN", cache.getOrSolve(key, () -> solution("STAY_GREEN")).policy().get("GREEN_NONE"));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void lightsWithAnotherSolverDoNotShareEntries() {
+        PolicyCache cache = PolicyCache.shared();
+        cache.clear();
+        long misses = cache.getMisses();
+        long hits = cache.getHits();
+
+        TrafficLight first = new TrafficLight("TL1", LightColor.GREEN);
+        TrafficLight sameSolver = new TrafficLight("TL2", LightColor.GREEN);
+        TrafficLight otherSolver = new TrafficLight("TL3", LightColor.GREEN);
+        otherSolver.setPolicySolver(PolicySolver.WARM_PRIORITIZED_SWEEPING);
+        first.updatePolicy();
+        sameSolver.updatePolicy();
+        otherSolver.updatePolicy();
+
+        assertEquals(misses + 2, cache.getMisses());
+        assertEquals(hits + 1, cache.getHits());
+        assertSame(first.getPolicy(), sameSolver.getPolicy());
+        assertNotSame(first.getPolicy(), otherSolver.getPolicy());
+    }
+}
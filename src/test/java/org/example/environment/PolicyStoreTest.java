@@ -0,0 +1,115 @@
+package org.example.environment;
+
+import org.example.agent.Position;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.example.environment.TrafficLight.LightColor.GREEN;
+import static org.example.environment.TrafficLight.LightColor.RED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolicyStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static TrafficLight trainedLight(String id, TrafficLight.LightColor color, long seed) {
+        TrafficLight light = new TrafficLight(id, color);
+        light.updatePolicy();
+        light.trainOffline(5_000, new SplittableRandom(seed));
+        return light;
+    }
+
+    @Test
+    void writeReadRoundTrip() throws IOException {
+        TrafficLight first = trainedLight("A", GREEN, 1);
+        TrafficLight second = trainedLight("B", RED, 2);
+        second.getTransitionMatrix().setTrafficTransitionProbs(TrafficLight.TrafficLevel.HEAVY, new double[]{0.2, 0.3, 0.5});
+        second.updatePolicy();
+
+        Map<String, TrafficLight.LearnedPolicy> policies = new LinkedHashMap<>();
+        policies.put("R1/A", first.getLearnedPolicy());
+        policies.put("R1/B", second.getLearnedPolicy());
+        Path file = dir.resolve("lights.policies");
+        PolicyStore.save(file, policies);
+
+        Map<String, TrafficLight.LearnedPolicy> loaded = PolicyStore.load(file);
+        assertEquals(List.copyOf(policies.keySet()), List.copyOf(loaded.keySet()));
+        for (String key : policies.keySet()) {
+            TrafficLight.LearnedPolicy expected = policies.get(key);
+            TrafficLight.LearnedPolicy actual = loaded.get(key);
+            assertArrayEquals(expected.model(), actual.model(), key);
+            assertArrayEquals(expected.qValues(), actual.qValues(), key);
+            assertArrayEquals(expected.values(), actual.values(), key);
+            assertArrayEquals(expected.actions(), actual.actions(), key);
+        }
+
+        // La politique relue est reprise telle quelle par un feu de même modèle
+        TrafficLight restored = new TrafficLight("A", GREEN);
+        assertTrue(restored.setLearnedPolicy(loaded.get("R1/A")));
+        assertEquals(first.getPolicy(), restored.getPolicy());
+        assertArrayEquals(first.getLearnedPolicy().qValues(), restored.getLearnedPolicy().qValues());
+
+        // ... mais refusée si le modèle du feu a changé
+        assertFalse(new TrafficLight("A", GREEN).setLearnedPolicy(loaded.get("R1/B")));
+    }
+
+    @Test
+    void rejectsForeignFiles() throws IOException {
+        Path file = dir.resolve("other.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 0, 0, 0, 1, 0, 0, 0, 0});
+        assertThrows(IOException.class, () -> PolicyStore.load(file));
+    }
+
+    @Test
+    void prepareTrainsOnlyMissingLights() throws IOException {
+        Path file = dir.resolve("scenario.policies");
+        Environment env = new Environment();
+        Road road = new Road("R1", 100.0, List.of(new Position(0, 0)));
+        road.addTrafficLight(new TrafficLight("F1", GREEN), new Position(50, 1));
+        env.getRoads().add(road);
+        env.prepareSignalPolicies(file, 1_000, 7);
+        assertTrue(Files.exists(file));
+
+        // Second démarrage : tout est repris du fichier, plus un nouveau feu à entraîner
+        Environment again = new Environment();
+        Road sameRoad = new Road("R1", 100.0, List.of(new Position(0, 0)));
+        sameRoad.addTrafficLight(new TrafficLight("F1", GREEN), new Position(50, 1));
+        TrafficLight added = new TrafficLight("F2", RED);
+        sameRoad.addTrafficLight(added, new Position(80, 1));
+        again.getRoads().add(sameRoad);
+        assertEquals(List.of(added), again.loadSignalPolicies(file));
+    }
+
+    @Test
+    void policyFilesGoToTheirOwnDirectory() throws IOException {
+        String previous = System.getProperty(PolicyStore.DIRECTORY_PROPERTY);
+        try {
+            System.clearProperty(PolicyStore.DIRECTORY_PROPERTY);
+            assertEquals(Path.of("target", "policies", "scenario1.policies"), PolicyStore.fileFor("scenario1.policies"));
+
+            // Répertoire configurable, créé à la première sauvegarde
+            Path custom = dir.resolve("runs").resolve("policies");
+            System.setProperty(PolicyStore.DIRECTORY_PROPERTY, custom.toString());
+            Path file = PolicyStore.fileFor("scenario1.policies");
+            assertEquals(custom.resolve("scenario1.policies"), file);
+            PolicyStore.save(file, Map.of());
+            assertTrue(Files.isRegularFile(file));
+            assertTrue(PolicyStore.load(file).isEmpty());
+        } finally {
+            if (previous == null) {
+                System.clearProperty(PolicyStore.DIRECTORY_PROPERTY);
+            } else {
+                System.setProperty(PolicyStore.DIRECTORY_PROPERTY, previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.environment;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayLearnerTest {
+
+    private static void recordTransitions(ReplayLearner learner, int count) {
+        for (int i = 0; i < count; i++) {
+            learner.record(i % TrafficLight.STATE_COUNT, i % 2, 1.0, (i + 1) % TrafficLight.STATE_COUNT);
+        }
+    }
+
+    @Test
+    void synchronousTrainingIsRejectedWhileRunning() {
+        try (ReplayLearner learner = new ReplayLearner(new ExperienceReplay(64), 8, 0.1, 0.9, 1)) {
+            recordTransitions(learner, 16);
+            learner.trainBatch();
+            assertEquals(1, learner.getBatches());
+
+            learner.start();
+            assertThrows(IllegalStateException.class, learner::trainBatch);
+        }
+    }
+
+    @Test
+    void learnerWaitsForNewTransitions() throws InterruptedException {
+        try (ReplayLearner learner = new ReplayLearner(new ExperienceReplay(256), 16, 0.1, 0.9, 2)) {
+            recordTransitions(learner, 64);
+            learner.start();
+            Thread.sleep(200);
+            long batches = learner.getBatches();
+            // 64 transitions x 8 tirages / 16 par mini-lot = 32 mini-lots au plus, puis attente
+            assertTrue(batches > 0 && batches <= 32, "mini-lots : " + batches);
+            Thread.sleep(100);
+            assertEquals(batches, learner.getBatches());
+
+            recordTransitions(learner, 32);
+            long deadline = System.currentTimeMillis() + 2_000;
+            while (learner.getBatches() == batches && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertTrue(learner.getBatches() > batches);
+            assertTrue(learner.getBatches() <= 48);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.environment;
+
+import org.example.agent.Position;
+import org.example.agent.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.example.environment.TrafficLight.LightColor.GREEN;
+import static org.example.environment.TrafficLight.LightColor.RED;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadTest {
+
+    private static void assertCountsMatchRecount(Road road, String when) {
+        int[] expected = road.countApproaches();
+        List<TrafficLight> lights = road.getTrafficLights();
+        for (int i = 0; i < lights.size(); i++) {
+            assertEquals(expected[i], road.countVehiclesApproaching(lights.get(i)), when + ", feu " + lights.get(i).getId());
+        }
+    }
+
+    @Test
+    void vehicleListIsReadOnly() {
+        Road road = new Road("R1", 100.0, List.of(new Position(0, 0)));
+        Lane lane = new Lane("L1", 3.5, 1.0, Lane.DIRECTION_RIGHT, road);
+        road.addLane(lane);
+        lane.addVehicle(new Vehicle(new Position(0, 1), new Position(100, 1), null));
+        assertThrows(UnsupportedOperationException.class, () -> lane.getVehicles().clear());
+        assertThrows(UnsupportedOperationException.class, () -> lane.getVehicles().removeIf(v -> true));
+        assertEquals(1, lane.getVehicles().size());
+    }
+
+    @Test
+    void incrementalApproachCountsMatchFullRecount() {
+        Environment env = new Environment();
+        Road road = new Road("R1", 200.0, List.of(new Position(0, 0), new Position(200, 0)));
+        Lane lane1 = new Lane("L1", 3.5, 1.0, Lane.DIRECTION_RIGHT, road);
+        Lane lane2 = new Lane("L2", 3.5, -1.0, Lane.DIRECTION_RIGHT, road);
+        road.addLane(lane1);
+        road.addLane(lane2);
+        road.addTrafficLight(new TrafficLight("F1", GREEN), new Position(60, 1));
+        road.addTrafficLight(new TrafficLight("F2", RED), new Position(150, 1));
+        lane1.addObstacle(new Obstacle(new Position(40, 1)));
+        lane2.addObstacle(new Obstacle(new Position(110, -1)));
+        env.getRoads().add(road);
+        env.buildGlobalGraph();
+
+        Random random = new Random(11);
+        List<Lane> lanes = List.of(lane1, lane2);
+        for (int tick = 0; tick < 60; tick++) {
+            // Entrées à des positions aléatoires
+            for (int k = random.nextInt(3); k > 0; k--) {
+                Lane lane = lanes.get(random.nextInt(2));
+                if (lane.getVehicles().size() >= Road.maxCapacityCount()) continue;
+                int y = lane.getCenterYInt();
+                lane.addVehicle(new Vehicle(new Position(random.nextInt(180), y), new Position(200, y), env));
+            }
+            assertCountsMatchRecount(road, "après entrées, tick " + tick);
+
+            // Déplacements (et changements de voie) décidés par les véhicules eux-mêmes
+            for (Lane lane : lanes) {
+                for (Vehicle vehicle : new ArrayList<>(lane.getVehicles())) {
+                    vehicle.bdiCycle(lane, road);
+                }
+            }
+            env.endTick();
+            assertCountsMatchRecount(road, "après déplacements, tick " + tick);
+
+            // Changement de voie forcé, puis retraits
+            Lane from = lanes.get(random.nextInt(2));
+            Lane to = from == lane1 ? lane2 : lane1;
+            if (!from.getVehicles().isEmpty() && to.getVehicles().size() < Road.maxCapacityCount()) {
+                from.transferVehicle(from.getVehicles().get(random.nextInt(from.getVehicles().size())), to);
+            }
+            Lane removeFrom = lanes.get(random.nextInt(2));
+            if (!removeFrom.getVehicles().isEmpty() && random.nextBoolean()) {
+                assertTrue(removeFrom.removeVehicle(removeFrom.getVehicles().get(random.nextInt(removeFrom.getVehicles().size()))));
+            }
+            lane1.removeArrivedVehicles();
+            lane2.removeArrivedVehicles();
+            assertCountsMatchRecount(road, "après retraits, tick " + tick);
+        }
+    }
+
+    private static void addVehicles(Lane lane, int count) {
+        int y = lane.getCenterYInt();
+        for (int i = 0; i < count; i++) {
+            lane.addVehicle(new Vehicle(new Position(5 * i, y), new Position(100, y), null));
+        }
+    }
+
+    @Test
+    void maxPressureServesTheLongerQueue() {
+        Road road = new Road("R1", 100.0, List.of(new Position(0, 0)));
+        Lane lane1 = new Lane("L1", 3.5, 1.0, Lane.DIRECTION_RIGHT, road);
+        Lane lane2 = new Lane("L2", 3.5, -1.0, Lane.DIRECTION_RIGHT, road);
+        road.addLane(lane1);
+        road.addLane(lane2);
+        TrafficLight north = new TrafficLight("F1", GREEN);
+        TrafficLight south = new TrafficLight("F2", RED);
+        road.addTrafficLight(north, new Position(80, 1));
+        road.addTrafficLight(south, new Position(80, -1));
+
+        assertEquals(List.of(lane1), road.getApproachingLanes(north));
+        assertEquals(List.of(lane2), road.getApproachingLanes(south));
+
+        // File plus longue devant F2 : le vert passe de F1 à F2
+        addVehicles(lane1, 1);
+        addVehicles(lane2, 4);
+        MaxPressureController controller = road.getMaxPressureController();
+        assertEquals(1.0, controller.pressure(north));
+        assertEquals(4.0, controller.pressure(south));
+        controller.stepIndividualLights();
+        assertEquals(RED, north.getState());
+        assertEquals(GREEN, south.getState());
+
+        // Puis revient à F1 quand sa file devient la plus longue
+        addVehicles(lane1, 6);
+        road.getMaxPressureController().stepIndividualLights();
+        assertEquals(GREEN, north.getState());
+        assertEquals(RED, south.getState());
+    }
+
+    @Test
+    void downstreamLanesSurviveRoadChanges() {
+        Road road = new Road("R1", 100.0, List.of(new Position(0, 0)));
+        Lane lane1 = new Lane("L1", 3.5, 1.0, Lane.DIRECTION_RIGHT, road);
+        road.addLane(lane1);
+        TrafficLight light = new TrafficLight("F1", GREEN);
+        road.addTrafficLight(light, new Position(80, 1));
+
+        Road next = new Road("R2", 100.0, List.of(new Position(80, 0)));
+        Lane exit = new Lane("S1", 3.5, 1.0, Lane.DIRECTION_RIGHT, next);
+        next.addLane(exit);
+        addVehicles(exit, 2);
+        road.setDownstreamLanes(light, List.of(exit));
+        addVehicles(lane1, 5);
+        assertEquals(3.0, road.getMaxPressureController().pressure(light));
+
+        // Ajouter une voie ou un feu recrée les mouvements sans perdre l'aval
+        road.addLane(new Lane("L2", 3.5, -1.0, Lane.DIRECTION_RIGHT, road));
+        road.addTrafficLight(new TrafficLight("F2", RED), new Position(80, -1));
+        assertEquals(3.0, road.getMaxPressureController().pressure(light));
+    }
+}
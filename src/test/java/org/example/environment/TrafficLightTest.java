@@ -0,0 +1,82 @@
+package org.example.environment;
+
+import org.example.environment.TrafficLight.LightAction;
+import org.example.environment.TrafficLight.LightColor;
+import org.example.environment.TrafficLight.PolicySolver;
+import org.example.environment.TrafficLight.TrafficLevel;
+import org.example.mdp.MdpSolveStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficLightTest {
+
+    @Test
+    void qValueRejectsActionsOfAnotherColor() {
+        TrafficLight light = new TrafficLight("TL", LightColor.GREEN);
+        assertEquals(0.0, light.getQValue(LightColor.GREEN, TrafficLevel.HEAVY, LightAction.STAY_GREEN));
+        assertEquals(0.0, light.getQValue(LightColor.GREEN, TrafficLevel.HEAVY, LightAction.SWITCH_ORANGE));
+        assertThrows(IllegalArgumentException.class,
+                () -> light.getQValue(LightColor.GREEN, TrafficLevel.HEAVY, LightAction.SWITCH_GREEN));
+        assertThrows(IllegalArgumentException.class,
+                () -> light.getQValue(LightColor.RED, TrafficLevel.NONE, LightAction.STAY_ORANGE));
+    }
+
+    @Test
+    void sparseSolverMatchesValueIteration() {
+        for (PolicySolver solver : PolicySolver.values()) {
+            if (solver == PolicySolver.VALUE_ITERATION) continue;
+            assertSameSolution(solver, 0.5, -2.0, null);
+            assertSameSolution(solver, 1.0, -0.5, new double[]{0.2, 0.5, 0.3});
+        }
+    }
+
+    private static void assertSameSolution(PolicySolver solver, double stayBonus, double switchPenalty, double[] mediumRow) {
+        TrafficLight legacy = new TrafficLight("legacy", LightColor.GREEN);
+        TrafficLight sparse = new TrafficLight("sparse", LightColor.GREEN);
+        for (TrafficLight light : new TrafficLight[]{legacy, sparse}) {
+            light.setActionRewards(stayBonus, switchPenalty);
+            if (mediumRow != null) light.getTransitionMatrix().setTrafficTransitionProbs(TrafficLevel.MEDIUM, mediumRow);
+        }
+        legacy.valueIteration(1e-9);
+        sparse.setPolicySolver(solver);
+        MdpSolveStats stats = sparse.solveWithSparseSolver(1e-9);
+
+        assertTrue(stats.converged(), solver + " : " + stats);
+        assertEquals(legacy.getPolicy(), sparse.getPolicy(), solver.name());
+        Map<String, Double> expected = legacy.getValueFunctionAsMap();
+        Map<String, Double> actual = sparse.getValueFunctionAsMap();
+        for (String state : expected.keySet()) {
+            assertEquals(expected.get(state), actual.get(state), 1e-6, solver + " " + state);
+        }
+    }
+
+    @Test
+    void prioritizedSweepingReseedsOnlyChangedRows() {
+        TrafficLight warm = new TrafficLight("warm", LightColor.GREEN);
+        warm.setPolicySolver(PolicySolver.WARM_PRIORITIZED_SWEEPING);
+        warm.solveWithSparseSolver(1e-9);
+
+        // Modèle inchangé : rien à recalculer
+        assertEquals(0, warm.solveWithSparseSolver(1e-9).backups());
+
+        // Une ligne de la matrice change : même résultat qu'une résolution complète
+        double[] heavyRow = {0.25, 0.35, 0.4};
+        warm.getTransitionMatrix().setTrafficTransitionProbs(TrafficLevel.HEAVY, heavyRow);
+        MdpSolveStats stats = warm.solveWithSparseSolver(1e-9);
+        assertTrue(stats.converged());
+        assertTrue(stats.backups() > 0);
+
+        TrafficLight legacy = new TrafficLight("legacy", LightColor.GREEN);
+        legacy.getTransitionMatrix().setTrafficTransitionProbs(TrafficLevel.HEAVY, heavyRow);
+        legacy.valueIteration(1e-9);
+        assertEquals(legacy.getPolicy(), warm.getPolicy());
+        Map<String, Double> expected = legacy.getValueFunctionAsMap();
+        Map<String, Double> actual = warm.getValueFunctionAsMap();
+        for (String state : expected.keySet()) {
+            assertEquals(expected.get(state), actual.get(state), 1e-6, state);
+        }
+    }
+}
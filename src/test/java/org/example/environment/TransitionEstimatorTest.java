@@ -0,0 +1,90 @@
+package org.example.environment;
+
+import org.example.environment.TrafficLight.TrafficLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransitionEstimatorTest {
+
+    // Trafic réel, différent de la matrice initiale
+    private static final double[][] TRUE_MATRIX = {
+            {0.1, 0.6, 0.3},
+            {0.2, 0.2, 0.6},
+            {0.05, 0.25, 0.7}
+    };
+
+    private static TrafficLevel sample(TrafficLevel level, Random random) {
+        double r = random.nextDouble();
+        double[] row = TRUE_MATRIX[level.ordinal()];
+        if (r < row[0]) return TrafficLevel.NONE;
+        if (r < row[0] + row[1]) return TrafficLevel.MEDIUM;
+        return TrafficLevel.HEAVY;
+    }
+
+    @Test
+    void convergesWithoutChurningTheModel() {
+        TransitionMatrix matrix = new TransitionMatrix();
+        TransitionEstimator estimator = new TransitionEstimator(matrix, 10);
+        Random random = new Random(3);
+        Set<String> publishedModels = new HashSet<>();
+        TrafficLevel level = TrafficLevel.NONE;
+        for (int tick = 0; tick < 50_000; tick++) {
+            TrafficLevel next = sample(level, random);
+            estimator.observeLevel(level, next);
+            level = next;
+            publishedModels.add(Arrays.toString(matrix.getTrafficMatrixSnapshot()));
+        }
+
+        // 5 000 intervalles de publication, mais seulement quelques modèles distincts (autant d'entrées de cache)
+        assertTrue(publishedModels.size() <= 30, "modèles publiés : " + publishedModels.size());
+        assertTrue(matrix.getVersion() <= 30, "version : " + matrix.getVersion());
+
+        for (TrafficLevel from : TrafficLevel.values()) {
+            double[] row = matrix.getTrafficTransitionProbs(from);
+            double sum = 0.0;
+            for (int i = 0; i < row.length; i++) {
+                sum += row[i];
+                assertEquals(Math.round(row[i] * 20) / 20.0, row[i], 1e-12, "ligne arrondie au pas de publication");
+                assertTrue(row[i] > 0.0);
+                assertEquals(TRUE_MATRIX[from.ordinal()][i], row[i], 0.1, from + " -> " + i);
+            }
+            assertEquals(1.0, sum, 1e-9);
+        }
+    }
+
+    @Test
+    void stableTrafficIsNotRepublished() {
+        TransitionMatrix matrix = new TransitionMatrix();
+        TransitionEstimator estimator = new TransitionEstimator(matrix, 10);
+        // Trafic conforme à la matrice initiale, publié par blocs de 10 observations : rien ne change
+        for (int i = 0; i < 100; i++) {
+            estimator.observeLevel(TrafficLevel.NONE, TrafficLevel.NONE);
+            estimator.observeLevel(TrafficLevel.NONE, TrafficLevel.NONE);
+            estimator.observeLevel(TrafficLevel.NONE, TrafficLevel.NONE);
+            estimator.observeLevel(TrafficLevel.NONE, TrafficLevel.NONE);
+            estimator.observeLevel(TrafficLevel.NONE, TrafficLevel.NONE);
+            estimator.observeLevel(TrafficLevel.NONE, TrafficLevel.MEDIUM);
+            estimator.observeLevel(TrafficLevel.NONE, TrafficLevel.MEDIUM);
+            estimator.observeLevel(TrafficLevel.NONE, TrafficLevel.MEDIUM);
+            estimator.observeLevel(TrafficLevel.NONE, TrafficLevel.HEAVY);
+            estimator.observeLevel(TrafficLevel.NONE, TrafficLevel.HEAVY);
+        }
+        assertEquals(0, matrix.getVersion());
+        assertEquals(0, estimator.getPublications());
+    }
+
+    @Test
+    void unknownStatesHaveZeroProbability() {
+        TransitionMatrix matrix = new TransitionMatrix();
+        assertEquals(0.7, matrix.getProbability("GREEN_NONE", "GREEN_NONE"), 1e-12);
+        assertEquals(0.0, matrix.getProbability("BLUE_NONE", "GREEN_NONE"));
+        assertEquals(0.0, matrix.getProbability("GREEN_NONE", "GREEN_JAM"));
+        assertEquals(0.0, matrix.getProbability("GREEN", "GREEN_NONE"));
+    }
+}
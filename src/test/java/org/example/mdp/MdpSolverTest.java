@@ -0,0 +1,51 @@
+package org.example.mdp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MdpSolverTest {
+
+    @Test
+    void twoStateChainHasClosedFormValues() {
+        // État 0 : "rester" (r = 1, reste en 0) ou "partir" (r = 5, va en 1) ; état 1 terminal (sans action)
+        SparseMdp mdp = SparseMdp.builder(2)
+                .addAction(0, 10).addTransition(0, 1.0, 1.0)
+                .addAction(0, 11).addTransition(1, 1.0, 5.0)
+                .build();
+        MdpSolution solution = new MdpSolver(0.9, 1e-10, 10_000).solve(mdp);
+        // rester pour toujours : 1 / (1 - 0.9) = 10 > 5
+        assertEquals(10.0, solution.values()[0], 1e-6);
+        assertEquals(0.0, solution.values()[1]);
+        assertEquals(10, solution.policy()[0]);
+        assertEquals(-1, solution.policy()[1]);
+        assertTrue(solution.stats().converged());
+    }
+
+    @Test
+    void parallelSweepsMatchSequential() {
+        SparseMdp mdp = randomMdp(new Random(31), MdpSolver.PARALLEL_THRESHOLD * 2, 3, 4);
+        MdpSolution sequential = new MdpSolver(0.9, 1e-9, 5000).setParallel(false).solve(mdp);
+        MdpSolution parallel = new MdpSolver(0.9, 1e-9, 5000).setParallel(true).solve(mdp);
+        assertArrayEquals(sequential.values(), parallel.values(), 0.0);
+        assertArrayEquals(sequential.policy(), parallel.policy());
+    }
+
+    static SparseMdp randomMdp(Random random, int states, int actionsPerState, int transitionsPerAction) {
+        SparseMdp.Builder builder = SparseMdp.builder(states);
+        for (int s = 0; s < states; s++) {
+            for (int a = 0; a < actionsPerState; a++) {
+                builder.addAction(s, a);
+                double[] weights = new double[transitionsPerAction];
+                double total = 0.0;
+                for (int t = 0; t < transitionsPerAction; t++) total += weights[t] = 0.1 + random.nextDouble();
+                for (int t = 0; t < transitionsPerAction; t++) {
+                    builder.addTransition(random.nextInt(states), weights[t] / total, random.nextDouble() * 10 - 5);
+                }
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AllPairsTableTest {
+
+    @Test
+    void sameCostAsDijkstra() throws Exception {
+        Graph graph = GraphFixtures.randomGrid(21, 15, 6, 0.1);
+        AllPairsTable table = AllPairsTable.buildAsync(graph).get();
+        assertTrue(table.isValidFor(graph));
+        Random random = new Random(22);
+        for (int i = 0; i < 300; i++) {
+            Position start = GraphFixtures.randomNode(graph, random);
+            Position goal = GraphFixtures.randomNode(graph, random);
+            List<Position> expected = DijkstraAlgorithm.computePath(graph, start, goal);
+            List<Position> path = table.computePath(start, goal);
+
+            assertEquals(expected.isEmpty(), path.isEmpty(), start + " -> " + goal);
+            if (path.isEmpty()) continue;
+            double cost = GraphFixtures.pathCost(graph, expected);
+            assertEquals(cost, GraphFixtures.pathCost(graph, path), 1e-9);
+            assertEquals(cost, table.getDistance(graph.getNode(start).getId(), graph.getNode(goal).getId()), 1e-3);
+        }
+    }
+
+    @Test
+    void sizedByLiveNodes() {
+        Graph graph = GraphFixtures.randomGrid(23, 10, 10, 0.0);
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 9; y++) graph.removeNode(new Position(x * 10, y * 10));
+        }
+        // 10 nœuds vivants sur 100 ids : 100 paires
+        assertTrue(AllPairsTable.fits(graph, 100 * AllPairsTable.BYTES_PER_PAIR));
+        assertFalse(AllPairsTable.fits(graph, 99 * AllPairsTable.BYTES_PER_PAIR));
+        assertEquals(100 * AllPairsTable.BYTES_PER_PAIR, AllPairsTable.build(graph).getMemoryFootprintBytes());
+    }
+
+    @Test
+    void staleAfterGraphChange() {
+        Graph graph = GraphFixtures.randomGrid(24, 4, 4, 0.0);
+        AllPairsTable table = AllPairsTable.build(graph);
+        graph.removeNode(new Position(10, 10));
+        assertFalse(table.isValidFor(graph));
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AltSearchTest {
+
+    @Test
+    void sameCostAsDijkstra() {
+        Graph graph = GraphFixtures.randomGrid(4, 30, 8, 0.15);
+        LandmarkIndex landmarks = LandmarkIndex.build(graph, 8);
+        Random random = new Random(5);
+        AltSearch search = new AltSearch();
+        for (int i = 0; i < 300; i++) {
+            Position start = GraphFixtures.randomNode(graph, random);
+            Position goal = GraphFixtures.randomNode(graph, random);
+            List<Position> expected = DijkstraAlgorithm.computePath(graph, start, goal);
+            List<Position> path = search.computePath(graph, landmarks, start, goal);
+
+            assertEquals(expected.isEmpty(), path.isEmpty(), start + " -> " + goal);
+            if (path.isEmpty()) continue;
+            assertEquals(start, path.get(0));
+            assertEquals(goal, path.get(path.size() - 1));
+            assertEquals(GraphFixtures.pathCost(graph, expected), GraphFixtures.pathCost(graph, path), 1e-9,
+                    start + " -> " + goal);
+        }
+    }
+
+    @Test
+    void lowerBoundIsAdmissible() {
+        Graph graph = GraphFixtures.randomGrid(6, 20, 6, 0.1);
+        LandmarkIndex landmarks = LandmarkIndex.build(graph, 6);
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            Position start = GraphFixtures.randomNode(graph, random);
+            Position goal = GraphFixtures.randomNode(graph, random);
+            List<Position> path = DijkstraAlgorithm.computePath(graph, start, goal);
+            if (path.isEmpty()) continue;
+            double bound = landmarks.lowerBound(graph.getNode(start).getId(), graph.getNode(goal).getId());
+            assertTrue(bound <= GraphFixtures.pathCost(graph, path), start + " -> " + goal);
+        }
+    }
+
+    @Test
+    void landmarksStayInMainComponent() {
+        // Grande grille + nœuds isolés et petite composante très loin : ils ne doivent prendre aucun repère
+        Graph graph = GraphFixtures.randomGrid(8, 20, 5, 0.0);
+        graph.connect(5000, 5000, 5010, 5000, 1);
+        graph.getOrCreateNode(-3000, 0);
+        graph.getOrCreateNode(9000, 9000);
+
+        LandmarkIndex landmarks = LandmarkIndex.build(graph, 4);
+        assertEquals(4, landmarks.getLandmarkCount());
+        for (int id : landmarks.getLandmarkIds()) {
+            Position position = graph.getNodeById(id).getPosition();
+            assertTrue(position.getX() < 200 && position.getY() < 50, "repère hors de la grille : " + position);
+        }
+        int a = graph.getNode(0, 0).getId();
+        int b = graph.getNode(190, 40).getId();
+        assertTrue(landmarks.lowerBound(a, b) > 0, Arrays.toString(landmarks.getLandmarkIds()));
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncRoutePlannerTest {
+
+    // Exécuteur manuel : les calculs ne tournent que lorsque le test appelle runAll()
+    private static final class ManualExecutor extends AbstractExecutorService {
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+        private boolean shutdown = false;
+
+        int runAll() {
+            int count = 0;
+            while (!tasks.isEmpty()) {
+                tasks.poll().run();
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            List<Runnable> remaining = new ArrayList<>(tasks);
+            tasks.clear();
+            return remaining;
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && tasks.isEmpty();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return isTerminated();
+        }
+    }
+
+    private static List<Position> path(int... xs) {
+        List<Position> path = new ArrayList<>();
+        for (int x : xs) path.add(new Position(x, 0));
+        return path;
+    }
+
+    @Test
+    void pathIsInstalledOnlyAtTickBoundary() {
+        ManualExecutor executor = new ManualExecutor();
+        List<String> installed = new ArrayList<>();
+        try (AsyncRoutePlanner planner = new AsyncRoutePlanner(executor)) {
+            planner.submit("V1", () -> path(0, 10, 20), p -> installed.add("V1 " + p.size()));
+            planner.submit("V2", () -> path(0, 10), p -> installed.add("V2 " + p.size()));
+            assertTrue(planner.isPending("V1"));
+
+            // Calculs terminés en cours de tick : rien n'est installé avant la frontière
+            assertEquals(2, executor.runAll());
+            assertTrue(installed.isEmpty());
+            assertEquals(2, planner.getPendingCount());
+
+            assertEquals(2, planner.installCompleted());
+            assertEquals(List.of("V1 3", "V2 2"), installed);
+            assertFalse(planner.isPending("V1"));
+            assertEquals(0, planner.installCompleted());
+            assertEquals(2, planner.getInstalledTotal());
+        }
+        assertTrue(executor.isShutdown());
+    }
+
+    @Test
+    void staleResultIsDroppedWhenVehicleReRequests() {
+        ManualExecutor executor = new ManualExecutor();
+        List<List<Position>> installed = new ArrayList<>();
+        List<String> computed = new ArrayList<>();
+        try (AsyncRoutePlanner planner = new AsyncRoutePlanner(executor)) {
+            planner.submit("V1", () -> {
+                computed.add("ancien");
+                return path(0, 10, 20);
+            }, installed::add);
+            // Nouvelle demande avant que le premier calcul ait tourné : l'ancien est abandonné
+            planner.submit("V1", () -> {
+                computed.add("nouveau");
+                return path(0, 50);
+            }, installed::add);
+            assertEquals(1, planner.getPendingCount());
+
+            executor.runAll();
+            assertEquals(1, planner.installCompleted());
+            assertEquals(List.of(path(0, 50)), installed);
+            assertFalse(computed.contains("ancien"));
+
+            // Nouvelle demande après la fin du premier calcul : son résultat est ignoré lui aussi
+            planner.submit("V1", () -> path(0, 10), installed::add);
+            executor.runAll();
+            planner.submit("V1", () -> path(0, 30), installed::add);
+            executor.runAll();
+            assertEquals(1, planner.installCompleted());
+            assertEquals(List.of(path(0, 50), path(0, 30)), installed);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BidirectionalDijkstraTest {
+
+    @Test
+    void sameCostAsDijkstra() {
+        Graph graph = GraphFixtures.randomGrid(1, 30, 8, 0.1);
+        Random random = new Random(2);
+        BidirectionalDijkstra search = new BidirectionalDijkstra();
+        for (int i = 0; i < 300; i++) {
+            Position start = GraphFixtures.randomNode(graph, random);
+            Position goal = GraphFixtures.randomNode(graph, random);
+            List<Position> expected = DijkstraAlgorithm.computePath(graph, start, goal);
+            List<Position> path = search.computePath(graph, start, goal);
+
+            assertEquals(expected.isEmpty(), path.isEmpty(), start + " -> " + goal);
+            if (path.isEmpty()) continue;
+            assertEquals(start, path.get(0));
+            assertEquals(goal, path.get(path.size() - 1));
+            double expectedCost = GraphFixtures.pathCost(graph, expected);
+            assertEquals(expectedCost, GraphFixtures.pathCost(graph, path), 1e-9, start + " -> " + goal);
+            assertEquals(expectedCost, search.getPathCost(), 1e-9);
+        }
+    }
+
+    @Test
+    void startEqualsGoal() {
+        Graph graph = GraphFixtures.randomGrid(3, 5, 5, 0.0);
+        Position node = new Position(20, 20);
+        assertEquals(List.of(node), new BidirectionalDijkstra().computePath(graph, node, node));
+    }
+
+    @Test
+    void unknownOrDisconnectedNodes() {
+        Graph graph = new Graph();
+        graph.connect(0, 0, 10, 0, 1);
+        graph.connect(100, 0, 110, 0, 1);
+        BidirectionalDijkstra search = new BidirectionalDijkstra();
+        assertFalse(search.search(graph, new Position(0, 0), new Position(110, 0)));
+        assertFalse(search.search(graph, new Position(0, 0), new Position(55, 5)));
+        assertTrue(search.computePath(graph, new Position(0, 0), new Position(110, 0)).isEmpty());
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Graphes de test : grilles de voies avec coûts aléatoires et trous (nœuds retirés comme par un obstacle)
+final class GraphFixtures {
+
+    private GraphFixtures() {
+    }
+
+    static Graph randomGrid(long seed, int width, int height, double holeRate) {
+        Random random = new Random(seed);
+        Graph graph = new Graph();
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (x + 1 < width) graph.connect(x * 10, y * 10, (x + 1) * 10, y * 10, 10 + random.nextInt(20));
+                if (y + 1 < height) graph.connect(x * 10, y * 10, x * 10, (y + 1) * 10, 5 + random.nextInt(40));
+            }
+        }
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (random.nextDouble() < holeRate) graph.removeNode(new Position(x * 10, y * 10));
+            }
+        }
+        return graph;
+    }
+
+    static Position randomNode(Graph graph, Random random) {
+        List<GraphNode> nodes = List.copyOf(graph.getAllNodes());
+        return nodes.get(random.nextInt(nodes.size())).getPosition();
+    }
+
+    // Coût d'un chemin en suivant ses arêtes, NaN si deux points consécutifs ne sont pas reliés
+    static double pathCost(Graph graph, List<Position> path) {
+        double cost = 0.0;
+        for (int i = 1; i < path.size(); i++) {
+            Map<GraphNode, Double> neighbors = graph.getNode(path.get(i - 1)).getNeighbors();
+            Double edge = neighbors.get(graph.getNode(path.get(i)));
+            if (edge == null) return Double.NaN;
+            cost += edge;
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphTest {
+
+    @Test
+    void removedIdsAreReused() {
+        Graph graph = GraphFixtures.randomGrid(12, 10, 4, 0.0);
+        int capacity = graph.getIdCapacity();
+
+        // Beaucoup de cycles retrait / recréation (routes détachées puis rattachées) : la capacité ne grandit pas
+        for (int cycle = 0; cycle < 50; cycle++) {
+            for (int x = 0; x < 10; x++) graph.removeNode(new Position(x * 10, 20));
+            for (int x = 0; x < 10; x++) graph.connect(x * 10, 10, x * 10, 20, 5);
+        }
+        assertEquals(capacity, graph.getIdCapacity());
+        assertEquals(40, graph.getAllNodes().size());
+
+        Set<Integer> ids = new HashSet<>();
+        for (GraphNode node : graph.getAllNodes()) {
+            assertTrue(ids.add(node.getId()), "id en double : " + node.getId());
+            assertSame(node, graph.getNodeById(node.getId()));
+            assertSame(node, graph.getNode(node.getPosition()));
+        }
+    }
+
+    @Test
+    void versionChangesWhenAnIdIsReused() {
+        Graph graph = new Graph();
+        graph.connect(0, 0, 10, 0, 1);
+        int id = graph.getNode(10, 0).getId();
+        graph.removeNode(new Position(10, 0));
+        long version = graph.getVersion();
+
+        GraphNode reused = graph.getOrCreateNode(50, 50);
+        assertEquals(id, reused.getId());
+        assertTrue(graph.getVersion() > version);
+        assertNull(graph.getNode(10, 0));
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiTargetDijkstraTest {
+
+    @Test
+    void sameCostsAsPerPairDijkstra() {
+        Graph graph = GraphFixtures.randomGrid(4, 25, 10, 0.1);
+        Random random = new Random(6);
+        MultiTargetDijkstra search = new MultiTargetDijkstra();
+        for (int query = 0; query < 40; query++) {
+            Position start = GraphFixtures.randomNode(graph, random);
+            List<Position> goals = new ArrayList<>();
+            for (int i = 1 + random.nextInt(12); i > 0; i--) {
+                goals.add(GraphFixtures.randomNode(graph, random));
+            }
+            goals.add(goals.get(0)); // but en double
+            goals.add(start);
+
+            List<List<Position>> paths = search.computePaths(graph, start, goals);
+            assertEquals(goals.size(), paths.size());
+            for (int i = 0; i < goals.size(); i++) {
+                Position goal = goals.get(i);
+                List<Position> expected = DijkstraAlgorithm.computePath(graph, start, goal);
+                List<Position> path = paths.get(i);
+                assertEquals(expected.isEmpty(), path.isEmpty(), start + " -> " + goal);
+                if (path.isEmpty()) continue;
+                assertEquals(start, path.get(0));
+                assertEquals(goal, path.get(path.size() - 1));
+                assertEquals(GraphFixtures.pathCost(graph, expected), GraphFixtures.pathCost(graph, path), 1e-9,
+                        start + " -> " + goal);
+            }
+        }
+    }
+
+    @Test
+    void unknownOrUnreachableGoals() {
+        Graph graph = new Graph();
+        graph.connect(0, 0, 10, 0, 1);
+        graph.connect(10, 0, 20, 0, 1);
+        graph.connect(100, 0, 110, 0, 1);
+        Position start = new Position(0, 0);
+        List<List<Position>> paths = new MultiTargetDijkstra().computePaths(graph, start,
+                List.of(new Position(20, 0), new Position(110, 0), new Position(55, 5)));
+        assertEquals(List.of(start, new Position(10, 0), new Position(20, 0)), paths.get(0));
+        assertTrue(paths.get(1).isEmpty());
+        assertTrue(paths.get(2).isEmpty());
+
+        List<List<Position>> fromNowhere = new MultiTargetDijkstra().computePaths(graph, new Position(5, 5),
+                List.of(new Position(20, 0)));
+        assertEquals(List.of(List.of()), fromNowhere);
+    }
+}
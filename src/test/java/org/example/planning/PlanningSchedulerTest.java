@@ -0,0 +1,78 @@
+package org.example.planning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanningSchedulerTest {
+
+    @Test
+    void planBudgetCarriesOverToNextTick() {
+        PlanningScheduler scheduler = new PlanningScheduler(2, 0);
+        List<String> executed = new ArrayList<>();
+        for (String agent : List.of("V1", "V2", "V3", "V4", "V5")) {
+            assertTrue(scheduler.submit(agent, 10.0, () -> executed.add(agent)));
+        }
+
+        // Budget épuisé après deux plans : le reste attend, dans l'ordre d'arrivée à urgence égale
+        assertEquals(2, scheduler.runTick());
+        assertEquals(List.of("V1", "V2"), executed);
+        assertEquals(3, scheduler.getPendingCount());
+        assertTrue(scheduler.isPending("V3"));
+        assertFalse(scheduler.isPending("V1"));
+
+        // Une demande plus urgente arrivée entre-temps passe devant les demandes reportées
+        scheduler.submit("V6", 0.0, () -> executed.add("V6"));
+        assertEquals(2, scheduler.runTick());
+        assertEquals(List.of("V1", "V2", "V6", "V3"), executed);
+
+        assertEquals(2, scheduler.runTick());
+        assertEquals(List.of("V1", "V2", "V6", "V3", "V4", "V5"), executed);
+        assertEquals(0, scheduler.runTick());
+        assertEquals(6, scheduler.getExecutedTotal());
+    }
+
+    @Test
+    void timeBudgetStillRunsOnePlanPerTick() {
+        PlanningScheduler scheduler = new PlanningScheduler(0, 500);
+        List<String> executed = new ArrayList<>();
+        for (String agent : List.of("V1", "V2", "V3")) {
+            scheduler.submit(agent, 1.0, () -> {
+                executed.add(agent);
+                long end = System.nanoTime() + 2_000_000; // 2 ms : dépasse à lui seul le budget du tick
+                while (System.nanoTime() < end) Thread.onSpinWait();
+            });
+        }
+
+        for (int tick = 1; tick <= 3; tick++) {
+            assertEquals(1, scheduler.runTick(), "tick " + tick);
+            assertEquals(3 - tick, scheduler.getPendingCount());
+            assertTrue(scheduler.getLastTickMicros() >= 2_000);
+        }
+        assertEquals(List.of("V1", "V2", "V3"), executed);
+    }
+
+    @Test
+    void resubmissionKeepsMostUrgentRequest() {
+        PlanningScheduler scheduler = new PlanningScheduler(1, 0);
+        List<String> executed = new ArrayList<>();
+        scheduler.submit("V1", 50.0, () -> executed.add("V1 loin"));
+        scheduler.submit("V2", 20.0, () -> executed.add("V2"));
+        assertFalse(scheduler.submit("V1", 80.0, () -> executed.add("V1 plus loin")));
+        assertTrue(scheduler.submit("V1", 5.0, () -> executed.add("V1 proche")));
+        assertEquals(2, scheduler.getPendingCount());
+
+        scheduler.runTick();
+        scheduler.runTick();
+        assertEquals(0, scheduler.runTick());
+        assertEquals(List.of("V1 proche", "V2"), executed);
+
+        scheduler.submit("V3", 1.0, () -> executed.add("V3"));
+        scheduler.cancel("V3");
+        assertEquals(0, scheduler.runTick());
+        assertFalse(scheduler.isPending("V3"));
+    }
+}
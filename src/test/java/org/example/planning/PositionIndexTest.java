@@ -0,0 +1,78 @@
+package org.example.planning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionIndexTest {
+
+    @Test
+    void packRoundTrip() {
+        long key = PositionIndex.pack(-120, 4500);
+        assertEquals(-120, PositionIndex.unpackX(key));
+        assertEquals(4500, PositionIndex.unpackY(key));
+        assertNotEquals(PositionIndex.pack(1, 2), PositionIndex.pack(2, 1));
+    }
+
+    @Test
+    void deleteAndReinsertUnderCollisions() {
+        // Clés qui tombent toutes dans la même case d'une table de 64 : une seule longue chaîne de sondage
+        int mask = 63;
+        List<Long> colliding = new ArrayList<>();
+        for (int x = 0; colliding.size() < 12; x++) {
+            long key = PositionIndex.pack(x, 7);
+            if ((PositionIndex.mix(key) & mask) == 5) colliding.add(key);
+        }
+        PositionIndex index = new PositionIndex(32); // 64 cases, pas de redimensionnement avec 12 clés
+        for (int i = 0; i < colliding.size(); i++) index.put(colliding.get(i), i);
+
+        // Retrait au milieu, au début et à la fin de la chaîne : les autres restent trouvables
+        for (int removed : new int[]{5, 0, 11}) {
+            assertEquals(removed, index.remove(colliding.get(removed)));
+            assertEquals(-1, index.get(colliding.get(removed)));
+            assertEquals(-1, index.remove(colliding.get(removed)));
+        }
+        for (int i = 0; i < colliding.size(); i++) {
+            int expected = (i == 5 || i == 0 || i == 11) ? -1 : i;
+            assertEquals(expected, index.get(colliding.get(i)), "clé " + i);
+        }
+
+        // Réinsertion avec de nouveaux ids
+        index.put(colliding.get(5), 105);
+        index.put(colliding.get(0), 100);
+        index.put(colliding.get(11), 111);
+        assertEquals(12, index.size());
+        assertEquals(105, index.get(colliding.get(5)));
+        assertEquals(100, index.get(colliding.get(0)));
+        assertEquals(111, index.get(colliding.get(11)));
+        assertEquals(3, index.get(colliding.get(3)));
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(11);
+        PositionIndex index = new PositionIndex();
+        Map<Long, Integer> reference = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long key = PositionIndex.pack(random.nextInt(40) * 10, random.nextInt(8) * 10);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    index.put(key, i);
+                    reference.put(key, i);
+                }
+                case 1 -> {
+                    Integer removed = reference.remove(key);
+                    assertEquals(removed == null ? -1 : removed, index.remove(key));
+                }
+                default -> assertEquals(reference.getOrDefault(key, -1), index.get(key));
+            }
+            assertEquals(reference.size(), index.size());
+        }
+    }
+}
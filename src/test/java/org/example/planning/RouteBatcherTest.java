@@ -0,0 +1,102 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+import org.example.environment.Environment;
+import org.example.environment.Lane;
+import org.example.environment.Road;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteBatcherTest {
+
+    @Test
+    void identicalRequestsShareOneSearch() {
+        Graph graph = GraphFixtures.randomGrid(8, 20, 6, 0.0);
+        Position start = new Position(0, 0);
+        Position goal = new Position(190, 50);
+        RouteBatcher batcher = new RouteBatcher();
+        List<List<Position>> installed = new ArrayList<>();
+        for (int vehicle = 0; vehicle < 10; vehicle++) {
+            batcher.submit("V" + vehicle, graph, start, goal, installed::add);
+        }
+        assertEquals(10, batcher.getPendingCount());
+
+        assertEquals(10, batcher.flush());
+        assertEquals(1, batcher.getSearchesTotal());
+        assertEquals(1, batcher.getDistinctTotal());
+        assertEquals(10, batcher.getRequestsTotal());
+        assertEquals(10, installed.size());
+        List<Position> expected = DijkstraAlgorithm.computePath(graph, start, goal);
+        assertEquals(GraphFixtures.pathCost(graph, expected), GraphFixtures.pathCost(graph, installed.get(0)), 1e-9);
+        for (List<Position> path : installed) {
+            assertSame(installed.get(0), path); // chemin partagé, en lecture seule
+        }
+        assertThrows(UnsupportedOperationException.class, () -> installed.get(0).clear());
+        assertEquals(0, batcher.getPendingCount());
+    }
+
+    @Test
+    void sameStartUsesOneMultiTargetSearch() {
+        Graph graph = GraphFixtures.randomGrid(9, 20, 6, 0.1);
+        Random random = new Random(10);
+        Position start = GraphFixtures.randomNode(graph, random);
+        RouteBatcher batcher = new RouteBatcher();
+        List<Position> goals = new ArrayList<>();
+        List<String> order = new ArrayList<>();
+        List<List<Position>> installed = new ArrayList<>();
+        for (int vehicle = 0; vehicle < 8; vehicle++) {
+            Position goal = GraphFixtures.randomNode(graph, random);
+            goals.add(goal);
+            String key = "V" + vehicle;
+            batcher.submit(key, graph, start, goal, path -> {
+                order.add(key);
+                installed.add(path);
+            });
+        }
+        // Nouvelle demande du même véhicule dans le tick : remplace la précédente
+        goals.set(3, start);
+        batcher.submit("V3", graph, start, start, path -> {
+            order.add("V3");
+            installed.add(path);
+        });
+
+        assertEquals(8, batcher.flush());
+        assertEquals(1, batcher.getSearchesTotal());
+        assertEquals(List.of("V0", "V1", "V2", "V4", "V5", "V6", "V7", "V3"), order);
+        List<Position> installOrderGoals = new ArrayList<>(goals);
+        installOrderGoals.add(installOrderGoals.remove(3));
+        for (int i = 0; i < installed.size(); i++) {
+            Position goal = installOrderGoals.get(i);
+            List<Position> expected = DijkstraAlgorithm.computePath(graph, start, goal);
+            assertEquals(expected.isEmpty(), installed.get(i).isEmpty(), start + " -> " + goal);
+            if (expected.isEmpty()) continue;
+            assertEquals(GraphFixtures.pathCost(graph, expected), GraphFixtures.pathCost(graph, installed.get(i)), 1e-9);
+        }
+    }
+
+    @Test
+    void pathsAreInstalledAtEndTick() {
+        Environment env = new Environment();
+        Road road = new Road("R1", 100.0, List.of(new Position(0, 0)));
+        road.addLane(new Lane("L1", 3.5, 0.0, Lane.DIRECTION_RIGHT, road));
+        env.addRoad(road);
+        env.enableRouteBatching();
+
+        List<List<Position>> installed = new ArrayList<>();
+        Graph graph = env.getGlobalGraph();
+        env.getRouteBatcher().submit("V1", graph, new Position(0, 0), new Position(100, 0), installed::add);
+        env.getRouteBatcher().submit("V2", graph, new Position(0, 0), new Position(100, 0), installed::add);
+        assertTrue(installed.isEmpty());
+
+        env.endTick();
+        assertEquals(2, installed.size());
+        assertEquals(11, installed.get(0).size());
+        assertEquals(0, env.getRouteBatcher().getPendingCount());
+        assertEquals(1, env.getRouteBatcher().getSearchesTotal());
+    }
+}
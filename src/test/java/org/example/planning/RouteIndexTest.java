@@ -0,0 +1,50 @@
+package org.example.planning;
+
+import org.example.agent.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteIndexTest {
+
+    private static final Position A = new Position(0, 0);
+    private static final Position B = new Position(10, 0);
+    private static final Position C = new Position(20, 0);
+    private static final Position D = new Position(20, 10);
+
+    @Test
+    void routesThroughFollowsTrackedPaths() {
+        RouteIndex<String> index = new RouteIndex<>();
+        index.track("V1", List.of(A, B, C));
+        index.track("V2", List.of(B, C, D, C)); // nœud répété : une seule entrée
+        index.track("V3", List.of(D));
+
+        assertEquals(List.of("V1", "V2"), index.routesThrough(B));
+        assertEquals(List.of("V2", "V3"), index.routesThrough(D));
+        assertEquals(List.of(), index.routesThrough(new Position(50, 50)));
+        assertEquals(3, index.getTrackedCount());
+
+        // Nouveau chemin : remplace l'ancien
+        index.track("V1", List.of(D, C));
+        assertEquals(List.of("V2"), index.routesThrough(B));
+        assertEquals(List.of("V2", "V3", "V1"), index.routesThrough(D));
+        assertEquals(List.of(), index.routesThrough(A));
+    }
+
+    @Test
+    void untrackAndEmptyPathForgetTheRoute() {
+        RouteIndex<String> index = new RouteIndex<>();
+        index.track("V1", List.of(A, B));
+        index.track("V2", List.of(B, C));
+        index.untrack("V1");
+        assertEquals(List.of("V2"), index.routesThrough(B));
+        assertEquals(List.of(), index.routesThrough(A));
+        index.untrack("V1"); // sans effet
+
+        index.track("V2", List.of());
+        assertEquals(List.of(), index.routesThrough(B));
+        assertEquals(0, index.getTrackedCount());
+    }
+}